@@ -0,0 +1,58 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.parser.ASTListener;
+import nl.han.ica.icss.parser.ICSSFastLexer;
+import nl.han.ica.icss.parser.ICSSParser;
+import nl.han.ica.icss.parser.StylesheetParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt het bouwen van het AST in twee doorgangen (parse tree bouwen en die doorlopen met
+ * ASTListener) met het bouwen tijdens het parsen zoals StylesheetParser dat doet. Beide gebruiken
+ * dezelfde lexer en SLL-voorspelling, zodat alleen de opbouw van het AST verschilt.
+ *
+ * Draaien met de GC-profiler om de allocaties per parse te zien:
+ * java -jar target/benchmarks.jar AstConstructionBenchmark -p input=mb:4 -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AstConstructionBenchmark {
+
+    @Param({"rules:10000", "mb:4"})
+    public String input;
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Workloads.load(input);
+    }
+
+    @Benchmark
+    public AST parseTreeWalk() {
+        ICSSParser parser = new ICSSParser(new CommonTokenStream(
+                new ICSSFastLexer(CharStreams.fromString(source), new BaseErrorListener())));
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+
+        ASTListener listener = new ASTListener();
+        new ParseTreeWalker().walk(listener, parser.stylesheet());
+        return listener.getAST();
+    }
+
+    @Benchmark
+    public AST singlePass() {
+        return StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener());
+    }
+}
@@ -0,0 +1,82 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.parser.StylesheetParser;
+import nl.han.ica.icss.transforms.SubtreeDeduplicator;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet het vergelijken en hashen van twee gelijke AST's, met en zonder gecachte hashes, en het delen van gelijke
+ * subbomen met de {@link SubtreeDeduplicator}.
+ *
+ * Draaien: java -jar target/benchmarks.jar AstEqualityBenchmark -p input=rules:10000
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AstEqualityBenchmark {
+
+    @Param({"level3", "rules:10000", "nesting:64"})
+    public String input;
+
+    private String source;
+    private AST first;
+    private AST second;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Workloads.load(input);
+        first = parse(source);
+        second = parse(source);
+    }
+
+    /**
+     * Twee verse bomen zonder gecachte hashes, voor elke aanroep opnieuw.
+     */
+    @State(Scope.Thread)
+    public static class FreshAsts {
+        AST first;
+        AST second;
+
+        @Setup(Level.Invocation)
+        public void setUp(AstEqualityBenchmark benchmark) {
+            first = parse(benchmark.source);
+            second = parse(benchmark.source);
+        }
+    }
+
+    @Benchmark
+    public boolean equalsFresh(FreshAsts fresh) {
+        return fresh.first.equals(fresh.second);
+    }
+
+    @Benchmark
+    public int hashCodeFresh(FreshAsts fresh) {
+        return fresh.first.hashCode();
+    }
+
+    /**
+     * Na de eerste aanroep zijn de hashes van beide bomen bekend.
+     */
+    @Benchmark
+    public int hashCodeCached() {
+        return first.hashCode() ^ second.hashCode();
+    }
+
+    @Benchmark
+    public AST deduplicate(FreshAsts fresh) {
+        new SubtreeDeduplicator().apply(fresh.first);
+        return fresh.first;
+    }
+
+    private static AST parse(String source) {
+        return StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener());
+    }
+}
@@ -0,0 +1,74 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.flat.FlatAST;
+import nl.han.ica.icss.generator.FlatGenerator;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.parser.StylesheetParser;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt het object-AST met de platte boom (zie {@link FlatAST}): parsen, en evalueren plus genereren.
+ * Draai met -prof gc om ook de allocaties per operatie te zien.
+ *
+ * Draaien: java -jar target/benchmarks.jar FlatAstBenchmark -p input=rules:100000 -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlatAstBenchmark {
+
+    @Param({"rules:10000", "rules:100000", "mb:4"})
+    public String input;
+
+    private String source;
+    private FlatAST flatAst;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Workloads.load(input);
+        flatAst = StylesheetParser.parseFlat(CharStreams.fromString(source), new BaseErrorListener());
+    }
+
+    /**
+     * Apply vervangt de root van het object-AST, dus elke aanroep krijgt een vers AST.
+     */
+    @State(Scope.Thread)
+    public static class FreshAst {
+        AST ast;
+
+        @Setup(Level.Invocation)
+        public void setUp(FlatAstBenchmark benchmark) {
+            ast = StylesheetParser.parse(CharStreams.fromString(benchmark.source), new BaseErrorListener());
+        }
+    }
+
+    @Benchmark
+    public AST parseObjects() {
+        return StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener());
+    }
+
+    @Benchmark
+    public FlatAST parseFlat() {
+        return StylesheetParser.parseFlat(CharStreams.fromString(source), new BaseErrorListener());
+    }
+
+    @Benchmark
+    public String generateObjects(FreshAst fresh) {
+        new Evaluator().apply(fresh.ast);
+        return new Generator().generate(fresh.ast);
+    }
+
+    @Benchmark
+    public String generateFlat() {
+        return new FlatGenerator().generate(flatAst);
+    }
+}
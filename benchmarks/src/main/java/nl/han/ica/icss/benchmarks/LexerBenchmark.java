@@ -0,0 +1,61 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.parser.ICSSFastLexer;
+import nl.han.ica.icss.parser.ICSSLexer;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CodePointCharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt de door Antlr gegenereerde ICSSLexer met de handgeschreven ICSSFastLexer: beide lexen
+ * de volledige invoer tot EOF, zonder parser erachter.
+ *
+ * Draaien: java -jar target/benchmarks.jar LexerBenchmark -p input=mb:4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LexerBenchmark {
+
+    @Param({"level3", "rules:10000", "mb:4"})
+    public String input;
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Workloads.load(input);
+    }
+
+    @Benchmark
+    public int antlrLexer() {
+        ICSSLexer lexer = new ICSSLexer(stream());
+        lexer.removeErrorListeners();
+        return drain(lexer);
+    }
+
+    @Benchmark
+    public int fastLexer() {
+        return drain(new ICSSFastLexer(stream(), new BaseErrorListener()));
+    }
+
+    private CodePointCharStream stream() {
+        return CharStreams.fromString(source);
+    }
+
+    private static int drain(TokenSource lexer) {
+        int count = 0;
+        while (lexer.nextToken().getType() != Token.EOF) {
+            count++;
+        }
+        return count;
+    }
+}
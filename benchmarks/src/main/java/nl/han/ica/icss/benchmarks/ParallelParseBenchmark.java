@@ -0,0 +1,53 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.parser.ParallelStylesheetParser;
+import nl.han.ica.icss.parser.StylesheetParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt het parsen van één grote stylesheet na elkaar met het parsen in stukken op alle cores
+ * (zie {@link ParallelStylesheetParser}).
+ *
+ * Draaien: java -jar target/benchmarks.jar ParallelParseBenchmark -p input=mb:16
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelParseBenchmark {
+
+    @Param({"rules:1000", "mb:4", "mb:16"})
+    public String input;
+
+    private String source;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Workloads.load(input);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public AST sequential() {
+        return StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener());
+    }
+
+    @Benchmark
+    public AST parallel() {
+        return ParallelStylesheetParser.parse(source, new BaseErrorListener(), pool);
+    }
+}
@@ -0,0 +1,62 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.parser.ParserWarmup;
+import nl.han.ica.icss.parser.StylesheetParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet de latentie van de allereerste parse in een verse JVM (coldParse) en die van een parse in een
+ * opgewarmde JVM (steadyParse), met en zonder {@link ParserWarmup} vooraf.
+ *
+ * coldParse draait elke meting in een eigen fork, zonder warmup-iteraties: het resultaat is precies de
+ * tijd die een gebruiker van een net gestarte compiler ziet. Het opwarmen zelf valt buiten de meting.
+ *
+ * Draaien: java -jar target/benchmarks.jar ParserStartupBenchmark -p input=level3
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParserStartupBenchmark {
+
+    @Param({"level3", "rules:1000"})
+    public String input;
+
+    @Param({"false", "true"})
+    public boolean warmUp;
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Workloads.load(input);
+        if (warmUp) {
+            ParserWarmup.warmUp();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public AST coldParse() {
+        return parse();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public AST steadyParse() {
+        return parse();
+    }
+
+    private AST parse() {
+        return StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener());
+    }
+}
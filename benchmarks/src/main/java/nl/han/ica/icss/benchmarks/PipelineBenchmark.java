@@ -0,0 +1,109 @@
+package nl.han.ica.icss.benchmarks;
+
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet elke fase van de Pipeline los (parse, check, transform, generate) en de volledige keten.
+ *
+ * Draaien: mvn package && java -jar target/benchmarks.jar PipelineBenchmark -p input=rules:10000
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PipelineBenchmark {
+
+    @Param({"level0", "level3", "rules:1000", "rules:10000", "nesting:64", "operations:512", "mb:4"})
+    public String input;
+
+    private String source;
+
+    // Een geparsed en gecheckt AST voor de check-benchmark; check is herhaalbaar op foutloze invoer
+    private AST checkedAst;
+
+    // Een volledig getransformeerd AST voor de generate-benchmark; generate wijzigt de boom niet
+    private AST transformedAst;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Workloads.load(input);
+
+        checkedAst = parse(source);
+        new Checker().check(checkedAst);
+        if (!checkedAst.getErrors().isEmpty()) {
+            throw new IllegalStateException("Workload " + input + " bevat fouten: " + checkedAst.getErrors());
+        }
+
+        transformedAst = parse(source);
+        new Checker().check(transformedAst);
+        new Evaluator().apply(transformedAst);
+    }
+
+    /**
+     * Apply vervangt de root van het AST, dus elke aanroep krijgt een vers, gecheckt AST.
+     */
+    @State(Scope.Thread)
+    public static class FreshAst {
+        AST ast;
+
+        @Setup(Level.Invocation)
+        public void setUp(PipelineBenchmark benchmark) {
+            ast = parse(benchmark.source);
+            new Checker().check(ast);
+        }
+    }
+
+    @Benchmark
+    public AST parse() {
+        return parse(source);
+    }
+
+    @Benchmark
+    public AST check() {
+        new Checker().check(checkedAst);
+        return checkedAst;
+    }
+
+    @Benchmark
+    public AST transform(FreshAst fresh) {
+        new Evaluator().apply(fresh.ast);
+        return fresh.ast;
+    }
+
+    /**
+     * Evaluate laat het gecheckte AST heel, dus hetzelfde AST kan zonder opzet per aanroep getransformeerd worden.
+     */
+    @Benchmark
+    public AST transformChecked() {
+        return new Evaluator().evaluate(checkedAst);
+    }
+
+    @Benchmark
+    public String generate() {
+        return new Generator().generate(transformedAst);
+    }
+
+    @Benchmark
+    public String endToEnd() {
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString(source);
+        pipeline.check();
+        pipeline.transform();
+        return pipeline.generate();
+    }
+
+    private static AST parse(String source) {
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString(source);
+        return pipeline.getAST();
+    }
+}
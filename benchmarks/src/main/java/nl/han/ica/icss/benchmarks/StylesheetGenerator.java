@@ -0,0 +1,124 @@
+package nl.han.ica.icss.benchmarks;
+
+/**
+ * Genereert synthetische, foutloze ICSS-stylesheets voor de benchmarks. De grootte van de invoer
+ * wordt bepaald door het aantal stylerules, de diepte van geneste if-clauses en de lengte van de
+ * operation-ketens in de declaraties.
+ */
+public class StylesheetGenerator {
+    private final int rules;
+    private final int ifDepth;
+    private final int operations;
+
+    /**
+     * @param rules      Het aantal stylerules.
+     * @param ifDepth    Het aantal geneste if-clauses per stylerule.
+     * @param operations Het aantal operaties in de width-declaratie van elke stylerule.
+     */
+    public StylesheetGenerator(int rules, int ifDepth, int operations) {
+        this.rules = rules;
+        this.ifDepth = ifDepth;
+        this.operations = operations;
+    }
+
+    /**
+     * Bouwt een generator voor een workload-specificatie. Naast de fixtures (level0 t/m level3,
+     * die in {@link Workloads} geladen worden) worden de volgende vormen ondersteund:
+     * rules:N, nesting:N, operations:N en mb:N (een stylesheet van ongeveer N megabyte).
+     *
+     * @param spec De workload-specificatie.
+     * @return De generator die bij de specificatie hoort.
+     */
+    public static StylesheetGenerator forSpec(String spec) {
+        String[] parts = spec.split(":");
+        int amount = Integer.parseInt(parts[1]);
+
+        switch (parts[0]) {
+            case "rules":
+                return new StylesheetGenerator(amount, 1, 2);
+            case "nesting":
+                return new StylesheetGenerator(16, amount, 2);
+            case "operations":
+                return new StylesheetGenerator(16, 1, amount);
+            case "mb":
+                // Een stylerule met deze vorm is ongeveer 400 bytes groot
+                return new StylesheetGenerator(amount * 1024 * 1024 / 400, 2, 8);
+            default:
+                throw new IllegalArgumentException("Onbekende workload: " + spec);
+        }
+    }
+
+    /**
+     * @return De gegenereerde stylesheet als tekst.
+     */
+    public String generate() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("BaseWidth := 10px;\n")
+                .append("BaseHeight := 50%;\n")
+                .append("MainColor := #336699;\n")
+                .append("UseMain := TRUE;\n")
+                .append("UseAlternative := FALSE;\n\n");
+
+        for (int i = 0; i < rules; i++) {
+            appendSelector(builder, i);
+            builder.append(" {\n")
+                    .append("\tLocalWidth := 5px;\n")
+                    .append("\tcolor: #").append(String.format("%06x", (i * 2654435761L) & 0xffffff)).append(";\n")
+                    .append("\tbackground-color: MainColor;\n")
+                    .append("\twidth: ");
+            appendOperation(builder);
+            builder.append(";\n")
+                    .append("\theight: BaseHeight;\n");
+            appendIfClause(builder, ifDepth, 1);
+            builder.append("}\n");
+        }
+
+        return builder.toString();
+    }
+
+    private void appendSelector(StringBuilder builder, int index) {
+        switch (index % 3) {
+            case 0:
+                builder.append("p");
+                break;
+            case 1:
+                builder.append(".item-").append(index);
+                break;
+            default:
+                builder.append("#block-").append(index);
+                break;
+        }
+    }
+
+    private void appendOperation(StringBuilder builder) {
+        builder.append("BaseWidth");
+
+        int written = 0;
+        while (written < operations) {
+            if (operations - written >= 2 && written % 3 == 0) {
+                builder.append(" + 2 * LocalWidth");
+                written += 2;
+            } else {
+                builder.append(written % 2 == 0 ? " + 3px" : " - 1px");
+                written++;
+            }
+        }
+    }
+
+    private void appendIfClause(StringBuilder builder, int depth, int indent) {
+        if (depth == 0) {
+            return;
+        }
+
+        String tabs = "\t".repeat(indent);
+        String condition = depth % 2 == 0 ? "UseAlternative" : "UseMain";
+
+        builder.append(tabs).append("if[").append(condition).append("] {\n")
+                .append(tabs).append("\twidth: BaseWidth + ").append(depth).append("px;\n");
+        appendIfClause(builder, depth - 1, indent + 1);
+        builder.append(tabs).append("} else {\n")
+                .append(tabs).append("\theight: ").append(depth).append("px;\n")
+                .append(tabs).append("}\n");
+    }
+}
@@ -0,0 +1,38 @@
+package nl.han.ica.icss.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Laadt de invoer voor een benchmark: de meegeleverde fixtures level0 t/m level3 uit de resources
+ * van de compiler, of een gegenereerde stylesheet (zie {@link StylesheetGenerator#forSpec(String)}).
+ */
+public final class Workloads {
+
+    private Workloads() { }
+
+    /**
+     * @param spec Een fixture-naam zoals "level3", of een generator-specificatie zoals "rules:10000".
+     * @return De ICSS-tekst van de workload.
+     */
+    public static String load(String spec) {
+        if (spec.startsWith("level")) {
+            return loadFixture(spec + ".icss");
+        }
+
+        return StylesheetGenerator.forSpec(spec).generate();
+    }
+
+    private static String loadFixture(String resource) {
+        try (InputStream inputStream = Workloads.class.getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Onbekende fixture: " + resource);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
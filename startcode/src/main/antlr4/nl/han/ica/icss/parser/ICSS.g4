@@ -80,8 +80,10 @@ pixelLiteral: PIXELSIZE;
 scalarLiteral: SCALAR;
 literal: boolLiteral | colorLiteral | percentageLiteral | pixelLiteral | scalarLiteral | variableReference;
 
-// expression: Definieert expressies en de volgorde van evaluatie, bijvoorbeeld "5 + 3 * LinkColor + 2px".
-expression: literal | expression (MUL) expression | expression (PLUS | MIN) expression;
+// expression: Definieert expressies als een reeks literals met operatoren ertussen, bijvoorbeeld "5 + 3 * LinkColor + 2px".
+// De volgorde van evaluatie (* en / gaan voor + en -, alles links-associatief) wordt bepaald door de ExpressionParser.
+expression: literal (operator literal)*;
+operator: PLUS | MIN | MUL | DIV;
 
 // ifClause: Hiermee worden voorwaardelijke expressies met een IF-voorwaarde en optionele ELSE-tak opgesteld, zoals "if [UseLinkColor] { color: LinkColor; } else { color: #000000; }".
 ifClause: IF BOX_BRACKET_OPEN (variableReference | boolLiteral) BOX_BRACKET_CLOSE OPEN_BRACE ruleBody CLOSE_BRACE elseClause?;
@@ -0,0 +1,75 @@
+package nl.han.ica.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Scoped map from small int keys to values. Instead of one map per scope, the visible value of every key
+ * is kept in a single array, so a lookup is one array access. Every put logs the value it hides; closing
+ * a scope restores the logged values of that scope in reverse order.
+ */
+public class HANScopeMap<T> implements IHANScopeMap<T> {
+    private Object[] values = new Object[16];
+
+    // The undo log: per put the key and the value it replaced
+    private int[] logKeys = new int[16];
+    private Object[] logValues = new Object[16];
+    private int logSize;
+
+    // Per open scope the size of the log when it was opened
+    private int[] scopeStarts = new int[8];
+    private int depth;
+
+    @Override
+    public void openScope() {
+        if (depth == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+        }
+        scopeStarts[depth++] = logSize;
+    }
+
+    @Override
+    public void closeScope() {
+        if (depth == 0) {
+            throw new IllegalStateException("No open scope");
+        }
+
+        int start = scopeStarts[--depth];
+        while (logSize > start) {
+            logSize--;
+            values[logKeys[logSize]] = logValues[logSize];
+            logValues[logSize] = null;
+        }
+    }
+
+    @Override
+    public void put(int key, T value) {
+        if (depth == 0) {
+            throw new IllegalStateException("No open scope");
+        }
+        if (key >= values.length) {
+            values = Arrays.copyOf(values, Math.max(key + 1, values.length * 2));
+        }
+        if (logSize == logKeys.length) {
+            logKeys = Arrays.copyOf(logKeys, logSize * 2);
+            logValues = Arrays.copyOf(logValues, logSize * 2);
+        }
+
+        logKeys[logSize] = key;
+        logValues[logSize] = values[key];
+        logSize++;
+        values[key] = value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int key) {
+        return key < values.length ? (T) values[key] : null;
+    }
+
+    @Override
+    public void clear() {
+        while (depth > 0) {
+            closeScope();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package nl.han.ica.datastructures;
+
+public interface IHANScopeMap<T> {
+    /**
+     * Opens a new, innermost scope
+     */
+    void openScope();
+
+    /**
+     * Closes the innermost scope and forgets every value that was put in it
+     */
+    void closeScope();
+
+    /**
+     * Binds a value to a key in the innermost scope
+     * @param key non-negative key, like a symbol id
+     * @param value the value to bind
+     */
+    void put(int key, T value);
+
+    /**
+     * Looks up the value of the innermost scope that binds the key
+     * @param key the key to look up
+     * @return the value, or null if no open scope binds the key
+     */
+    T get(int key);
+
+    /**
+     * Closes all scopes. The map is empty afterwards
+     */
+    void clear();
+}
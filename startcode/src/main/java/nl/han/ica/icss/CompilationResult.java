@@ -0,0 +1,82 @@
+package nl.han.ica.icss;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.io.ASTReader;
+import nl.han.ica.icss.ast.io.ASTWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.List;
+
+/**
+ * The immutable outcome of one {@link IcssCompiler#compile(String)} call. The AST is kept as a snapshot in the
+ * binary format of {@link ASTWriter}, taken when the result is made; every getAST() call decodes a new tree
+ * from it, so a caller that changes its tree changes nothing for anyone else.
+ */
+public final class CompilationResult {
+    private final byte[] ast;
+    private final List<String> diagnostics;
+    private final String css;
+    private final boolean parsed;
+    private final boolean checked;
+
+    CompilationResult(AST ast, List<String> diagnostics, String css, boolean parsed, boolean checked) {
+        this.ast = snapshot(ast);
+        this.diagnostics = List.copyOf(diagnostics);
+        this.css = css;
+        this.parsed = parsed;
+        this.checked = checked;
+    }
+
+    /**
+     * @return A new copy of the transformed AST if compilation succeeded, otherwise of the AST of the last stage
+     *         that ran. The copy has the positions and errors of the original.
+     */
+    public AST getAST() {
+        try {
+            return ASTReader.read(Channels.newChannel(new ByteArrayInputStream(ast)));
+        } catch (IOException e) {
+            //The snapshot is written by this class and lives in memory, so it can always be read
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The syntax and semantic errors, in the order they were found.
+     */
+    public List<String> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * @return The generated CSS, or null if parsing or checking failed.
+     */
+    public String getCss() {
+        return css;
+    }
+
+    public boolean isParsed() {
+        return parsed;
+    }
+
+    public boolean isChecked() {
+        return checked;
+    }
+
+    public boolean isSucceeded() {
+        return css != null;
+    }
+
+    private static byte[] snapshot(AST ast) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            ASTWriter.write(ast, Channels.newChannel(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+package nl.han.ica.icss;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.checker.Checker;
+import nl.han.ica.icss.checker.SemanticError;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.parser.IcssCharStreams;
+import nl.han.ica.icss.parser.StylesheetParser;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stateless facade over all compiler stages. Unlike {@link Pipeline} it keeps nothing between
+ * calls, so a single instance can be shared by any number of threads without locking. All state of
+ * a compilation lives on the calling thread and ends up in the returned {@link CompilationResult}.
+ *
+ * The Checker and Evaluator keep their scopes while they run, so every thread reuses its own pair
+ * instead of allocating new ones for each call.
+ */
+public final class IcssCompiler {
+
+    private final ThreadLocal<Checker> checkers = ThreadLocal.withInitial(Checker::new);
+    private final ThreadLocal<Evaluator> evaluators = ThreadLocal.withInitial(Evaluator::new);
+
+    /**
+     * Parses, checks, transforms and generates the given ICSS source.
+     *
+     * @param source The ICSS source text.
+     * @return The result of the compilation; CSS is only present when there were no errors.
+     */
+    public CompilationResult compile(String source) {
+        return compile(CharStreams.fromString(source));
+    }
+
+    /**
+     * Compiles a file without reading it into a String first.
+     *
+     * @param path The ICSS file.
+     * @return The result of the compilation; CSS is only present when there were no errors.
+     * @throws IOException If the file cannot be read.
+     */
+    public CompilationResult compile(Path path) throws IOException {
+        return compile(IcssCharStreams.fromPath(path));
+    }
+
+    private CompilationResult compile(CharStream input) {
+        List<String> diagnostics = new ArrayList<>();
+
+        AST ast;
+        try {
+            ast = StylesheetParser.parse(input, new BaseErrorListener() {
+                @Override
+                public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                        int charPositionInLine, String msg, RecognitionException e) {
+                    diagnostics.add("Syntax error: " + msg);
+                }
+            });
+        } catch (RecognitionException e) {
+            diagnostics.add(e.getMessage());
+            return new CompilationResult(new AST(), diagnostics, null, false, false);
+        } catch (ParseCancellationException e) {
+            diagnostics.add("Syntax error");
+            return new CompilationResult(new AST(), diagnostics, null, false, false);
+        }
+        if (!diagnostics.isEmpty()) {
+            return new CompilationResult(ast, diagnostics, null, false, false);
+        }
+
+        checkers.get().check(ast);
+        for (SemanticError error : ast.getErrors()) {
+            diagnostics.add(error.toString());
+        }
+        if (!diagnostics.isEmpty()) {
+            return new CompilationResult(ast, diagnostics, null, true, false);
+        }
+
+        Evaluator evaluator = evaluators.get();
+        evaluator.apply(ast);
+        for (SemanticError error : evaluator.getErrors()) {
+            diagnostics.add(error.toString());
+        }
+        if (!diagnostics.isEmpty()) {
+            return new CompilationResult(ast, diagnostics, null, true, true);
+        }
+
+        String css = new Generator().generate(ast);
+
+        return new CompilationResult(ast, diagnostics, css, true, true);
+    }
+}
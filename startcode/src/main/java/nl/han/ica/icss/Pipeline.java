@@ -4,36 +4,78 @@ import nl.han.ica.icss.ast.AST;
 import nl.han.ica.icss.checker.Checker;
 import nl.han.ica.icss.checker.SemanticError;
 import nl.han.ica.icss.generator.Generator;
-import nl.han.ica.icss.parser.ASTListener;
-import nl.han.ica.icss.parser.ICSSLexer;
-import nl.han.ica.icss.parser.ICSSParser;
+import nl.han.ica.icss.metrics.PipelineMetrics;
+import nl.han.ica.icss.metrics.Stage;
+import nl.han.ica.icss.parser.IcssCharStreams;
+import nl.han.ica.icss.parser.IncrementalParser;
+import nl.han.ica.icss.parser.ParallelStylesheetParser;
+import nl.han.ica.icss.parser.StylesheetParser;
+import nl.han.ica.icss.parser.StylesheetValidator;
 import nl.han.ica.icss.transforms.Evaluator;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.atn.ATNConfigSet;
 import org.antlr.v4.runtime.dfa.DFA;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 public class Pipeline implements ANTLRErrorListener {
 
+    //Set this system property to "true" to collect metrics in every new pipeline
+    public static final String METRICS_PROPERTY = "icss.metrics";
+
     private AST ast;
+    //The checked tree that transform evaluates; it shares its unchanged subtrees with the transformed tree
+    private AST checkedAST;
     private boolean parsed = false;
     private boolean checked = false;
     private boolean transformed = false;
     private List<String> errors;
+    private PipelineMetrics metrics;
+    private IncrementalParser incrementalParser;
 
     public Pipeline() {
         errors = new ArrayList<>();
+        if (Boolean.getBoolean(METRICS_PROPERTY)) {
+            metrics = new PipelineMetrics();
+        }
+    }
+
+    /**
+     * Turns on per-stage metrics for this pipeline. Without metrics the stages are not measured at all.
+     */
+    public void enableMetrics() {
+        if (metrics == null) {
+            metrics = new PipelineMetrics();
+        }
+    }
+
+    /**
+     * @return The metrics of the most recent run of every stage, or null if metrics are disabled.
+     */
+    public PipelineMetrics getMetrics() {
+        return metrics;
     }
 
     public AST getAST() {
         return ast;
     }
+    /**
+     * @return The checked tree that the last transform started from, or null if it was not transformed since
+     *         the last check.
+     */
+    public AST getCheckedAST() {
+        return checkedAST;
+    }
     public List<String> getErrors() {
         return errors;
     }
@@ -48,29 +90,68 @@ public class Pipeline implements ANTLRErrorListener {
     }
 
     public void parseString(String input) {
+        parse(CharStreams.fromString(input));
+    }
 
-        //Lex (with Antlr's generated lexer)
-        CharStream inputStream = CharStreams.fromString(input);
-        ICSSLexer lexer = new ICSSLexer(inputStream);
-        lexer.removeErrorListeners();
-        lexer.addErrorListener(this);
-        errors.clear();
-        try {
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
+    /**
+     * Parses the text again, but only reparses the top-level statements that changed since the previous
+     * call. Use this for text that is edited in small steps, like the contents of the editor.
+     */
+    public void parseIncremental(String input) {
+        if (incrementalParser == null)
+            incrementalParser = new IncrementalParser();
+
+        parse(() -> incrementalParser.parse(input, this));
+    }
+
+    /**
+     * Parses one large text on the workers of the pool, in chunks of whole top-level statements.
+     * The AST and the errors are the same as those of {@link #parseString(String)}. With metrics enabled, the
+     * CPU time and allocations of the workers count towards the parse stage.
+     */
+    public void parseParallel(String input, ForkJoinPool pool) {
+        parse(() -> ParallelStylesheetParser.parse(input, this, pool, metrics != null ? metrics.workers() : null));
+    }
+
+    /**
+     * Parses a file without reading it into a String first. ASCII files are lexed straight from their bytes.
+     */
+    public void parsePath(Path path) throws IOException {
+        parse(IcssCharStreams.fromPath(path));
+    }
+
+    /**
+     * Parses everything that can be read from the channel. The channel is not closed.
+     */
+    public void parseChannel(ReadableByteChannel channel) throws IOException {
+        parse(IcssCharStreams.fromChannel(channel));
+    }
+
+    /**
+     * Parses UTF-8 input through a sliding window, so the input is never held in memory as a whole.
+     */
+    public void parseStream(InputStream inputStream) {
+        parse(IcssCharStreams.unbuffered(inputStream));
+    }
 
-            //Parse (with Antlr's generated parser)
-            ICSSParser parser = new ICSSParser(tokens);
-            parser.removeErrorListeners();
-            parser.addErrorListener(this);
+    /**
+     * Parses the characters of the reader through a sliding window. The reader is not closed.
+     */
+    public void parseReader(Reader reader) {
+        parse(IcssCharStreams.unbuffered(reader));
+    }
 
-            ParseTree parseTree = parser.stylesheet();
+    private void parse(CharStream input) {
+        parse(() -> StylesheetParser.parse(input, this));
+    }
 
-            //Extract AST from the Antlr parse tree
-            ASTListener listener = new ASTListener();
-            ParseTreeWalker walker = new ParseTreeWalker();
-            walker.walk(listener, parseTree);
+    private void parse(Supplier<AST> parser) {
+        if (metrics != null)
+            metrics.begin();
 
-            this.ast = listener.getAST();
+        errors.clear();
+        try {
+            this.ast = parser.get();
 
         } catch (RecognitionException e) {
             this.ast = new AST();
@@ -82,11 +163,65 @@ public class Pipeline implements ANTLRErrorListener {
         }
         parsed = errors.isEmpty();
         checked = transformed = false;
+        checkedAST = null;
+
+        if (metrics != null)
+            metrics.end(Stage.PARSE, ast.root, errors.size());
+    }
+
+    /**
+     * Checks the text for syntax and semantic errors without building an AST. The errors end up in getErrors();
+     * nothing is kept to transform or generate. Whether the text is valid is decided exactly as by parse and
+     * check, but the errors differ:
+     * <ul>
+     *     <li>Validation stops at the first syntax error, so at most one is reported, and it reads
+     *     "unexpected ..." instead of the message of the Antlr error strategy.</li>
+     *     <li>Semantic errors are reported in the order they are found while parsing, which can differ from
+     *     the order of check.</li>
+     * </ul>
+     *
+     * @return true if the text has no errors.
+     */
+    public boolean validateString(String input) {
+        return validate(CharStreams.fromString(input));
+    }
+
+    /**
+     * Validates a file without building an AST, see {@link #validateString(String)}.
+     */
+    public boolean validatePath(Path path) throws IOException {
+        return validate(IcssCharStreams.fromPath(path));
+    }
+
+    /**
+     * Validates UTF-8 input through a sliding window, so neither the input nor a tree is held in memory.
+     */
+    public boolean validateStream(InputStream inputStream) {
+        return validate(IcssCharStreams.unbuffered(inputStream));
+    }
+
+    private boolean validate(CharStream input) {
+        errors.clear();
+        ast = null;
+        checkedAST = null;
+        parsed = checked = transformed = false;
+
+        for (SemanticError e : StylesheetValidator.validate(input, this)) {
+            errors.add(e.toString());
+        }
+
+        return errors.isEmpty();
     }
+
     public boolean check() {
             if(ast == null)
                 return false;
 
+            if (metrics != null)
+                metrics.begin();
+
+            //Nodes can be reused from an earlier parse, so forget the errors of an earlier check
+            this.ast.clearErrors();
            (new Checker()).check(this.ast);
 
             ArrayList<SemanticError> errors = this.ast.getErrors();
@@ -98,6 +233,11 @@ public class Pipeline implements ANTLRErrorListener {
 
             checked = errors.isEmpty();
             transformed = false;
+            checkedAST = null;
+
+            if (metrics != null)
+                metrics.end(Stage.CHECK, ast.root, errors.size());
+
             return errors.isEmpty();
     }
 
@@ -109,14 +249,36 @@ public class Pipeline implements ANTLRErrorListener {
         if(ast == null)
             return;
 
-        (new Evaluator()).apply(ast);
+        if (metrics != null)
+            metrics.begin();
 
+        //The evaluator leaves the checked tree intact, so transforming again starts from the same tree and the
+        //next incremental parse can reuse its nodes
+        if (checkedAST == null)
+            checkedAST = ast;
+
+        Evaluator evaluator = new Evaluator();
+        ast = evaluator.evaluate(checkedAST);
+        for (SemanticError e : evaluator.getErrors()) {
+            errors.add(e.toString());
+        }
 
         transformed = errors.isEmpty();
+
+        if (metrics != null)
+            metrics.end(Stage.TRANSFORM, ast.root, evaluator.getErrors().size());
     }
     public String generate() {
+        if (metrics != null)
+            metrics.begin();
+
         Generator generator = new Generator();
-        return generator.generate(ast);
+        String css = generator.generate(ast);
+
+        if (metrics != null)
+            metrics.end(Stage.GENERATE, ast.root, 0);
+
+        return css;
     }
 
     //Catch ANTLR errors
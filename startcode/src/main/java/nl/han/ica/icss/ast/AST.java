@@ -9,12 +9,18 @@ import java.util.Objects;
 public class AST {
 	//The root of the tree
 	public Stylesheet root;
+	//The names used in the tree
+	public SymbolTable symbols;
 
 	public AST() {
-		root = new Stylesheet();
+		this(new Stylesheet());
 	}
 	public AST(Stylesheet stylesheet) {
+		this(stylesheet, new SymbolTable());
+	}
+	public AST(Stylesheet stylesheet, SymbolTable symbols) {
 		root = stylesheet;
+		this.symbols = symbols;
 	}
 	public void setRoot(Stylesheet stylesheet) {
 		root = stylesheet;
@@ -28,8 +34,36 @@ public class AST {
 	    if(node.hasError()) {
 	        errors.add(node.getError());
         }
-        for(ASTNode child: node.getChildren()) {
-	        collectErrors(errors,child);
+        for(int i = 0; i < node.getChildCount(); i++) {
+	        collectErrors(errors,node.getChild(i));
+        }
+    }
+    /*
+     Removes the errors of a previous check, so a reused tree can be checked again.
+     */
+    public void clearErrors() {
+        clearErrors(root);
+    }
+    private void clearErrors(ASTNode node) {
+        node.clearError();
+        for(int i = 0; i < node.getChildCount(); i++) {
+            clearErrors(node.getChild(i));
+        }
+    }
+    /*
+     Forgets the cached structural hashes of all nodes and of the nodes that hashed them,
+     after code that changed the fields of nodes directly.
+     */
+    public void invalidateHashes() {
+        invalidateHashes(root);
+    }
+    private void invalidateHashes(ASTNode node) {
+        node.invalidateHash();
+        for(int i = 0; i < node.getChildCount(); i++) {
+            ASTNode child = node.getChild(i);
+            if (child != null) {
+                invalidateHashes(child);
+            }
         }
     }
 	@Override
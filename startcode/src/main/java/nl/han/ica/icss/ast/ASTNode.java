@@ -2,13 +2,34 @@ package nl.han.ica.icss.ast;
 
 import nl.han.ica.icss.checker.SemanticError;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class ASTNode {
 
     private SemanticError error = null;
 
+    //Where the node starts and ends (exclusive) in the source text, packed by SourcePosition
+    private long start = SourcePosition.NONE;
+    private long end = SourcePosition.NONE;
+
+    private static final AtomicReferenceFieldUpdater<ASTNode, Object> DEPENDENTS =
+            AtomicReferenceFieldUpdater.newUpdater(ASTNode.class, Object.class, "dependents");
+
+    //The structural hash of the node and its subtree, or 0 if it is not known. A computed hash is never 0,
+    //so that the hash and whether it is valid are one int, which is written and read at once
+    private int hash;
+
+    //The nodes whose kept hash includes the hash of this node: null, one ASTNode or Dependents. A node can
+    //be in several trees at once, so there can be more than one
+    private volatile Object dependents;
+
     /*
      This method is used in the GUI to create an appropriate label
      in the tree visualisation.
@@ -24,6 +45,50 @@ public class ASTNode {
     public ArrayList<ASTNode> getChildren() {
         return new ArrayList<>();
     }
+    /*
+     The number of children, without building the list of getChildren.
+     Subclasses that override getChildren should override this method and getChild as well.
+     */
+    public int getChildCount() {
+        return getChildren().size();
+    }
+    /*
+     The child at the index, in the order of getChildren.
+     */
+    public ASTNode getChild(int index) {
+        return getChildren().get(index);
+    }
+    /*
+     Replaces the child at the index, in the order of getChildren.
+     */
+    public final void setChild(int index, ASTNode child) {
+        replaceChild(index, child);
+        invalidateHash();
+    }
+    /*
+     Replaces the child at the index by a node that is equal to it, like a shared copy.
+     No structural hash changes, so unlike setChild this keeps the kept hashes.
+     */
+    public final void shareChild(int index, ASTNode equalChild) {
+        replaceChild(index, equalChild);
+        if (hash != 0) {
+            equalChild.addDependent(this);
+        }
+    }
+    /*
+     Puts the child at the index, for setChild and shareChild. Subclasses with children
+     override this method.
+     */
+    protected void replaceChild(int index, ASTNode child) {
+        throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + getChildCount());
+    }
+    /*
+     Calls the visit method of the visitor for the class of this node. Subclasses
+     outside the AST package end up in visitNode.
+     */
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitNode(this, context);
+    }
     /*
     By implementing this method in a subclass you can easily create AST nodes
       incrementally.
@@ -38,18 +103,55 @@ public class ASTNode {
         return this;
     }
 
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public void setPosition(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public boolean hasPosition() {
+        return start != SourcePosition.NONE;
+    }
+
+    public int getStartOffset() {
+        return SourcePosition.offset(start);
+    }
+
+    public int getEndOffset() {
+        return SourcePosition.offset(end);
+    }
+
+    public int getLine() {
+        return SourcePosition.line(start);
+    }
+
+    public int getColumn() {
+        return SourcePosition.column(start);
+    }
+
     public SemanticError getError() {
         return this.error;
     }
 
     public void setError(String description) {
-        this.error = new SemanticError(description);
+        this.error = new SemanticError(description, start);
     }
 
     public boolean hasError() {
         return error != null;
     }
 
+    public void clearError() {
+        this.error = null;
+    }
+
 	@Override
 	public String toString() {
 		StringBuilder result = new StringBuilder();
@@ -60,26 +162,200 @@ public class ASTNode {
 		builder.append("[");
 		builder.append(getNodeLabel());	
 		builder.append("|");
-		for(ASTNode child : getChildren()) {
-			child.toString(builder);
-		}	
+		for(int i = 0; i < getChildCount(); i++) {
+			getChild(i).toString(builder);
+		}
 		builder.append("]");
 	}
 
-	@Override
+    /*
+     Nodes are equal when they have the same class, the same value (see hasSameValue) and
+     equal children. Positions, symbols and errors do not count.
+     */
+    @Override
     public boolean equals(Object o) {
-        if(! (o instanceof ASTNode))
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
             return false;
-        //Compare all children
-        List<ASTNode> thisChildren = this.getChildren();
-        List<ASTNode> otherChildren = ((ASTNode) o).getChildren();
-        if(otherChildren.size() != thisChildren.size())
+        ASTNode other = (ASTNode) o;
+        //Hashes that are already known tell most different trees apart without walking them
+        int known = hash;
+        int otherKnown = other.hash;
+        if (known != 0 && otherKnown != 0 && known != otherKnown)
             return false;
-        for(int i = 0; i < thisChildren.size(); i++ ) {
-            if(!thisChildren.get(i).equals(otherChildren.get(i))) {
+        if (!hasSameValue(other))
+            return false;
+        int count = getChildCount();
+        if (other.getChildCount() != count)
+            return false;
+        for (int i = 0; i < count; i++) {
+            if (!Objects.equals(getChild(i), other.getChild(i))) {
                 return false;
             }
         }
         return true;
     }
+
+    /*
+     The structural hash of the node, computed from the class, the value and the hashes of the
+     children. It is kept until the node or one of its descendants changes: addChild, removeChild
+     and setChild forget the kept hash of the node and of every node that hashed it. Code that
+     changes the fields of a node directly should call invalidateHash on that node, or
+     AST.invalidateHashes, afterwards. A tree must not change while another thread hashes it.
+     */
+    @Override
+    public int hashCode() {
+        int known = hash;
+        if (known != 0) {
+            return known;
+        }
+
+        known = computeHash(true);
+        hash = known;
+        return known;
+    }
+
+    /*
+     The hash of hashCode, without keeping it for this node, so the children do not remember this
+     node either. For nodes that are looked up once and then mostly thrown away, like the
+     duplicates that SubtreeDeduplicator finds.
+     */
+    public int hashWithoutKeeping() {
+        int known = hash;
+        return known != 0 ? known : computeHash(false);
+    }
+
+    private int computeHash(boolean keep) {
+        int result = 31 * getClass().getName().hashCode() + valueHash();
+        int count = getChildCount();
+        for (int i = 0; i < count; i++) {
+            ASTNode child = getChild(i);
+            if (child == null) {
+                result = 31 * result;
+                continue;
+            }
+            if (keep) {
+                //Registered before the hash of the child is read, so a later change of the child forgets this hash
+                child.addDependent(this);
+            }
+            result = 31 * result + child.hashCode();
+        }
+        //0 means that no hash is kept
+        return result == 0 ? 1 : result;
+    }
+
+    /*
+     Forgets the kept hash of this node and of the nodes that hashed it. While a tree is built
+     nothing has been hashed yet, so then this only reads two fields.
+     */
+    public void invalidateHash() {
+        if (hash != 0) {
+            hash = 0;
+        }
+        if (dependents != null) {
+            Object invalidated = DEPENDENTS.getAndSet(this, null);
+            if (invalidated instanceof ASTNode) {
+                ((ASTNode) invalidated).invalidateHash();
+            } else if (invalidated != null) {
+                ((Dependents) invalidated).invalidateHashes();
+            }
+        }
+    }
+
+    private void addDependent(ASTNode dependent) {
+        while (true) {
+            Object current = dependents;
+            Object updated;
+            if (current == dependent) {
+                return;
+            } else if (current == null) {
+                updated = dependent;
+            } else if (current instanceof ASTNode) {
+                updated = new Dependents((ASTNode) current, dependent);
+            } else {
+                ((Dependents) current).add(dependent);
+                return;
+            }
+
+            if (DEPENDENTS.compareAndSet(this, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /*
+     The dependents of a node with more than one. The first is kept, the others only weakly: a
+     shared node outlives trees that are thrown away, like the earlier trees of IncrementalParser,
+     and should not keep those alive. The list grows by doubling, and drops the parents that are
+     gone or listed twice before it does.
+     */
+    private static final class Dependents {
+        private final ASTNode first;
+        private WeakReference<?>[] others = new WeakReference<?>[4];
+        private int size;
+
+        Dependents(ASTNode first, ASTNode second) {
+            this.first = first;
+            others[size++] = new WeakReference<>(second);
+        }
+
+        synchronized void add(ASTNode dependent) {
+            //The parent that was added last is often the one that hashes again
+            if (dependent == first || size > 0 && others[size - 1].get() == dependent) {
+                return;
+            }
+            if (size == others.length) {
+                compact();
+                if (size * 2 > others.length) {
+                    others = Arrays.copyOf(others, others.length * 2);
+                }
+            }
+            others[size++] = new WeakReference<>(dependent);
+        }
+
+        private void compact() {
+            Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>(size));
+            seen.add(first);
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                Object dependent = others[i].get();
+                if (dependent != null && seen.add(dependent)) {
+                    others[kept++] = others[i];
+                }
+            }
+            Arrays.fill(others, kept, size, null);
+            size = kept;
+        }
+
+        void invalidateHashes() {
+            WeakReference<?>[] invalidated;
+            int count;
+            synchronized (this) {
+                invalidated = others;
+                count = size;
+            }
+
+            first.invalidateHash();
+            for (int i = 0; i < count; i++) {
+                ASTNode dependent = (ASTNode) invalidated[i].get();
+                if (dependent != null) {
+                    dependent.invalidateHash();
+                }
+            }
+        }
+    }
+
+    /*
+     Whether the own value of the node, such as the name of a selector or the number of a
+     literal, equals that of another node of the same class. Subclasses with a value override
+     this method together with valueHash.
+     */
+    protected boolean hasSameValue(ASTNode other) {
+        return true;
+    }
+
+    protected int valueHash() {
+        return 0;
+    }
 }
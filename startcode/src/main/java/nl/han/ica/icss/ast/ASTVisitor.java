@@ -0,0 +1,70 @@
+package nl.han.ica.icss.ast;
+
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.ColorLiteral;
+import nl.han.ica.icss.ast.literals.PercentageLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+
+/**
+ * A pass over the AST that is dispatched on the class of each node by {@link ASTNode#accept}, so a pass does
+ * not need a chain of instanceof checks. Every method returns a result of type R and receives a context of
+ * type C; use Void for either when a pass has none.
+ *
+ * A pass implements every visit method, so a node class added later is a compile error in each pass
+ * instead of a failure at runtime. A pass that only handles some nodes extends {@link DefaultASTVisitor}.
+ */
+public interface ASTVisitor<R, C> {
+
+    /**
+     * Called for nodes of classes outside the AST, such as the nodes of a flat AST.
+     */
+    R visitNode(ASTNode node, C context);
+
+    R visitStylesheet(Stylesheet node, C context);
+
+    R visitStylerule(Stylerule node, C context);
+
+    R visitClassSelector(ClassSelector node, C context);
+
+    R visitIdSelector(IdSelector node, C context);
+
+    R visitTagSelector(TagSelector node, C context);
+
+    R visitDeclaration(Declaration node, C context);
+
+    R visitPropertyName(PropertyName node, C context);
+
+    R visitVariableAssignment(VariableAssignment node, C context);
+
+    R visitVariableReference(VariableReference node, C context);
+
+    R visitIfClause(IfClause node, C context);
+
+    R visitElseClause(ElseClause node, C context);
+
+    R visitAddOperation(AddOperation node, C context);
+
+    R visitSubtractOperation(SubtractOperation node, C context);
+
+    R visitMultiplyOperation(MultiplyOperation node, C context);
+
+    R visitDivideOperation(DivideOperation node, C context);
+
+    R visitBoolLiteral(BoolLiteral node, C context);
+
+    R visitColorLiteral(ColorLiteral node, C context);
+
+    R visitPercentageLiteral(PercentageLiteral node, C context);
+
+    R visitPixelLiteral(PixelLiteral node, C context);
+
+    R visitScalarLiteral(ScalarLiteral node, C context);
+}
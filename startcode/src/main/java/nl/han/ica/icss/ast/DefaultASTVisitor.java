@@ -0,0 +1,124 @@
+package nl.han.ica.icss.ast;
+
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.ColorLiteral;
+import nl.han.ica.icss.ast.literals.PercentageLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+
+/**
+ * An {@link ASTVisitor} for a pass that only handles some nodes. Every visit method falls back to
+ * {@link #visitNode}, which a pass must implement, so the result for the nodes it does not handle is explicit.
+ */
+public abstract class DefaultASTVisitor<R, C> implements ASTVisitor<R, C> {
+
+    @Override
+    public abstract R visitNode(ASTNode node, C context);
+
+    @Override
+    public R visitStylesheet(Stylesheet node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitStylerule(Stylerule node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitClassSelector(ClassSelector node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitIdSelector(IdSelector node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitTagSelector(TagSelector node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitDeclaration(Declaration node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitPropertyName(PropertyName node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitVariableAssignment(VariableAssignment node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitVariableReference(VariableReference node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitIfClause(IfClause node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitElseClause(ElseClause node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitAddOperation(AddOperation node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitSubtractOperation(SubtractOperation node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitMultiplyOperation(MultiplyOperation node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitDivideOperation(DivideOperation node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitBoolLiteral(BoolLiteral node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitColorLiteral(ColorLiteral node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitPercentageLiteral(PercentageLiteral node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitPixelLiteral(PixelLiteral node, C context) {
+        return visitNode(node, context);
+    }
+
+    @Override
+    public R visitScalarLiteral(ScalarLiteral node, C context) {
+        return visitNode(node, context);
+    }
+}
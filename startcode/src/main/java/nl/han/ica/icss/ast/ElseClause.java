@@ -1,7 +1,6 @@
 package nl.han.ica.icss.ast;
 
 import java.util.ArrayList;
-import java.util.Objects;
 
 public class ElseClause extends ASTNode{
 
@@ -18,6 +17,11 @@ public class ElseClause extends ASTNode{
     public String getNodeLabel() {
         return "Else_Clause";
     }
+
+    @Override
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitElseClause(this, context);
+    }
     @Override
     public ArrayList<ASTNode> getChildren() {
         ArrayList<ASTNode> children = new ArrayList<>();
@@ -27,26 +31,27 @@ public class ElseClause extends ASTNode{
     }
 
     @Override
-    public ASTNode addChild(ASTNode child) {
-
-        body.add(child);
-
-        return this;
+    public int getChildCount() {
+        return body.size();
     }
+
     @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        ElseClause ElseClause = (ElseClause) o;
-        return Objects.equals(body, ElseClause.body);
+    public ASTNode getChild(int index) {
+        return body.get(index);
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(body);
+    protected void replaceChild(int index, ASTNode child) {
+        body.set(index, child);
     }
 
+    @Override
+    public ASTNode addChild(ASTNode child) {
 
+        body.add(child);
+
+        invalidateHash();
+        return this;
+    }
 
 }
@@ -1,11 +1,9 @@
 package nl.han.ica.icss.ast;
 
 import java.util.ArrayList;
-import java.util.Objects;
 
 public class IfClause extends ASTNode {
 
-
     public Expression conditionalExpression;
     public ArrayList<ASTNode> body = new ArrayList<>();
     public ElseClause elseClause;
@@ -28,6 +26,11 @@ public class IfClause extends ASTNode {
     public String getNodeLabel() {
         return "If_Clause";
     }
+
+    @Override
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitIfClause(this, context);
+    }
     @Override
     public ArrayList<ASTNode> getChildren() {
         ArrayList<ASTNode> children = new ArrayList<>();
@@ -39,6 +42,34 @@ public class IfClause extends ASTNode {
         return children;
     }
 
+    @Override
+    public int getChildCount() {
+        return 1 + body.size() + (elseClause != null ? 1 : 0);
+    }
+
+    @Override
+    public ASTNode getChild(int index) {
+        if (index == 0)
+            return conditionalExpression;
+        if (index <= body.size())
+            return body.get(index - 1);
+        if (index == body.size() + 1 && elseClause != null)
+            return elseClause;
+        throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + getChildCount());
+    }
+
+    @Override
+    protected void replaceChild(int index, ASTNode child) {
+        if (index == 0)
+            conditionalExpression = (Expression) child;
+        else if (index <= body.size())
+            body.set(index - 1, child);
+        else if (index == body.size() + 1 && elseClause != null)
+            elseClause = (ElseClause) child;
+        else
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + getChildCount());
+    }
+
     @Override
     public ASTNode addChild(ASTNode child) {
         if(child instanceof Expression)
@@ -48,28 +79,9 @@ public class IfClause extends ASTNode {
         else
             body.add(child);
 
+        invalidateHash();
         return this;
     }
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        IfClause ifClause = (IfClause) o;
-        if (this.elseClause == null)
-            return Objects.equals(conditionalExpression, ifClause.getConditionalExpression()) &&
-                Objects.equals(body, ifClause.body);
-        else
-            return Objects.equals(conditionalExpression, ifClause.getConditionalExpression()) &&
-                    Objects.equals(body, ifClause.body) &&
-                    Objects.equals(elseClause, ifClause.elseClause);
-
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(conditionalExpression, body, elseClause);
-    }
 
     public Expression getConditionalExpression() {
         return conditionalExpression;
@@ -1,4 +1,56 @@
 package nl.han.ica.icss.ast;
 
+/*
+ Literals are immutable values. The factory methods of the literal classes return shared
+ instances for common values, for calculating with them. A shared instance never gets a
+ position or an error, because it stands for its value everywhere, so it is not put in a
+ tree: a node in a tree gets its own literal from unshared.
+ */
 public abstract class Literal extends Expression {
+
+    private final boolean shared;
+
+    protected Literal() {
+        this(false);
+    }
+
+    protected Literal(boolean shared) {
+        this.shared = shared;
+    }
+
+    /*
+     True for the instances cached by the factory methods.
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /*
+     This literal, or a new literal with the same value if this one is shared, so it can be
+     put in a tree and get a position and an error.
+     */
+    public Literal unshared() {
+        return this;
+    }
+
+    @Override
+    public int getChildCount() {
+        return 0;
+    }
+
+    @Override
+    public void setPosition(long start, long end) {
+        if (shared) {
+            throw new UnsupportedOperationException("A shared " + getNodeLabel() + " has no position; use unshared()");
+        }
+        super.setPosition(start, end);
+    }
+
+    @Override
+    public void setError(String description) {
+        if (shared) {
+            throw new UnsupportedOperationException("A shared " + getNodeLabel() + " can not have an error; use unshared()");
+        }
+        super.setError(description);
+    }
 }
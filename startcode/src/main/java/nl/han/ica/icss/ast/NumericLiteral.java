@@ -0,0 +1,34 @@
+package nl.han.ica.icss.ast;
+
+/*
+ A literal with a whole number: a pixel, percentage or scalar literal. The Evaluator calculates
+ with value and withValue, so the operands and results of an operation are never boxed.
+ */
+public abstract class NumericLiteral extends Literal {
+
+    public final int value;
+
+    protected NumericLiteral(int value) {
+        this.value = value;
+    }
+
+    protected NumericLiteral(int value, boolean shared) {
+        super(shared);
+        this.value = value;
+    }
+
+    /*
+     A literal of the same class with the given value, shared where the factory method shares it.
+     */
+    public abstract NumericLiteral withValue(int value);
+
+    @Override
+    protected boolean hasSameValue(ASTNode other) {
+        return value == ((NumericLiteral) other).value;
+    }
+
+    @Override
+    protected int valueHash() {
+        return Integer.hashCode(value);
+    }
+}
@@ -17,6 +17,30 @@ public abstract class Operation extends Expression {
         return children;
     }
 
+    @Override
+    public int getChildCount() {
+        return (lhs != null ? 1 : 0) + (rhs != null ? 1 : 0);
+    }
+
+    @Override
+    public ASTNode getChild(int index) {
+        if (index == 0 && lhs != null)
+            return lhs;
+        if (index == getChildCount() - 1 && rhs != null)
+            return rhs;
+        throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + getChildCount());
+    }
+
+    @Override
+    protected void replaceChild(int index, ASTNode child) {
+        if (index == 0 && lhs != null)
+            lhs = (Expression) child;
+        else if (index == getChildCount() - 1 && rhs != null)
+            rhs = (Expression) child;
+        else
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + getChildCount());
+    }
+
     @Override
     public ASTNode addChild(ASTNode child) {
         if(lhs == null) {
@@ -24,6 +48,7 @@ public abstract class Operation extends Expression {
         } else if(rhs == null) {
             rhs = (Expression) child;
         }
+        invalidateHash();
         return this;
     }
 }
@@ -1,8 +1,12 @@
 package nl.han.ica.icss.ast;
 
+import java.util.Objects;
+
 public class PropertyName extends ASTNode {
 
     public String name;
+    //The id of the name in the SymbolTable of the AST
+    public int symbol = SymbolTable.UNKNOWN;
 
     public PropertyName() {
         super();
@@ -12,9 +16,34 @@ public class PropertyName extends ASTNode {
         super();
         this.name = name;
     }
+    public PropertyName(String name, int symbol) {
+        super();
+        this.name = name;
+        this.symbol = symbol;
+    }
 
     @Override
     public String getNodeLabel() {
         return "Property: (" + name + ")";
     }
+
+    @Override
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitPropertyName(this, context);
+    }
+
+    @Override
+    public int getChildCount() {
+        return 0;
+    }
+
+    @Override
+    protected boolean hasSameValue(ASTNode other) {
+        return Objects.equals(name, ((PropertyName) other).name);
+    }
+
+    @Override
+    protected int valueHash() {
+        return Objects.hashCode(name);
+    }
 }
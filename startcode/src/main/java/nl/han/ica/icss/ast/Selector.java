@@ -1,4 +1,9 @@
 package nl.han.ica.icss.ast;
 
 public abstract class Selector extends ASTNode {
+
+    @Override
+    public int getChildCount() {
+        return 0;
+    }
 }
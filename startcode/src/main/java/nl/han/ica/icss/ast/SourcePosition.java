@@ -0,0 +1,75 @@
+package nl.han.ica.icss.ast;
+
+/**
+ * Packs a position in the source text into a single long, so AST nodes can carry their location
+ * without an extra object per node.
+ *
+ * Layout, from the most significant bit: 31 bits character offset, 20 bits line, 13 bits column.
+ * Lines are 1-based and columns 0-based, like in Antlr. The offset is always exact; a line or column
+ * that does not fit is stored as the largest value that does, and can be recomputed from the offset.
+ */
+public final class SourcePosition {
+    //The position of a node that was not parsed from source text, like a literal made by the evaluator
+    public static final long NONE = -1L;
+    //The start of a text
+    public static final long START = of(0, 1, 0);
+
+    private static final int LINE_BITS = 20;
+    private static final int COLUMN_BITS = 13;
+    private static final int MAX_LINE = (1 << LINE_BITS) - 1;
+    private static final int MAX_COLUMN = (1 << COLUMN_BITS) - 1;
+
+    private SourcePosition() { }
+
+    public static long of(int offset, int line, int column) {
+        return (long) offset << (LINE_BITS + COLUMN_BITS)
+                | (long) Math.min(line, MAX_LINE) << COLUMN_BITS
+                | Math.min(column, MAX_COLUMN);
+    }
+
+    public static int offset(long position) {
+        return position == NONE ? -1 : (int) (position >>> (LINE_BITS + COLUMN_BITS));
+    }
+
+    public static int line(long position) {
+        return position == NONE ? 0 : (int) (position >>> COLUMN_BITS) & MAX_LINE;
+    }
+
+    public static int column(long position) {
+        return position == NONE ? -1 : (int) position & MAX_COLUMN;
+    }
+
+    /**
+     * Moves a position that was parsed from a piece of a text to where that piece starts in the whole text.
+     * Only the first line of the piece is shifted in columns.
+     *
+     * @param position The position relative to the start of the piece.
+     * @param base     The position of the start of the piece in the whole text.
+     */
+    public static long relocate(long position, long base) {
+        if (position == NONE) {
+            return NONE;
+        }
+
+        int line = line(position);
+        int column = line == 1 ? column(base) + column(position) : column(position);
+        return of(offset(base) + offset(position), line(base) + line - 1, column);
+    }
+
+    /**
+     * The inverse of {@link #relocate(long, long)}: makes a position relative to the start of a piece of the text.
+     */
+    public static long relative(long position, long base) {
+        if (position == NONE) {
+            return NONE;
+        }
+
+        int line = line(position) - line(base) + 1;
+        int column = line == 1 ? column(position) - column(base) : column(position);
+        return of(offset(position) - offset(base), line, column);
+    }
+
+    public static String toString(long position) {
+        return position == NONE ? "unknown" : "line " + line(position) + ", column " + (column(position) + 1);
+    }
+}
@@ -3,7 +3,6 @@ package nl.han.ica.icss.ast;
 import nl.han.ica.icss.checker.SemanticError;
 
 import java.util.ArrayList;
-import java.util.Objects;
 
 /**
  * A stylesheet is the root node of the AST, it consists of one or more statements
@@ -11,7 +10,6 @@ import java.util.Objects;
  */
 public class Stylesheet extends ASTNode {
 
-
 	public ArrayList<ASTNode> body;
 	
 	public Stylesheet() {
@@ -24,33 +22,38 @@ public class Stylesheet extends ASTNode {
 	public String getNodeLabel() {
 		return "Stylesheet";
 	}
+
+	@Override
+	public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+		return visitor.visitStylesheet(this, context);
+	}
 	@Override
 	public ArrayList<ASTNode> getChildren() {
 		return this.body;
 	}
 	@Override
+	public int getChildCount() {
+		return body.size();
+	}
+	@Override
+	public ASTNode getChild(int index) {
+		return body.get(index);
+	}
+
+	@Override
+	protected void replaceChild(int index, ASTNode child) {
+		body.set(index, child);
+	}
+	@Override
 	public ASTNode addChild(ASTNode child) {
 	    	body.add(child);
+	    	invalidateHash();
 	    	return this;
 	}
 	@Override
 	public ASTNode removeChild(ASTNode child) {
 		body.remove(child);
+		invalidateHash();
 		return this;
 	}
-
-	@Override
-	public boolean equals(Object o) {
-		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
-		if (!super.equals(o)) return false;
-		Stylesheet that = (Stylesheet) o;
-		return Objects.equals(body, that.body);
-	}
-
-	@Override
-	public int hashCode() {
-
-		return Objects.hash(body);
-	}
 }
@@ -0,0 +1,94 @@
+package nl.han.ica.icss.ast;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Interns the identifiers of one compilation (variable names, property names and selectors) to dense int ids.
+ * Every distinct name is stored once, and the checker and evaluator can index arrays by id instead of
+ * hashing names. The property names the checker knows have fixed ids in every table.
+ */
+public class SymbolTable {
+    //The symbol of a node that was not made by the parser and has not been looked up yet
+    public static final int UNKNOWN = -1;
+
+    public static final int COLOR = 0;
+    public static final int BACKGROUND_COLOR = 1;
+    public static final int WIDTH = 2;
+    public static final int HEIGHT = 3;
+
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[16];
+    private int size;
+
+    public SymbolTable() {
+        intern("color");
+        intern("background-color");
+        intern("width");
+        intern("height");
+    }
+
+    /**
+     * @return The id of the name, which is added to the table if it is new.
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        names[size] = name;
+        ids.put(name, size);
+        return size++;
+    }
+
+    /**
+     * Looks a name up without adding it, so the table can be read from several threads at once.
+     *
+     * @return The id of the name, or UNKNOWN if the table does not have it.
+     */
+    public int find(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : UNKNOWN;
+    }
+
+    /**
+     * @return The single instance of the name that is kept in the table.
+     */
+    public String canonical(String name) {
+        //intern can grow the array, so it has to run before the array is read
+        int id = intern(name);
+        return names[id];
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The symbol of the reference; a reference that has none yet gets it now.
+     */
+    public int symbol(VariableReference reference) {
+        if (reference.symbol == UNKNOWN) {
+            reference.symbol = intern(reference.name);
+        }
+        return reference.symbol;
+    }
+
+    /**
+     * @return The symbol of the property; a property that has none yet gets it now.
+     */
+    public int symbol(PropertyName property) {
+        if (property.symbol == UNKNOWN) {
+            property.symbol = intern(property.name);
+        }
+        return property.symbol;
+    }
+}
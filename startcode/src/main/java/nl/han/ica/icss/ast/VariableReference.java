@@ -5,11 +5,18 @@ import java.util.Objects;
 public class VariableReference extends Expression {
 
 	public String name;
+	//The id of the name in the SymbolTable of the AST
+	public int symbol = SymbolTable.UNKNOWN;
 	
 	public VariableReference(String name) {
 		super();
 		this.name = name;
 	}
+	public VariableReference(String name, int symbol) {
+		super();
+		this.name = name;
+		this.symbol = symbol;
+	}
 
 	@Override
 	public String getNodeLabel() {
@@ -17,17 +24,22 @@ public class VariableReference extends Expression {
 	}
 
 	@Override
-	public boolean equals(Object o) {
-		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
-		if (!super.equals(o)) return false;
-		VariableReference that = (VariableReference) o;
-		return Objects.equals(name, that.name);
+	public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+		return visitor.visitVariableReference(this, context);
+	}
+
+	@Override
+	public int getChildCount() {
+		return 0;
 	}
 
 	@Override
-	public int hashCode() {
+	protected boolean hasSameValue(ASTNode other) {
+		return Objects.equals(name, ((VariableReference) other).name);
+	}
 
-		return Objects.hash(name);
+	@Override
+	protected int valueHash() {
+		return Objects.hashCode(name);
 	}
 }
@@ -0,0 +1,335 @@
+package nl.han.ica.icss.ast.flat;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.ElseClause;
+import nl.han.ica.icss.ast.IfClause;
+import nl.han.ica.icss.ast.PropertyName;
+import nl.han.ica.icss.ast.SourcePosition;
+import nl.han.ica.icss.ast.Stylerule;
+import nl.han.ica.icss.ast.Stylesheet;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.VariableAssignment;
+import nl.han.ica.icss.ast.VariableReference;
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.ColorLiteral;
+import nl.han.ica.icss.ast.literals.PercentageLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+
+import java.util.Arrays;
+
+/**
+ * An AST stored in parallel primitive arrays instead of one object per node. A node is an int index; its kind,
+ * parent, first child, next sibling, value and source offsets are entries in the arrays. The value is the
+ * symbol of a name, the number of a literal, 1 or 0 for a bool and the 24-bit RGB value of a color.
+ * Lines and columns are not stored per node: they follow from the offset and a table with the start of every
+ * line that has a node on it.
+ *
+ * Nodes are added in the order the parser meets them, so the statements and their bodies lie in source order
+ * in the arrays and a walk over them reads memory front to back. A node costs 25 bytes, against several
+ * objects with headers, references, lists and packed positions in the object AST.
+ *
+ * The tree has no semantic errors of its own; whoever walks it reports them. Use {@link #node(int)} to show it
+ * as ASTNodes, or {@link #toAST()} to turn it into an object AST.
+ */
+public final class FlatAST {
+    //The parent, child or sibling of a node that has none
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int[] startOffsets = new int[INITIAL_CAPACITY];
+    private int[] endOffsets = new int[INITIAL_CAPACITY];
+    private int size;
+
+    //The lines that have a node on them, in increasing order, and the offsets they start at
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] lineStarts = new int[INITIAL_CAPACITY];
+    private int lineCount;
+
+    //Only needed to append children while building; dropped by trim
+    private int[] lastChildren = new int[INITIAL_CAPACITY];
+
+    private final SymbolTable symbols;
+
+    public FlatAST(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * @return The number of nodes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The root Stylesheet, or NONE if the tree is empty.
+     */
+    public int root() {
+        return size == 0 ? NONE : 0;
+    }
+
+    public NodeKind kind(int node) {
+        return NodeKind.of(kinds[node]);
+    }
+
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    public int firstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int nextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    public int value(int node) {
+        return values[node];
+    }
+
+    /**
+     * @return The name of a selector, property or variable.
+     */
+    public String name(int node) {
+        return symbols.name(values[node]);
+    }
+
+    public int startOffset(int node) {
+        return startOffsets[node];
+    }
+
+    public int endOffset(int node) {
+        return endOffsets[node];
+    }
+
+    /**
+     * @return The start of the node, packed by SourcePosition.
+     */
+    public long start(int node) {
+        return position(startOffsets[node]);
+    }
+
+    /**
+     * @return The end (exclusive) of the node, packed by SourcePosition.
+     */
+    public long end(int node) {
+        return position(endOffsets[node]);
+    }
+
+    private long position(int offset) {
+        if (offset < 0 || lineCount == 0) {
+            return SourcePosition.NONE;
+        }
+
+        //The last line that starts at or before the offset; an end offset can lie just past the line
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStarts[middle] <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return SourcePosition.of(offset, lines[low], offset - lineStarts[low]);
+    }
+
+    /**
+     * Adds a node without parent, children or position.
+     *
+     * @return The new node.
+     */
+    public int add(NodeKind kind, int value) {
+        if (size == kinds.length) {
+            grow(size * 2);
+        }
+
+        kinds[size] = (byte) kind.ordinal();
+        values[size] = value;
+        parents[size] = NONE;
+        firstChildren[size] = NONE;
+        nextSiblings[size] = NONE;
+        lastChildren[size] = NONE;
+        startOffsets[size] = -1;
+        endOffsets[size] = -1;
+        return size++;
+    }
+
+    /**
+     * @param start The offset of the first character of the node.
+     * @param end   The offset just after the last character of the node.
+     */
+    public void setPosition(int node, int start, int end) {
+        startOffsets[node] = start;
+        endOffsets[node] = end;
+    }
+
+    /**
+     * Records where a line starts, so positions on it get a line and column. Lines must be added in
+     * increasing order; a line that is already known is ignored.
+     */
+    public void addLine(int line, int lineStart) {
+        if (lineCount > 0 && lines[lineCount - 1] >= line) {
+            return;
+        }
+
+        if (lineCount == lines.length) {
+            lines = Arrays.copyOf(lines, lineCount * 2);
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+        lines[lineCount] = line;
+        lineStarts[lineCount] = lineStart;
+        lineCount++;
+    }
+
+    /**
+     * Makes the node the last child of the parent. Only possible until the tree is trimmed.
+     */
+    public void append(int parent, int child) {
+        parents[child] = parent;
+        if (lastChildren[parent] == NONE) {
+            firstChildren[parent] = child;
+        } else {
+            nextSiblings[lastChildren[parent]] = child;
+        }
+        lastChildren[parent] = child;
+    }
+
+    /**
+     * Shrinks the arrays to the number of nodes once the tree is complete.
+     */
+    public void trim() {
+        grow(size);
+        lastChildren = null;
+        lines = Arrays.copyOf(lines, lineCount);
+        lineStarts = Arrays.copyOf(lineStarts, lineCount);
+    }
+
+    private void grow(int capacity) {
+        kinds = Arrays.copyOf(kinds, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        values = Arrays.copyOf(values, capacity);
+        startOffsets = Arrays.copyOf(startOffsets, capacity);
+        endOffsets = Arrays.copyOf(endOffsets, capacity);
+        if (lastChildren != null) {
+            lastChildren = Arrays.copyOf(lastChildren, capacity);
+        }
+    }
+
+    /**
+     * @return A view of the node as an ASTNode, for code that shows a tree, like the ASTPane.
+     */
+    public FlatNode node(int node) {
+        return new FlatNode(this, node);
+    }
+
+    /**
+     * @return An object AST with the same nodes, positions and symbols.
+     */
+    public AST toAST() {
+        if (size == 0) {
+            return new AST(new Stylesheet(), symbols);
+        }
+        return new AST((Stylesheet) toNode(0), symbols);
+    }
+
+    private ASTNode toNode(int node) {
+        ASTNode result = create(node);
+        result.setPosition(start(node), end(node));
+        for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+            result.addChild(toNode(child));
+        }
+        return result;
+    }
+
+    private ASTNode create(int node) {
+        int value = values[node];
+        switch (kind(node)) {
+            case STYLESHEET:
+                return new Stylesheet();
+            case STYLERULE:
+                return new Stylerule();
+            case CLASS_SELECTOR:
+                return new ClassSelector(symbols.name(value));
+            case ID_SELECTOR:
+                return new IdSelector(symbols.name(value));
+            case TAG_SELECTOR:
+                return new TagSelector(symbols.name(value));
+            case DECLARATION:
+                return new Declaration();
+            case PROPERTY_NAME:
+                return new PropertyName(symbols.name(value), value);
+            case VARIABLE_ASSIGNMENT:
+                return new VariableAssignment();
+            case VARIABLE_REFERENCE:
+                return new VariableReference(symbols.name(value), value);
+            case IF_CLAUSE:
+                return new IfClause();
+            case ELSE_CLAUSE:
+                return new ElseClause();
+            case ADD:
+                return new AddOperation();
+            case SUBTRACT:
+                return new SubtractOperation();
+            case MULTIPLY:
+                return new MultiplyOperation();
+            case DIVIDE:
+                return new DivideOperation();
+            case BOOL_LITERAL:
+                return new BoolLiteral(value != 0);
+            case COLOR_LITERAL:
+                return new ColorLiteral(colorText(value));
+            case PERCENTAGE_LITERAL:
+                return new PercentageLiteral(value);
+            case PIXEL_LITERAL:
+                return new PixelLiteral(value);
+            default:
+                return new ScalarLiteral(value);
+        }
+    }
+
+    /**
+     * @param text A color as the lexer reads it, like "#ff00aa".
+     * @return The RGB value of the color.
+     */
+    public static int colorValue(String text) {
+        return Integer.parseInt(text.substring(1), 16);
+    }
+
+    /**
+     * @return The color as the lexer reads it: a '#' and six lowercase hex digits.
+     */
+    public static String colorText(int rgb) {
+        char[] text = new char[7];
+        text[0] = '#';
+        for (int i = 6; i > 0; i--) {
+            text[i] = Character.forDigit(rgb & 0xf, 16);
+            rgb >>>= 4;
+        }
+        return new String(text);
+    }
+}
@@ -0,0 +1,140 @@
+package nl.han.ica.icss.ast.flat;
+
+import nl.han.ica.icss.ast.ASTNode;
+
+import java.util.ArrayList;
+
+/**
+ * Shows one node of a {@link FlatAST} as an ASTNode, so the tree can be displayed by code written for the
+ * object AST, like the ASTPane. The view is read-only: adding, removing and replacing children does nothing,
+ * and a flat tree has no errors on its nodes.
+ */
+public class FlatNode extends ASTNode {
+
+    private final FlatAST ast;
+    private final int node;
+
+    //The child that getChild returned last, so a loop over the children only follows one link per child
+    private int cursorIndex = -1;
+    private int cursor = FlatAST.NONE;
+    private int childCount = -1;
+
+    FlatNode(FlatAST ast, int node) {
+        this.ast = ast;
+        this.node = node;
+        setPosition(ast.start(node), ast.end(node));
+    }
+
+    public int getIndex() {
+        return node;
+    }
+
+    public NodeKind getKind() {
+        return ast.kind(node);
+    }
+
+    @Override
+    public String getNodeLabel() {
+        int value = ast.value(node);
+        switch (ast.kind(node)) {
+            case STYLESHEET:
+                return "Stylesheet";
+            case STYLERULE:
+                return "Stylerule";
+            case CLASS_SELECTOR:
+                return "ClassSelector " + ast.name(node);
+            case ID_SELECTOR:
+                return "IdSelector " + ast.name(node);
+            case TAG_SELECTOR:
+                return "TagSelector " + ast.name(node);
+            case DECLARATION:
+                return "Declaration";
+            case PROPERTY_NAME:
+                return "Property: (" + ast.name(node) + ")";
+            case VARIABLE_ASSIGNMENT:
+                int name = ast.firstChild(node);
+                return "VariableAssignment (" + (name == FlatAST.NONE ? null : ast.name(name)) + ")";
+            case VARIABLE_REFERENCE:
+                return "VariableReference (" + ast.name(node) + ")";
+            case IF_CLAUSE:
+                return "If_Clause";
+            case ELSE_CLAUSE:
+                return "Else_Clause";
+            case ADD:
+                return "Add";
+            case SUBTRACT:
+                return "Subtract";
+            case MULTIPLY:
+                return "Multiply";
+            case DIVIDE:
+                return "Divide";
+            case BOOL_LITERAL:
+                return "Bool Literal (" + (value != 0 ? "TRUE" : "FALSE") + ")";
+            case COLOR_LITERAL:
+                return "Color literal (" + FlatAST.colorText(value) + ")";
+            case PERCENTAGE_LITERAL:
+                return "Percentage literal (" + value + ")";
+            case PIXEL_LITERAL:
+                return "Pixel literal (" + value + ")";
+            default:
+                return "Scalar literal (" + value + ")";
+        }
+    }
+
+    @Override
+    public ArrayList<ASTNode> getChildren() {
+        ArrayList<ASTNode> children = new ArrayList<>();
+        for (int child = ast.firstChild(node); child != FlatAST.NONE; child = ast.nextSibling(child)) {
+            children.add(new FlatNode(ast, child));
+        }
+        return children;
+    }
+
+    @Override
+    public int getChildCount() {
+        if (childCount < 0) {
+            int count = 0;
+            for (int child = ast.firstChild(node); child != FlatAST.NONE; child = ast.nextSibling(child)) {
+                count++;
+            }
+            childCount = count;
+        }
+        return childCount;
+    }
+
+    @Override
+    public ASTNode getChild(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+        }
+        if (cursorIndex < 0 || index < cursorIndex) {
+            cursorIndex = 0;
+            cursor = ast.firstChild(node);
+        }
+        for (; cursorIndex < index && cursor != FlatAST.NONE; cursorIndex++) {
+            cursor = ast.nextSibling(cursor);
+        }
+        if (cursor == FlatAST.NONE) {
+            cursorIndex = -1;
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+        }
+        return new FlatNode(ast, cursor);
+    }
+
+    @Override
+    protected void replaceChild(int index, ASTNode child) {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FlatNode that = (FlatNode) o;
+        return ast == that.ast && node == that.node;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(ast) * 31 + node;
+    }
+}
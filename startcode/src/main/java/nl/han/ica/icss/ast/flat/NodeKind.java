@@ -0,0 +1,50 @@
+package nl.han.ica.icss.ast.flat;
+
+/**
+ * The kinds of node in a {@link FlatAST}, one for every node class of the object AST.
+ * A FlatAST stores the ordinal of the kind in a single byte per node.
+ */
+public enum NodeKind {
+    STYLESHEET,
+    STYLERULE,
+    CLASS_SELECTOR,
+    ID_SELECTOR,
+    TAG_SELECTOR,
+    DECLARATION,
+    PROPERTY_NAME,
+    VARIABLE_ASSIGNMENT,
+    VARIABLE_REFERENCE,
+    IF_CLAUSE,
+    ELSE_CLAUSE,
+    ADD,
+    SUBTRACT,
+    MULTIPLY,
+    DIVIDE,
+    BOOL_LITERAL,
+    COLOR_LITERAL,
+    PERCENTAGE_LITERAL,
+    PIXEL_LITERAL,
+    SCALAR_LITERAL;
+
+    private static final NodeKind[] VALUES = values();
+
+    public static NodeKind of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public boolean isOperation() {
+        return this == ADD || this == SUBTRACT || this == MULTIPLY || this == DIVIDE;
+    }
+
+    public boolean isLiteral() {
+        return ordinal() >= BOOL_LITERAL.ordinal();
+    }
+
+    /**
+     * @return true for the kinds whose value is a symbol of the SymbolTable.
+     */
+    public boolean isNamed() {
+        return this == CLASS_SELECTOR || this == ID_SELECTOR || this == TAG_SELECTOR
+                || this == PROPERTY_NAME || this == VARIABLE_REFERENCE;
+    }
+}
@@ -0,0 +1,62 @@
+package nl.han.ica.icss.ast.io;
+
+/**
+ * The binary format of {@link ASTWriter} and {@link ASTReader}. A file is laid out as follows, with every number
+ * an unsigned LEB128 varint unless noted:
+ *
+ * <pre>
+ *   magic      4 bytes, "ICSA"
+ *   version    the format version, currently 1
+ *   flags      POSITIONS and/or ERRORS
+ *   symbols    a count, then the names of the SymbolTable in id order
+ *   root       the Stylesheet
+ * </pre>
+ *
+ * Strings are numbered in the order they appear, starting with the names of the SymbolTable, so the number of a
+ * name is its symbol. A string is written as its number + 1, or as 0 followed by the length and the UTF-8 bytes
+ * the first time it appears; the symbols are written as a length and bytes only.
+ *
+ * A node is its tag (the ordinal of its NodeKind, or NULL for a missing child), then its position and error if
+ * the flags say so, then its value and children:
+ *
+ * <pre>
+ *   Stylesheet          statement count, statements
+ *   Stylerule           selector count, selectors, body count, body
+ *   Declaration         property, expression
+ *   VariableAssignment  name, expression
+ *   IfClause            condition, body count, body, else clause
+ *   ElseClause          body count, body
+ *   operations          lhs, rhs
+ *   selectors, PropertyName, VariableReference, ColorLiteral   string
+ *   BoolLiteral         0 or 1
+ *   other literals      zigzag value
+ * </pre>
+ *
+ * A position is written relative to a base: the start of the previous node with a position for a start, and the
+ * start of the node for an end. It is 0 for no position, or (zigzag line difference &lt;&lt; 1 | has column) + 1,
+ * then the zigzag offset difference and, if the flag is set, the column. On the line of the base the column is
+ * left out, because it follows from the offset. An error is 1 followed by its description, or 0.
+ */
+final class ASTFormat {
+
+    static final int MAGIC = 0x49435341;
+    static final int VERSION = 1;
+
+    static final int POSITIONS = 1;
+    static final int ERRORS = 2;
+
+    //The tag of a child that is missing, for example the expression of a declaration after a syntax error
+    static final int NULL = 0xff;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private ASTFormat() { }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,329 @@
+package nl.han.ica.icss.ast.io;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.ElseClause;
+import nl.han.ica.icss.ast.Expression;
+import nl.han.ica.icss.ast.IfClause;
+import nl.han.ica.icss.ast.Operation;
+import nl.han.ica.icss.ast.PropertyName;
+import nl.han.ica.icss.ast.Selector;
+import nl.han.ica.icss.ast.SourcePosition;
+import nl.han.ica.icss.ast.Stylerule;
+import nl.han.ica.icss.ast.Stylesheet;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.VariableAssignment;
+import nl.han.ica.icss.ast.VariableReference;
+import nl.han.ica.icss.ast.flat.NodeKind;
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.ColorLiteral;
+import nl.han.ica.icss.ast.literals.PercentageLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Reads an AST written by {@link ASTWriter}. The tree gets a new SymbolTable with the same symbols, and the same
+ * positions and errors as the tree that was written. The channel is read through a fixed buffer and is not
+ * closed; nothing after the tree is read.
+ */
+public final class ASTReader {
+
+    private static final NodeKind[] KINDS = NodeKind.values();
+
+    //Deeper input is corrupt rather than a stack overflow. A chain of operations is the deepest tree the
+    //parser builds, and a stylesheet with a thousand operations in one expression is not a real one
+    static final int MAX_DEPTH = 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(ASTFormat.BUFFER_SIZE);
+    private final SymbolTable symbols = new SymbolTable();
+    private int flags;
+
+    private String[] strings = new String[64];
+    private int stringCount;
+    private int symbolCount;
+
+    private long previous = SourcePosition.START;
+    private int depth;
+
+    private ASTReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.limit(0);
+    }
+
+    /**
+     * @throws StreamCorruptedException If the input is not an AST of a supported version.
+     * @throws EOFException             If the input ends before the tree does.
+     */
+    public static AST read(ReadableByteChannel channel) throws IOException {
+        return new ASTReader(channel).readAST();
+    }
+
+    private AST readAST() throws IOException {
+        require(4);
+        if (buffer.getInt() != ASTFormat.MAGIC) {
+            throw new StreamCorruptedException("Not an ICSS AST");
+        }
+        int version = readVarInt();
+        if (version != ASTFormat.VERSION) {
+            throw new StreamCorruptedException("Unsupported AST format version " + version);
+        }
+        flags = readVarInt();
+
+        symbolCount = readVarInt();
+        for (int i = 0; i < symbolCount; i++) {
+            String name = readBytes();
+            if (symbols.intern(name) != i) {
+                throw new StreamCorruptedException("Duplicate symbol " + name);
+            }
+            addString(symbols.name(i));
+        }
+
+        try {
+            ASTNode root = readNode();
+            if (!(root instanceof Stylesheet)) {
+                throw new StreamCorruptedException("The root is not a stylesheet");
+            }
+            return new AST((Stylesheet) root, symbols);
+        } catch (ClassCastException e) {
+            throw new StreamCorruptedException("A node is in the wrong place: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return The node, or null for a missing child.
+     */
+    private ASTNode readNode() throws IOException {
+        int tag = readVarInt();
+        if (tag == ASTFormat.NULL) {
+            return null;
+        }
+        if (tag < 0 || tag >= KINDS.length) {
+            throw new StreamCorruptedException("Unknown node tag " + tag);
+        }
+        if (depth == MAX_DEPTH) {
+            throw new StreamCorruptedException("Nodes are nested deeper than " + MAX_DEPTH + " levels");
+        }
+
+        long start = SourcePosition.NONE;
+        long end = SourcePosition.NONE;
+        if ((flags & ASTFormat.POSITIONS) != 0) {
+            start = readPosition(previous);
+            if (start != SourcePosition.NONE) {
+                previous = start;
+                end = readPosition(start);
+            }
+        }
+        String error = null;
+        if ((flags & ASTFormat.ERRORS) != 0 && readVarInt() != 0) {
+            error = readString();
+        }
+
+        depth++;
+        ASTNode node = readBody(KINDS[tag]);
+        depth--;
+        if (start != SourcePosition.NONE) {
+            node.setPosition(start, end);
+        }
+        if (error != null) {
+            node.setError(error);
+        }
+        return node;
+    }
+
+    /**
+     * Reads the value and children of a node of the kind.
+     */
+    private ASTNode readBody(NodeKind kind) throws IOException {
+        switch (kind) {
+            case STYLESHEET:
+                return new Stylesheet(readNodes());
+            case STYLERULE:
+                Stylerule stylerule = new Stylerule();
+                int selectorCount = readVarInt();
+                for (int i = 0; i < selectorCount; i++) {
+                    stylerule.selectors.add((Selector) readNode());
+                }
+                stylerule.body = readNodes();
+                return stylerule;
+            case CLASS_SELECTOR:
+                return new ClassSelector(readString());
+            case ID_SELECTOR:
+                return new IdSelector(readString());
+            case TAG_SELECTOR:
+                return new TagSelector(readString());
+            case DECLARATION:
+                Declaration declaration = new Declaration();
+                declaration.property = (PropertyName) readNode();
+                declaration.expression = (Expression) readNode();
+                return declaration;
+            case PROPERTY_NAME:
+                int property = readStringNumber();
+                return new PropertyName(strings[property], symbolOf(property));
+            case VARIABLE_ASSIGNMENT:
+                VariableAssignment assignment = new VariableAssignment();
+                assignment.name = (VariableReference) readNode();
+                assignment.expression = (Expression) readNode();
+                return assignment;
+            case VARIABLE_REFERENCE:
+                int reference = readStringNumber();
+                return new VariableReference(strings[reference], symbolOf(reference));
+            case IF_CLAUSE:
+                IfClause ifClause = new IfClause();
+                ifClause.conditionalExpression = (Expression) readNode();
+                ifClause.body = readNodes();
+                ifClause.elseClause = (ElseClause) readNode();
+                return ifClause;
+            case ELSE_CLAUSE:
+                ElseClause elseClause = new ElseClause();
+                elseClause.body = readNodes();
+                return elseClause;
+            case ADD:
+                return readOperation(new AddOperation());
+            case SUBTRACT:
+                return readOperation(new SubtractOperation());
+            case MULTIPLY:
+                return readOperation(new MultiplyOperation());
+            case DIVIDE:
+                return readOperation(new DivideOperation());
+            case BOOL_LITERAL:
+                return new BoolLiteral(readVarInt() != 0);
+            case COLOR_LITERAL:
+                return new ColorLiteral(readString());
+            case PERCENTAGE_LITERAL:
+                return new PercentageLiteral(ASTFormat.unzigzag(readVarInt()));
+            case PIXEL_LITERAL:
+                return new PixelLiteral(ASTFormat.unzigzag(readVarInt()));
+            default:
+                return new ScalarLiteral(ASTFormat.unzigzag(readVarInt()));
+        }
+    }
+
+    private Operation readOperation(Operation operation) throws IOException {
+        operation.lhs = (Expression) readNode();
+        operation.rhs = (Expression) readNode();
+        return operation;
+    }
+
+    private ArrayList<ASTNode> readNodes() throws IOException {
+        int count = readVarInt();
+        //The count comes from the input, so the list grows as nodes are read instead of trusting it
+        ArrayList<ASTNode> nodes = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            nodes.add(readNode());
+        }
+        return nodes;
+    }
+
+    private long readPosition(long base) throws IOException {
+        int header = readVarInt() - 1;
+        if (header < 0) {
+            return SourcePosition.NONE;
+        }
+
+        int lines = ASTFormat.unzigzag(header >>> 1);
+        int characters = ASTFormat.unzigzag(readVarInt());
+        int column = (header & 1) != 0 ? readVarInt() : SourcePosition.column(base) + characters;
+        return SourcePosition.of(SourcePosition.offset(base) + characters, SourcePosition.line(base) + lines, column);
+    }
+
+    private int symbolOf(int number) {
+        return number < symbolCount ? number : SymbolTable.UNKNOWN;
+    }
+
+    private String readString() throws IOException {
+        return strings[readStringNumber()];
+    }
+
+    private int readStringNumber() throws IOException {
+        int number = readVarInt() - 1;
+        if (number < 0) {
+            addString(readBytes());
+            return stringCount - 1;
+        }
+        if (number >= stringCount) {
+            throw new StreamCorruptedException("Unknown string " + number);
+        }
+        return number;
+    }
+
+    private void addString(String string) {
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+        strings[stringCount++] = string;
+    }
+
+    private String readBytes() throws IOException {
+        int length = readVarInt();
+        if (length < 0) {
+            throw new StreamCorruptedException("Negative string length");
+        }
+
+        if (length <= buffer.remaining()) {
+            String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return string;
+        }
+
+        //The length comes from the input, so the bytes grow as they are read instead of trusting it
+        byte[] bytes = new byte[Math.min(length, ASTFormat.BUFFER_SIZE)];
+        for (int read = 0; read < length; ) {
+            require(1);
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            }
+            int chunk = Math.min(buffer.remaining(), bytes.length - read);
+            buffer.get(bytes, read, chunk);
+            read += chunk;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            require(1);
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Varint is too long");
+    }
+
+    /**
+     * Makes sure the buffer holds at least the number of bytes, reading more from the channel if needed.
+     */
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("The AST ends too early");
+            }
+        }
+        buffer.flip();
+    }
+}
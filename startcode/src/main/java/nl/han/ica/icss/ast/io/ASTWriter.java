@@ -0,0 +1,360 @@
+package nl.han.ica.icss.ast.io;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.ASTVisitor;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.ElseClause;
+import nl.han.ica.icss.ast.IfClause;
+import nl.han.ica.icss.ast.Operation;
+import nl.han.ica.icss.ast.PropertyName;
+import nl.han.ica.icss.ast.SourcePosition;
+import nl.han.ica.icss.ast.Stylerule;
+import nl.han.ica.icss.ast.Stylesheet;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.VariableAssignment;
+import nl.han.ica.icss.ast.VariableReference;
+import nl.han.ica.icss.ast.flat.NodeKind;
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.ColorLiteral;
+import nl.han.ica.icss.ast.literals.PercentageLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes an AST in the compact binary format described in {@link ASTFormat}, so it can be read back by
+ * {@link ASTReader} without lexing and parsing the source again. The tree is written in one pass through a
+ * fixed buffer, so a tree of any size streams to the channel. Positions, symbols and semantic errors are kept;
+ * write a tree after the checker to keep its errors, or after the transform to store the evaluated tree.
+ *
+ * The channel is not closed.
+ */
+public final class ASTWriter {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(ASTFormat.BUFFER_SIZE);
+    private final int flags;
+    private final HashMap<String, Integer> strings = new HashMap<>();
+    private final NodeWriter nodeWriter = new NodeWriter();
+
+    //The position that the start of the next node is written relative to
+    private long previous = SourcePosition.START;
+
+    private ASTWriter(WritableByteChannel channel, int flags) {
+        this.channel = channel;
+        this.flags = flags;
+    }
+
+    /**
+     * Writes the tree with its positions and errors.
+     */
+    public static void write(AST ast, WritableByteChannel channel) throws IOException {
+        write(ast, channel, true);
+    }
+
+    /**
+     * @param positions Whether to write the source positions; leaving them out makes the output about half as
+     *                  large, for trees that are only generated from.
+     */
+    public static void write(AST ast, WritableByteChannel channel, boolean positions) throws IOException {
+        int flags = ASTFormat.ERRORS | (positions ? ASTFormat.POSITIONS : 0);
+        new ASTWriter(channel, flags).writeAST(ast);
+    }
+
+    private void writeAST(AST ast) throws IOException {
+        buffer.putInt(ASTFormat.MAGIC);
+        writeVarInt(ASTFormat.VERSION);
+        writeVarInt(flags);
+
+        SymbolTable symbols = ast.symbols;
+        writeVarInt(symbols.size());
+        for (int i = 0; i < symbols.size(); i++) {
+            strings.put(symbols.name(i), i);
+            writeBytes(symbols.name(i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            writeNode(ast.root);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        flush();
+    }
+
+    private void writeNode(ASTNode node) {
+        if (node == null) {
+            writeVarInt(ASTFormat.NULL);
+        } else {
+            node.accept(nodeWriter, null);
+        }
+    }
+
+    private void writeNodes(List<? extends ASTNode> nodes) {
+        writeVarInt(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            writeNode(nodes.get(i));
+        }
+    }
+
+    /**
+     * Writes the tag, position and error that every node starts with.
+     */
+    private void writeHeader(NodeKind kind, ASTNode node) {
+        writeVarInt(kind.ordinal());
+
+        if ((flags & ASTFormat.POSITIONS) != 0) {
+            long start = node.getStart();
+            writePosition(start, previous);
+            if (start != SourcePosition.NONE) {
+                previous = start;
+                writePosition(node.getEnd(), start);
+            }
+        }
+
+        if ((flags & ASTFormat.ERRORS) != 0) {
+            if (node.hasError()) {
+                writeVarInt(1);
+                writeString(node.getError().description);
+            } else {
+                writeVarInt(0);
+            }
+        }
+    }
+
+    private void writePosition(long position, long base) {
+        if (position == SourcePosition.NONE) {
+            writeVarInt(0);
+            return;
+        }
+
+        int lines = SourcePosition.line(position) - SourcePosition.line(base);
+        int characters = SourcePosition.offset(position) - SourcePosition.offset(base);
+        //On the same line the column follows from the offset, unless it was cut off at the maximum
+        boolean column = lines != 0 || SourcePosition.column(base) + characters != SourcePosition.column(position);
+
+        writeVarInt((ASTFormat.zigzag(lines) << 1 | (column ? 1 : 0)) + 1);
+        writeVarInt(ASTFormat.zigzag(characters));
+        if (column) {
+            writeVarInt(SourcePosition.column(position));
+        }
+    }
+
+    private void writeString(String string) {
+        Integer number = strings.get(string);
+        if (number != null) {
+            writeVarInt(number + 1);
+            return;
+        }
+
+        strings.put(string, strings.size());
+        writeVarInt(0);
+        writeBytes(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        for (int written = 0; written < bytes.length; ) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), bytes.length - written);
+            buffer.put(bytes, written, length);
+            written += length;
+        }
+    }
+
+    private void writeVarInt(int value) {
+        ensure(5);
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes a node with its value and children. Nodes of classes outside the AST package can not be written.
+     */
+    private class NodeWriter implements ASTVisitor<Void, Void> {
+
+        @Override
+        public Void visitNode(ASTNode node, Void context) {
+            throw new IllegalArgumentException("Can not write " + node.getNodeLabel());
+        }
+
+        @Override
+        public Void visitStylesheet(Stylesheet node, Void context) {
+            writeHeader(NodeKind.STYLESHEET, node);
+            writeNodes(node.body);
+            return null;
+        }
+
+        @Override
+        public Void visitStylerule(Stylerule node, Void context) {
+            writeHeader(NodeKind.STYLERULE, node);
+            writeNodes(node.selectors);
+            writeNodes(node.body);
+            return null;
+        }
+
+        @Override
+        public Void visitClassSelector(ClassSelector node, Void context) {
+            writeHeader(NodeKind.CLASS_SELECTOR, node);
+            writeString(node.cls);
+            return null;
+        }
+
+        @Override
+        public Void visitIdSelector(IdSelector node, Void context) {
+            writeHeader(NodeKind.ID_SELECTOR, node);
+            writeString(node.id);
+            return null;
+        }
+
+        @Override
+        public Void visitTagSelector(TagSelector node, Void context) {
+            writeHeader(NodeKind.TAG_SELECTOR, node);
+            writeString(node.tag);
+            return null;
+        }
+
+        @Override
+        public Void visitDeclaration(Declaration node, Void context) {
+            writeHeader(NodeKind.DECLARATION, node);
+            writeNode(node.property);
+            writeNode(node.expression);
+            return null;
+        }
+
+        @Override
+        public Void visitPropertyName(PropertyName node, Void context) {
+            writeHeader(NodeKind.PROPERTY_NAME, node);
+            writeString(node.name);
+            return null;
+        }
+
+        @Override
+        public Void visitVariableAssignment(VariableAssignment node, Void context) {
+            writeHeader(NodeKind.VARIABLE_ASSIGNMENT, node);
+            writeNode(node.name);
+            writeNode(node.expression);
+            return null;
+        }
+
+        @Override
+        public Void visitVariableReference(VariableReference node, Void context) {
+            writeHeader(NodeKind.VARIABLE_REFERENCE, node);
+            writeString(node.name);
+            return null;
+        }
+
+        @Override
+        public Void visitIfClause(IfClause node, Void context) {
+            writeHeader(NodeKind.IF_CLAUSE, node);
+            writeNode(node.conditionalExpression);
+            writeNodes(node.body);
+            writeNode(node.elseClause);
+            return null;
+        }
+
+        @Override
+        public Void visitElseClause(ElseClause node, Void context) {
+            writeHeader(NodeKind.ELSE_CLAUSE, node);
+            writeNodes(node.body);
+            return null;
+        }
+
+        @Override
+        public Void visitAddOperation(AddOperation node, Void context) {
+            return writeOperation(NodeKind.ADD, node);
+        }
+
+        @Override
+        public Void visitSubtractOperation(SubtractOperation node, Void context) {
+            return writeOperation(NodeKind.SUBTRACT, node);
+        }
+
+        @Override
+        public Void visitMultiplyOperation(MultiplyOperation node, Void context) {
+            return writeOperation(NodeKind.MULTIPLY, node);
+        }
+
+        @Override
+        public Void visitDivideOperation(DivideOperation node, Void context) {
+            return writeOperation(NodeKind.DIVIDE, node);
+        }
+
+        private Void writeOperation(NodeKind kind, Operation node) {
+            writeHeader(kind, node);
+            writeNode(node.lhs);
+            writeNode(node.rhs);
+            return null;
+        }
+
+        @Override
+        public Void visitBoolLiteral(BoolLiteral node, Void context) {
+            writeHeader(NodeKind.BOOL_LITERAL, node);
+            writeVarInt(node.value ? 1 : 0);
+            return null;
+        }
+
+        @Override
+        public Void visitColorLiteral(ColorLiteral node, Void context) {
+            writeHeader(NodeKind.COLOR_LITERAL, node);
+            writeString(node.value);
+            return null;
+        }
+
+        @Override
+        public Void visitPercentageLiteral(PercentageLiteral node, Void context) {
+            writeHeader(NodeKind.PERCENTAGE_LITERAL, node);
+            writeVarInt(ASTFormat.zigzag(node.value));
+            return null;
+        }
+
+        @Override
+        public Void visitPixelLiteral(PixelLiteral node, Void context) {
+            writeHeader(NodeKind.PIXEL_LITERAL, node);
+            writeVarInt(ASTFormat.zigzag(node.value));
+            return null;
+        }
+
+        @Override
+        public Void visitScalarLiteral(ScalarLiteral node, Void context) {
+            writeHeader(NodeKind.SCALAR_LITERAL, node);
+            writeVarInt(ASTFormat.zigzag(node.value));
+            return null;
+        }
+    }
+}
@@ -1,17 +1,38 @@
 package nl.han.ica.icss.ast.literals;
 
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.ASTVisitor;
 import nl.han.ica.icss.ast.Literal;
-import java.util.Objects;
 
 public class BoolLiteral extends Literal {
-    public boolean value;
+    public static final BoolLiteral TRUE = new BoolLiteral(true, true);
+    public static final BoolLiteral FALSE = new BoolLiteral(false, true);
+
+    public final boolean value;
 
     public BoolLiteral(boolean value) {
         this.value = value;
     }
+    private BoolLiteral(boolean value, boolean shared) {
+        super(shared);
+        this.value = value;
+    }
     public BoolLiteral(String text) {
         this.value = text.equals("TRUE");
     }
+
+    /**
+     * @return The shared TRUE or FALSE; it has no position. It can not be put in a tree; see {@link #unshared()}.
+     */
+    public static BoolLiteral of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    @Override
+    public BoolLiteral unshared() {
+        return isShared() ? new BoolLiteral(value) : this;
+    }
+
     @Override
     public String getNodeLabel() {
         String textValue = value ? "TRUE" : "FALSE";
@@ -19,16 +40,17 @@ public class BoolLiteral extends Literal {
     }
 
     @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        BoolLiteral that = (BoolLiteral) o;
-        return value == that.value;
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitBoolLiteral(this, context);
+    }
+
+    @Override
+    protected boolean hasSameValue(ASTNode other) {
+        return value == ((BoolLiteral) other).value;
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(value);
+    protected int valueHash() {
+        return Boolean.hashCode(value);
     }
 }
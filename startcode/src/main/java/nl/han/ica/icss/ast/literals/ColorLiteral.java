@@ -1,11 +1,13 @@
 package nl.han.ica.icss.ast.literals;
 
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.ASTVisitor;
 import nl.han.ica.icss.ast.Literal;
 
 import java.util.Objects;
 
 public class ColorLiteral extends Literal {
-    public String value;
+    public final String value;
 
     public ColorLiteral(String value) {
         this.value = value;
@@ -15,17 +17,18 @@ public class ColorLiteral extends Literal {
         return "Color literal (" + value + ")";
     }
 
-
     @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        ColorLiteral that = (ColorLiteral) o;
-        return Objects.equals(value, that.value);
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitColorLiteral(this, context);
     }
+
     @Override
-    public int hashCode() {
+    protected boolean hasSameValue(ASTNode other) {
+        return Objects.equals(value, ((ColorLiteral) other).value);
+    }
 
-        return Objects.hash(value);
+    @Override
+    protected int valueHash() {
+        return Objects.hashCode(value);
     }
 }
@@ -0,0 +1,56 @@
+package nl.han.ica.icss.ast.literals;
+
+import java.util.function.IntFunction;
+
+/*
+ The shared instances that PixelLiteral.of, PercentageLiteral.of and ScalarLiteral.of return
+ for the numbers from LOW to HIGH. The upper bound can be raised with the system property
+ icss.literal.cache.high; it is never lower than 127. The instances of a cache are created on
+ its first lookup, so parsing alone does not build any cache.
+ */
+final class LiteralCache<T> {
+
+    static final String HIGH_PROPERTY = "icss.literal.cache.high";
+
+    static final int LOW = -128;
+    static final int HIGH = Math.max(127, Integer.getInteger(HIGH_PROPERTY, 1024));
+
+    private final IntFunction<T[]> createArray;
+    private final IntFunction<T> createShared;
+    private volatile T[] values;
+
+    LiteralCache(IntFunction<T[]> createArray, IntFunction<T> createShared) {
+        this.createArray = createArray;
+        this.createShared = createShared;
+    }
+
+    static boolean contains(int value) {
+        return value >= LOW && value <= HIGH;
+    }
+
+    /*
+     The shared instance for the value, or null if the value is outside the cached range.
+     */
+    T get(int value) {
+        if (!contains(value)) {
+            return null;
+        }
+
+        T[] cached = values;
+        if (cached == null) {
+            cached = fill();
+        }
+        return cached[value - LOW];
+    }
+
+    private synchronized T[] fill() {
+        if (values == null) {
+            T[] cached = createArray.apply(HIGH - LOW + 1);
+            for (int i = 0; i < cached.length; i++) {
+                cached[i] = createShared.apply(LOW + i);
+            }
+            values = cached;
+        }
+        return values;
+    }
+}
@@ -1,34 +1,48 @@
 package nl.han.ica.icss.ast.literals;
 
-import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.ASTVisitor;
+import nl.han.ica.icss.ast.NumericLiteral;
 
-import java.util.Objects;
-
-public class PercentageLiteral extends Literal {
-    public int value;
+public class PercentageLiteral extends NumericLiteral {
+    private static final LiteralCache<PercentageLiteral> CACHE =
+            new LiteralCache<>(PercentageLiteral[]::new, value -> new PercentageLiteral(value, true));
 
     public PercentageLiteral(int value) {
-        this.value = value;
+        super(value);
+    }
+    private PercentageLiteral(int value, boolean shared) {
+        super(value, shared);
     }
     public PercentageLiteral(String text) {
-        this.value = Integer.parseInt(text.substring(0, text.length() - 1));
+        super(Integer.parseInt(text.substring(0, text.length() - 1)));
+    }
+
+    /**
+     * @return A shared PercentageLiteral for values in the cached range, otherwise a new one. Either has no position.
+     * A shared one can not be put in a tree; see {@link #unshared()}.
+     */
+    public static PercentageLiteral of(int value) {
+        PercentageLiteral shared = CACHE.get(value);
+        return shared != null ? shared : new PercentageLiteral(value);
     }
+
     @Override
     public String getNodeLabel() {
         return "Percentage literal (" + value + ")";
     }
 
     @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        PercentageLiteral that = (PercentageLiteral) o;
-        return value == that.value;
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitPercentageLiteral(this, context);
+    }
+
+    @Override
+    public PercentageLiteral withValue(int value) {
+        return of(value);
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(value);
+    public PercentageLiteral unshared() {
+        return isShared() ? new PercentageLiteral(value) : this;
     }
 }
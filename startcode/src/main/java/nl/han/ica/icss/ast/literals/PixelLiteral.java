@@ -1,34 +1,48 @@
 package nl.han.ica.icss.ast.literals;
 
-import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.ASTVisitor;
+import nl.han.ica.icss.ast.NumericLiteral;
 
-import java.util.Objects;
-
-public class PixelLiteral extends Literal {
-    public int value;
+public class PixelLiteral extends NumericLiteral {
+    private static final LiteralCache<PixelLiteral> CACHE =
+            new LiteralCache<>(PixelLiteral[]::new, value -> new PixelLiteral(value, true));
 
     public PixelLiteral(int value) {
-        this.value = value;
+        super(value);
+    }
+    private PixelLiteral(int value, boolean shared) {
+        super(value, shared);
     }
     public PixelLiteral(String text) {
-        this.value = Integer.parseInt(text.substring(0, text.length() - 2));
+        super(Integer.parseInt(text.substring(0, text.length() - 2)));
+    }
+
+    /**
+     * @return A shared PixelLiteral for values in the cached range, otherwise a new one. Either has no position.
+     * A shared one can not be put in a tree; see {@link #unshared()}.
+     */
+    public static PixelLiteral of(int value) {
+        PixelLiteral shared = CACHE.get(value);
+        return shared != null ? shared : new PixelLiteral(value);
     }
+
     @Override
     public String getNodeLabel() {
         return "Pixel literal (" + value + ")";
     }
 
     @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        PixelLiteral that = (PixelLiteral) o;
-        return value == that.value;
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitPixelLiteral(this, context);
+    }
+
+    @Override
+    public PixelLiteral withValue(int value) {
+        return of(value);
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(value);
+    public PixelLiteral unshared() {
+        return isShared() ? new PixelLiteral(value) : this;
     }
 }
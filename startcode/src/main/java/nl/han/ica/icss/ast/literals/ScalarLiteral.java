@@ -1,34 +1,48 @@
 package nl.han.ica.icss.ast.literals;
 
-import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.ASTVisitor;
+import nl.han.ica.icss.ast.NumericLiteral;
 
-import java.util.Objects;
-
-public class ScalarLiteral extends Literal {
-    public int value;
+public class ScalarLiteral extends NumericLiteral {
+    private static final LiteralCache<ScalarLiteral> CACHE =
+            new LiteralCache<>(ScalarLiteral[]::new, value -> new ScalarLiteral(value, true));
 
     public ScalarLiteral(int value) {
-        this.value = value;
+        super(value);
+    }
+    private ScalarLiteral(int value, boolean shared) {
+        super(value, shared);
     }
     public ScalarLiteral(String text) {
-        this.value = Integer.parseInt(text);
+        super(Integer.parseInt(text));
+    }
+
+    /**
+     * @return A shared ScalarLiteral for values in the cached range, otherwise a new one. Either has no position.
+     * A shared one can not be put in a tree; see {@link #unshared()}.
+     */
+    public static ScalarLiteral of(int value) {
+        ScalarLiteral shared = CACHE.get(value);
+        return shared != null ? shared : new ScalarLiteral(value);
     }
+
     @Override
     public String getNodeLabel() {
         return "Scalar literal (" + value + ")";
     }
 
     @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        ScalarLiteral that = (ScalarLiteral) o;
-        return value == that.value;
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitScalarLiteral(this, context);
+    }
+
+    @Override
+    public ScalarLiteral withValue(int value) {
+        return of(value);
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(value);
+    public ScalarLiteral unshared() {
+        return isShared() ? new ScalarLiteral(value) : this;
     }
 }
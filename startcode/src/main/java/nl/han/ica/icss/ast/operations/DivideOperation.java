@@ -0,0 +1,17 @@
+package nl.han.ica.icss.ast.operations;
+
+import nl.han.ica.icss.ast.ASTVisitor;
+import nl.han.ica.icss.ast.Operation;
+
+public class DivideOperation extends Operation {
+
+    @Override
+    public String getNodeLabel() {
+        return "Divide";
+    }
+
+    @Override
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitDivideOperation(this, context);
+    }
+}
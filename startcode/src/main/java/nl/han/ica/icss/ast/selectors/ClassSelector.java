@@ -1,5 +1,7 @@
 package nl.han.ica.icss.ast.selectors;
 
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.ASTVisitor;
 import nl.han.ica.icss.ast.Selector;
 
 import java.util.Objects;
@@ -16,20 +18,22 @@ public class ClassSelector extends Selector {
         return "ClassSelector " + cls;
     }
 
+    @Override
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitClassSelector(this, context);
+    }
+
     public String toString() {
         return cls;
     }
 
     @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        ClassSelector that = (ClassSelector) o;
-        return Objects.equals(cls, that.cls);
+    protected boolean hasSameValue(ASTNode other) {
+        return Objects.equals(cls, ((ClassSelector) other).cls);
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(cls);
+    protected int valueHash() {
+        return Objects.hashCode(cls);
     }
 }
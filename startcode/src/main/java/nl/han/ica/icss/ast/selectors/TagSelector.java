@@ -1,5 +1,7 @@
 package nl.han.ica.icss.ast.selectors;
 
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.ASTVisitor;
 import nl.han.ica.icss.ast.Selector;
 
 import java.util.Objects;
@@ -14,22 +16,22 @@ public class TagSelector extends Selector {
     public String getNodeLabel() {
         return "TagSelector " + tag;
     }
+
+    @Override
+    public <R, C> R accept(ASTVisitor<R, C> visitor, C context) {
+        return visitor.visitTagSelector(this, context);
+    }
     public String toString() {
         return tag;
     }
 
     @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        TagSelector that = (TagSelector) o;
-        return Objects.equals(tag, that.tag);
+    protected boolean hasSameValue(ASTNode other) {
+        return Objects.equals(tag, ((TagSelector) other).tag);
     }
 
     @Override
-    public int hashCode() {
-
-        return Objects.hash(tag);
+    protected int valueHash() {
+        return Objects.hashCode(tag);
     }
 }
@@ -1,14 +1,12 @@
 package nl.han.ica.icss.checker;
 
-import nl.han.ica.datastructures.HANLinkedList;
-import nl.han.ica.datastructures.IHANLinkedList;
+import nl.han.ica.datastructures.HANScopeMap;
+import nl.han.ica.datastructures.IHANScopeMap;
 import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.*;
 import nl.han.ica.icss.ast.types.ExpressionType;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import nl.han.ica.icss.ast.literals.*;
-import nl.han.ica.icss.ast.operations.*;
 
 /**
  * De Checker-klasse is verantwoordelijk voor het uitvoeren van diverse checks op een ICSS Abstract Syntax Tree (AST).
@@ -20,20 +18,31 @@ import nl.han.ica.icss.ast.operations.*;
  * - CH04: Controleer of bij declaraties het type van de value klopt met de property.
  * - CH05: Controleer of de conditie bij een if-statement van het type boolean is.
  * - CH06: Controleer of variabelen enkel binnen hun scope gebruikt worden.
+ * Daarnaast (eigen uitbreiding): bij een deling moet de deler een scalar zijn en geen literal 0.
+ *
+ * Variabelen en properties worden opgezocht met hun symbool uit de {@link SymbolTable} van het AST.
+ * Op het soort node wordt met instanceof gedispatcht, met de meest voorkomende soorten eerst: een lange
+ * expressie is een diepe boom van operaties, en een virtuele aanroep per niveau kan de JIT niet inlinen.
  */
 public class Checker {
-    private final IHANLinkedList<HashMap<String, ExpressionType>> variableTypes;
+    private final IHANScopeMap<ExpressionType> variableTypes;
+    private SymbolTable symbols;
 
     public Checker() {
-        this.variableTypes = new HANLinkedList<>();
+        this.variableTypes = new HANScopeMap<>();
     }
 
     /**
      * Voert de checks uit op de gegeven AST.
      *
+     * Een Checker kan voor meerdere AST's gebruikt worden: elke check begint met lege scopes, ook na een check
+     * die met een exceptie afbrak.
+     *
      * @param ast Het Abstract Syntax Tree-object dat moet worden gecontroleerd.
      */
     public void check(AST ast) {
+        variableTypes.clear();
+        symbols = ast.symbols;
         checkStylesheet(ast.root);
     }
 
@@ -44,15 +53,14 @@ public class Checker {
      */
     private void checkStylesheet(ASTNode astNode) {
         Stylesheet stylesheet = (Stylesheet) astNode;
-        variableTypes.addFirst(new HashMap<>());
+        variableTypes.openScope();
 
-        for (ASTNode child : stylesheet.getChildren()) {
-            if (child instanceof VariableAssignment) {
-                checkVariableAssignment(child);
-            } else if (child instanceof Stylerule) {
-                variableTypes.addFirst(new HashMap<>());
+        for (int i = 0; i < stylesheet.getChildCount(); i++) {
+            ASTNode child = stylesheet.getChild(i);
+            if (child instanceof Stylerule) {
                 checkStylerule(child);
-                variableTypes.removeFirst();
+            } else if (child instanceof VariableAssignment) {
+                checkVariableAssignment(child);
             }
         }
 
@@ -66,7 +74,9 @@ public class Checker {
      */
     private void checkStylerule(ASTNode astNode) {
         Stylerule stylerule = (Stylerule) astNode;
+        variableTypes.openScope();
         checkRuleBody(stylerule.body);
+        variableTypes.closeScope();
     }
 
     /**
@@ -75,7 +85,8 @@ public class Checker {
      * @param astNodes De lijst met declaraties en if-clauses die moeten worden gecontroleerd.
      */
     private void checkRuleBody(ArrayList<ASTNode> astNodes) {
-        for (ASTNode astNode : astNodes) {
+        for (int i = 0; i < astNodes.size(); i++) {
+            ASTNode astNode = astNodes.get(i);
             if (astNode instanceof Declaration) {
                 checkDeclaration(astNode);
             } else if (astNode instanceof IfClause) {
@@ -93,23 +104,22 @@ public class Checker {
      */
     private void checkIfClause(ASTNode astNode) {
         IfClause ifClause = (IfClause) astNode;
-        variableTypes.addFirst(new HashMap<>());
+        variableTypes.openScope();
 
-        Expression conditionalExpression = ifClause.getConditionalExpression();
-        ExpressionType expressionType = checkExpressionType(conditionalExpression);
+        ExpressionType expressionType = checkExpression(ifClause.getConditionalExpression());
 
         if (expressionType != ExpressionType.BOOL) {
-            ifClause.setError("Conditional expression moet een boolean literal type hebben.");
+            ifClause.setError(TypeRules.CONDITION_NOT_BOOLEAN);
         }
 
         checkRuleBody(ifClause.body);
 
-        variableTypes.removeFirst();
+        variableTypes.closeScope();
 
         if (ifClause.getElseClause() != null) {
-            variableTypes.addFirst(new HashMap<>());
+            variableTypes.openScope();
             checkElseClause(ifClause.getElseClause());
-            variableTypes.removeFirst();
+            variableTypes.closeScope();
         }
     }
 
@@ -132,31 +142,7 @@ public class Checker {
         Declaration declaration = (Declaration) astNode;
         ExpressionType expressionType = checkExpression(declaration.expression);
 
-        switch (declaration.property.name) {
-            case "color":
-                if (expressionType != ExpressionType.COLOR) {
-                    astNode.setError("Color waarde kan alleen van type color literal zijn.");
-                }
-                break;
-            case "background-color":
-                if (expressionType != ExpressionType.COLOR) {
-                    astNode.setError("Background-color waarde kan alleen van color literal type zijn.");
-                }
-                break;
-            case "width":
-                if (expressionType != ExpressionType.PIXEL && expressionType != ExpressionType.PERCENTAGE) {
-                    astNode.setError("Width waarde kan alleen van type pixel, of percentage literal zijn.");
-                }
-                break;
-            case "height":
-                if (expressionType != ExpressionType.PIXEL && expressionType != ExpressionType.PERCENTAGE) {
-                    astNode.setError("Height waarde kan alleen van percentage of pixel literal type zijn.");
-                }
-                break;
-            default:
-                astNode.setError("De enige toegestane properties zijn: height, weight, color of background-color.");
-                break;
-        }
+        TypeRules.declaration(symbols.symbol(declaration.property), expressionType, astNode::setError);
     }
 
     /**
@@ -170,89 +156,38 @@ public class Checker {
         ExpressionType expressionType = checkExpression(variableAssignment.expression);
 
         if (expressionType == null || expressionType == ExpressionType.UNDEFINED) {
-            astNode.setError("Variabele assignment lukt niet omdat de expression type undefined is.");
+            astNode.setError(TypeRules.ASSIGNMENT_UNDEFINED);
             return;
         }
 
-        ExpressionType previousExpressionType = getVariableType(variableReference.name);
-        if (variableTypeChanged(expressionType, previousExpressionType)) {
-            astNode.setError("Een variabele kan niet veranderen van type: " + previousExpressionType + " ,naar type: " + expressionType);
+        int symbol = symbols.symbol(variableReference);
+        String typeChange = TypeRules.typeChange(variableTypes.get(symbol), expressionType);
+        if (typeChange != null) {
+            astNode.setError(typeChange);
         }
 
-        putVariableType(variableReference.name, expressionType);
+        variableTypes.put(symbol, expressionType);
     }
 
     /**
      * Voert checks uit op een expressie in de AST, inclusief operaties.
      *
-     * @param astNode De expressie die moet worden gecontroleerd.
-     * @return Het type van de expressie na de controle.
-     */
-    private ExpressionType checkExpression(ASTNode astNode) {
-        Expression expression = (Expression) astNode;
-
-        if (expression instanceof Operation) {
-            return checkOperation((Operation) expression);
-        }
-
-        return checkExpressionType(expression);
-    }
-
-    /**
-     * Voert checks uit op een operation-expressie in de AST.
-     *
-     * @param operation De operation-expressie die moet worden gecontroleerd.
+     * @param expression De expressie die moet worden gecontroleerd; na een syntaxfout kan deze ontbreken.
      * @return Het type van de expressie na de controle.
      */
-    private ExpressionType checkOperation(Operation operation) {
-        ExpressionType left;
-        ExpressionType right;
-
-        if (operation.lhs instanceof Operation) {
-            left = checkOperation((Operation) operation.lhs);
-        } else {
-            left = checkExpressionType(operation.lhs);
-        }
-
-        if (operation.rhs instanceof Operation) {
-            right = checkOperation((Operation) operation.rhs);
-        } else {
-            right = checkExpressionType(operation.rhs);
-        }
-
-
-        if (left == ExpressionType.COLOR || right == ExpressionType.COLOR || left == ExpressionType.BOOL || right == ExpressionType.BOOL) {
-            operation.setError("Booleans en colors zijn niet toegestaan in een operation.");
+    private ExpressionType checkExpression(Expression expression) {
+        if (expression == null) {
             return ExpressionType.UNDEFINED;
         }
-
-        if (operation instanceof MultiplyOperation) {
-            if (left != ExpressionType.SCALAR && right != ExpressionType.SCALAR) {
-                operation.setError("Multiply uitvoeren is alleen toegestaan met minimaal één scalar waarde.");
-                return ExpressionType.UNDEFINED;
-            }
-            return right != ExpressionType.SCALAR ? right : left;
-        } else if ((operation instanceof SubtractOperation || operation instanceof AddOperation) && left != right) {
-            operation.setError("Add en subtract operations mogen alleen uitgevoerd worden met dezelfde type literal.");
-            return ExpressionType.UNDEFINED;
-        }
-
-        return left;
-    }
-
-    /**
-     * Controleert of een expressie van het juiste type is.
-     *
-     * @param expression De expressie die moet worden gecontroleerd.
-     * @return Het type van de expressie na de controle.
-     */
-    private ExpressionType checkExpressionType(Expression expression) {
-        if (expression instanceof VariableReference) {
+        if (expression instanceof Operation) {
+            Operation operation = (Operation) expression;
+            return checkOperation(operation, Operator.of(operation));
+        } else if (expression instanceof VariableReference) {
             return checkVariableReference((VariableReference) expression);
-        } else if (expression instanceof PercentageLiteral) {
-            return ExpressionType.PERCENTAGE;
         } else if (expression instanceof PixelLiteral) {
             return ExpressionType.PIXEL;
+        } else if (expression instanceof PercentageLiteral) {
+            return ExpressionType.PERCENTAGE;
         } else if (expression instanceof ColorLiteral) {
             return ExpressionType.COLOR;
         } else if (expression instanceof ScalarLiteral) {
@@ -264,6 +199,21 @@ public class Checker {
         return ExpressionType.UNDEFINED;
     }
 
+    /**
+     * Voert checks uit op een operation-expressie in de AST.
+     *
+     * @param operation De operation-expressie die moet worden gecontroleerd.
+     * @param operator  De operator van de operatie.
+     * @return Het type van de expressie na de controle.
+     */
+    private ExpressionType checkOperation(Operation operation, Operator operator) {
+        ExpressionType left = checkExpression(operation.lhs);
+        ExpressionType right = checkExpression(operation.rhs);
+
+        boolean zeroDivisor = operation.rhs instanceof ScalarLiteral && ((ScalarLiteral) operation.rhs).value == 0;
+        return TypeRules.operation(operator, left, right, zeroDivisor, operation::setError);
+    }
+
     /**
      * Controleert of een variabele-referentie geldig is.
      *
@@ -271,50 +221,12 @@ public class Checker {
      * @return Het type van de variabele-referentie na de controle.
      */
     private ExpressionType checkVariableReference(VariableReference variableReference) {
-        ExpressionType expressionType = getVariableType(variableReference.name);
+        ExpressionType expressionType = variableTypes.get(symbols.symbol(variableReference));
         if (expressionType == null) {
-            variableReference.setError("Variabele is nog niet gedeclareerd of is niet in dezelfde scope.");
+            variableReference.setError(TypeRules.UNDEFINED_VARIABLE);
             return ExpressionType.UNDEFINED;
         }
 
         return expressionType;
     }
-
-    /**
-     * Slaat het type van een variabele op in de huidige scope.
-     *
-     * @param name De naam van de variabele.
-     * @param type Het type van de variabele.
-     */
-    private void putVariableType(String name, ExpressionType type) {
-        variableTypes.getFirst().put(name, type);
-    }
-
-    /**
-     * Haalt het type van een variabele op.
-     *
-     * @param name De naam van de variabele.
-     * @return Het type van de variabele of null als deze niet is gedefinieerd.
-     */
-    private ExpressionType getVariableType(String name) {
-        for (HashMap<String, ExpressionType> scope : variableTypes) {
-            ExpressionType type = scope.get(name);
-            if (type != null) {
-                return type;
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * Controleert of het type van een variabele is gewijzigd.
-     *
-     * @param currentType Het huidige type van de variabele.
-     * @param previousType Het vorige type van de variabele.
-     * @return true als het type is gewijzigd, anders false.
-     */
-    private boolean variableTypeChanged(ExpressionType currentType, ExpressionType previousType) {
-        return (previousType != null) && currentType != previousType;
-    }
 }
@@ -0,0 +1,36 @@
+package nl.han.ica.icss.checker;
+
+import nl.han.ica.icss.ast.Operation;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+
+/**
+ * De rekenkundige operatoren van ICSS, los van de Operation-nodes, zodat de typeregels ook zonder AST
+ * toegepast kunnen worden.
+ */
+public enum Operator {
+    ADD,
+    SUBTRACT,
+    MULTIPLY,
+    DIVIDE;
+
+    /**
+     * @param operation Een operatie uit het AST.
+     * @return De operator van de operatie.
+     */
+    public static Operator of(Operation operation) {
+        if (operation instanceof AddOperation) {
+            return ADD;
+        } else if (operation instanceof SubtractOperation) {
+            return SUBTRACT;
+        } else if (operation instanceof MultiplyOperation) {
+            return MULTIPLY;
+        } else if (operation instanceof DivideOperation) {
+            return DIVIDE;
+        }
+
+        throw new IllegalArgumentException("Onbekende operatie: " + operation.getNodeLabel());
+    }
+}
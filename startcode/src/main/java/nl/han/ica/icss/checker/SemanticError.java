@@ -1,12 +1,22 @@
 package nl.han.ica.icss.checker;
 
+import nl.han.ica.icss.ast.SourcePosition;
+
 public class SemanticError {
 	public String description;
+	//Where the error is in the source text, packed by SourcePosition
+	public long position;
 
 	public SemanticError(String description) {
+		this(description, SourcePosition.NONE);
+	}
+	public SemanticError(String description, long position) {
 		this.description = description;
+		this.position = position;
 	}
 	public String toString() {
-		return "ERROR: " + description;
+		if (position == SourcePosition.NONE)
+			return "ERROR: " + description;
+		return "ERROR: " + description + " (" + SourcePosition.toString(position) + ")";
 	}
 }
@@ -0,0 +1,107 @@
+package nl.han.ica.icss.checker;
+
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.types.ExpressionType;
+
+import java.util.function.Consumer;
+
+/**
+ * De typeregels van de checks CH01 t/m CH05, los van het AST. De {@link Checker} past ze toe op de nodes van
+ * een AST; de validator van de parser past ze toe terwijl de invoer geparsed wordt, zonder dat er een boom
+ * gebouwd wordt. Fouten gaan naar een Consumer, zodat elke aanroeper zelf bepaalt waar ze terechtkomen.
+ */
+public final class TypeRules {
+    public static final String UNDEFINED_VARIABLE = "Variabele is nog niet gedeclareerd of is niet in dezelfde scope.";
+    public static final String CONDITION_NOT_BOOLEAN = "Conditional expression moet een boolean literal type hebben.";
+    public static final String ASSIGNMENT_UNDEFINED = "Variabele assignment lukt niet omdat de expression type undefined is.";
+
+    private TypeRules() { }
+
+    /**
+     * Bepaalt het type van een operatie en meldt een fout als de operanden niet bij de operator passen.
+     *
+     * @param operator     De operator.
+     * @param left         Het type van de linkeroperand.
+     * @param right        Het type van de rechteroperand.
+     * @param zeroDivisor  true als de rechteroperand de literal 0 is.
+     * @param errors       Ontvangt de foutmelding, als die er is.
+     * @return Het type van het resultaat, of UNDEFINED bij een fout.
+     */
+    public static ExpressionType operation(Operator operator, ExpressionType left, ExpressionType right,
+                                           boolean zeroDivisor, Consumer<String> errors) {
+        if (left == ExpressionType.COLOR || right == ExpressionType.COLOR || left == ExpressionType.BOOL || right == ExpressionType.BOOL) {
+            errors.accept("Booleans en colors zijn niet toegestaan in een operation.");
+            return ExpressionType.UNDEFINED;
+        }
+
+        switch (operator) {
+            case MULTIPLY:
+                if (left != ExpressionType.SCALAR && right != ExpressionType.SCALAR) {
+                    errors.accept("Multiply uitvoeren is alleen toegestaan met minimaal één scalar waarde.");
+                    return ExpressionType.UNDEFINED;
+                }
+                return right != ExpressionType.SCALAR ? right : left;
+            case DIVIDE:
+                if (right != ExpressionType.SCALAR) {
+                    errors.accept("Delen is alleen toegestaan door een scalar waarde.");
+                    return ExpressionType.UNDEFINED;
+                }
+                if (zeroDivisor) {
+                    errors.accept("Delen door nul is niet toegestaan.");
+                    return ExpressionType.UNDEFINED;
+                }
+                return left;
+            default:
+                if (left != right) {
+                    errors.accept("Add en subtract operations mogen alleen uitgevoerd worden met dezelfde type literal.");
+                    return ExpressionType.UNDEFINED;
+                }
+                return left;
+        }
+    }
+
+    /**
+     * Controleert of het type van de waarde bij de property van een declaratie past (CH04).
+     *
+     * @param property Het symbool van de property in de {@link SymbolTable}.
+     * @param type     Het type van de waarde.
+     * @param errors   Ontvangt de foutmelding, als die er is.
+     */
+    public static void declaration(int property, ExpressionType type, Consumer<String> errors) {
+        switch (property) {
+            case SymbolTable.COLOR:
+                if (type != ExpressionType.COLOR) {
+                    errors.accept("Color waarde kan alleen van type color literal zijn.");
+                }
+                break;
+            case SymbolTable.BACKGROUND_COLOR:
+                if (type != ExpressionType.COLOR) {
+                    errors.accept("Background-color waarde kan alleen van color literal type zijn.");
+                }
+                break;
+            case SymbolTable.WIDTH:
+                if (type != ExpressionType.PIXEL && type != ExpressionType.PERCENTAGE) {
+                    errors.accept("Width waarde kan alleen van type pixel, of percentage literal zijn.");
+                }
+                break;
+            case SymbolTable.HEIGHT:
+                if (type != ExpressionType.PIXEL && type != ExpressionType.PERCENTAGE) {
+                    errors.accept("Height waarde kan alleen van percentage of pixel literal type zijn.");
+                }
+                break;
+            default:
+                errors.accept("De enige toegestane properties zijn: height, weight, color of background-color.");
+                break;
+        }
+    }
+
+    /**
+     * @return De foutmelding als een variabele van type zou veranderen, anders null.
+     */
+    public static String typeChange(ExpressionType previousType, ExpressionType currentType) {
+        if (previousType != null && currentType != previousType) {
+            return "Een variabele kan niet veranderen van type: " + previousType + " ,naar type: " + currentType;
+        }
+        return null;
+    }
+}
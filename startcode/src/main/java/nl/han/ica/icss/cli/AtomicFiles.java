@@ -0,0 +1,38 @@
+package nl.han.ica.icss.cli;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Schrijft bestanden zo dat een lezer altijd de oude of de volledige nieuwe inhoud ziet, nooit een half
+ * geschreven bestand: eerst naar een tijdelijk bestand in dezelfde map, daarna een atomaire move.
+ */
+final class AtomicFiles {
+
+    private AtomicFiles() { }
+
+    /**
+     * @param target  Het bestand dat (opnieuw) geschreven wordt; ontbrekende mappen worden aangemaakt.
+     * @param content De nieuwe inhoud.
+     * @throws IOException Als het bestand niet geschreven kan worden.
+     */
+    static void write(Path target, byte[] content) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path temp = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
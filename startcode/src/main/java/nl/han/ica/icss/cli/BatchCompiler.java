@@ -0,0 +1,423 @@
+package nl.han.ica.icss.cli;
+
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.metrics.CompilerMetrics;
+import nl.han.ica.icss.metrics.Stage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Headless compiler die een volledige directory-boom met .icss-bestanden compileert zonder de GUI.
+ * Elk bestand doorloopt parse, check, transform en generate op een eigen worker van een fork-join pool.
+ * Met een {@link BuildCache} worden bestanden waarvan de inhoud sinds de vorige build niet veranderd is
+ * overgeslagen.
+ *
+ * Met --watch blijft de compiler na de eerste build draaien en compileert hij gewijzigde bestanden
+ * opnieuw (zie {@link WatchCompiler}).
+ *
+ * Met --validate worden de bestanden alleen gecontroleerd op fouten, zonder AST en zonder uitvoer
+ * (zie {@link Pipeline#validatePath(Path)}).
+ *
+ * Gebruik: BatchCompiler [-j threads] [--cache bestand] [--watch] [--validate] bronmap [uitvoermap]
+ */
+public class BatchCompiler {
+    static final String SOURCE_EXTENSION = ".icss";
+    static final String TARGET_EXTENSION = ".css";
+
+    private final Path sourceRoot;
+    private final Path targetRoot;
+    private final BuildCache cache;
+    private boolean validateOnly;
+
+    /**
+     * @param sourceRoot De map waarin recursief naar .icss-bestanden gezocht wordt.
+     * @param targetRoot De map waarin de gegenereerde .css-bestanden geschreven worden, of null om niets te schrijven.
+     */
+    public BatchCompiler(Path sourceRoot, Path targetRoot) {
+        this(sourceRoot, targetRoot, null);
+    }
+
+    /**
+     * @param sourceRoot De map waarin recursief naar .icss-bestanden gezocht wordt.
+     * @param targetRoot De map waarin de gegenereerde .css-bestanden geschreven worden, of null om niets te schrijven.
+     * @param cache      De bouwstatus van de vorige build, of null om alles te compileren.
+     */
+    public BatchCompiler(Path sourceRoot, Path targetRoot, BuildCache cache) {
+        this.sourceRoot = sourceRoot;
+        this.targetRoot = targetRoot;
+        this.cache = cache;
+    }
+
+    /**
+     * @param validateOnly true om de bestanden alleen te controleren; de cache en de uitvoermap worden dan
+     *                     niet gebruikt.
+     */
+    public void setValidateOnly(boolean validateOnly) {
+        this.validateOnly = validateOnly;
+    }
+
+    /**
+     * Compileert alle .icss-bestanden onder de bronmap met de gegeven pool. Met een cache wordt de
+     * bouwstatus daarna opgeslagen.
+     *
+     * @param pool De fork-join pool waarop de bestanden gecompileerd worden.
+     * @return Per bestand het resultaat, in dezelfde volgorde als de bestanden in de boom staan.
+     * @throws IOException Als de bronmap niet doorzocht of de cache niet opgeslagen kan worden.
+     */
+    public List<FileResult> compileAll(ForkJoinPool pool) throws IOException {
+        return compile(findSources(), pool);
+    }
+
+    /**
+     * Compileert de gegeven .icss-bestanden met de gegeven pool. Met een cache wordt de bouwstatus daarna
+     * opgeslagen.
+     *
+     * @param sources De te compileren bestanden, die allemaal onder de bronmap moeten liggen.
+     * @param pool    De fork-join pool waarop de bestanden gecompileerd worden.
+     * @return Per bestand het resultaat, in dezelfde volgorde als de bestanden.
+     * @throws IOException Als de cache niet opgeslagen kan worden.
+     */
+    public List<FileResult> compile(List<Path> sources, ForkJoinPool pool) throws IOException {
+        List<FileResult> results = pool.invoke(new CompileTask(this, sources, 0, sources.size()));
+
+        if (cache != null && !validateOnly) {
+            cache.save();
+        }
+        return results;
+    }
+
+    /**
+     * Ruimt de uitvoer en de cache-entry op van een bronbestand dat verwijderd is.
+     *
+     * @param source Het verwijderde .icss-bestand.
+     * @throws IOException Als het .css-bestand niet verwijderd kan worden.
+     */
+    void removeOutput(Path source) throws IOException {
+        if (targetRoot != null) {
+            Files.deleteIfExists(targetFor(source));
+        }
+        if (cache != null) {
+            cache.remove(cacheKey(source));
+        }
+    }
+
+    /**
+     * Zoekt recursief alle .icss-bestanden onder de bronmap.
+     *
+     * @return De gevonden bestanden, gesorteerd op pad.
+     * @throws IOException Als de bronmap niet doorzocht kan worden.
+     */
+    List<Path> findSources() throws IOException {
+        try (Stream<Path> paths = Files.walk(sourceRoot)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(SOURCE_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Compileert één bestand door alle fases van de Pipeline heen en schrijft eventueel de CSS weg.
+     *
+     * @param source Het .icss-bestand dat gecompileerd moet worden.
+     * @return Het resultaat met de eventuele fouten en de benodigde tijd.
+     */
+    FileResult compileFile(Path source) {
+        if (validateOnly) {
+            return validateFile(source);
+        }
+        if (cache != null) {
+            return compileCached(source);
+        }
+
+        long start = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        long bytes = 0;
+
+        try {
+            bytes = Files.size(source);
+
+            Pipeline pipeline = new Pipeline();
+            pipeline.parsePath(source);
+            if (pipeline.isParsed() && pipeline.check()) {
+                pipeline.transform();
+                if (pipeline.isTransformed()) {
+                    writeOutput(source, pipeline.generate());
+                }
+            }
+            errors.addAll(pipeline.getErrors());
+        } catch (IOException e) {
+            errors.add("I/O error: " + e.getMessage());
+        }
+
+        return new FileResult(source, errors, bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Controleert één bestand op syntax- en semantische fouten zonder er een AST van te bouwen.
+     *
+     * @param source Het .icss-bestand dat gecontroleerd moet worden.
+     * @return Het resultaat met de eventuele fouten en de benodigde tijd.
+     */
+    private FileResult validateFile(Path source) {
+        long start = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        long bytes = 0;
+
+        try {
+            bytes = Files.size(source);
+
+            Pipeline pipeline = new Pipeline();
+            pipeline.validatePath(source);
+            errors.addAll(pipeline.getErrors());
+        } catch (IOException e) {
+            errors.add("I/O error: " + e.getMessage());
+        }
+
+        return new FileResult(source, errors, bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Compileert één bestand alleen als de inhoud niet in de cache staat. De hash wordt via een vaste buffer
+     * berekend en bij een cache miss wordt het bestand net als zonder cache via {@link Pipeline#parsePath}
+     * geparsed, zodat geen enkel bestand in zijn geheel op de heap komt. Een bestand dat tijdens het
+     * compileren van grootte of wijzigingstijd verandert wordt niet gecachet, want dan hoort de hash
+     * misschien niet bij de gecompileerde tekst.
+     *
+     * @param source Het .icss-bestand dat gecompileerd moet worden.
+     * @return Het resultaat met de eventuele fouten en de benodigde tijd.
+     */
+    private FileResult compileCached(Path source) {
+        long start = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        long bytes = 0;
+        boolean upToDate = false;
+
+        try {
+            BasicFileAttributes before = Files.readAttributes(source, BasicFileAttributes.class);
+            bytes = before.size();
+            byte[] contentHash = CompilerVersion.hash(source);
+            String key = cacheKey(source);
+
+            String css = cache.lookup(key, contentHash);
+            if (css != null) {
+                upToDate = true;
+                //Uitvoer die verdwenen of gewijzigd is wordt opnieuw geschreven uit de cache
+                if (targetRoot != null && !isOutputCurrent(key, source)) {
+                    writeOutput(source, css);
+                    storeCached(key, contentHash, css, source);
+                }
+            } else {
+                Pipeline pipeline = new Pipeline();
+                pipeline.parsePath(source);
+                if (pipeline.isParsed() && pipeline.check()) {
+                    pipeline.transform();
+                    if (pipeline.isTransformed()) {
+                        css = pipeline.generate();
+                        writeOutput(source, css);
+                        if (isUnchanged(source, before)) {
+                            storeCached(key, contentHash, css, source);
+                        }
+                    }
+                }
+                errors.addAll(pipeline.getErrors());
+            }
+        } catch (IOException e) {
+            errors.add("I/O error: " + e.getMessage());
+        }
+
+        return new FileResult(source, errors, bytes, System.nanoTime() - start, upToDate);
+    }
+
+    /**
+     * @return true als het bestand nog dezelfde grootte en wijzigingstijd heeft als in de attributen.
+     */
+    private static boolean isUnchanged(Path source, BasicFileAttributes before) throws IOException {
+        BasicFileAttributes after = Files.readAttributes(source, BasicFileAttributes.class);
+        return after.size() == before.size() && after.lastModifiedTime().equals(before.lastModifiedTime());
+    }
+
+    /**
+     * @return true als het .css-bestand van de bron nog precies is wat er volgens de cache geschreven is.
+     */
+    private boolean isOutputCurrent(String key, Path source) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(targetFor(source), BasicFileAttributes.class);
+            return cache.isOutputCurrent(key, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Legt de CSS van de bron vast in de cache, met de grootte en wijzigingstijd van het geschreven .css-bestand.
+     */
+    private void storeCached(String key, byte[] contentHash, String css, Path source) throws IOException {
+        if (targetRoot == null) {
+            cache.store(key, contentHash, css);
+            return;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(targetFor(source), BasicFileAttributes.class);
+        cache.store(key, contentHash, css, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * @param source Het .icss-bestand.
+     * @return Het pad ten opzichte van de bronmap, met / als scheidingsteken op elk platform.
+     */
+    private String cacheKey(Path source) {
+        return sourceRoot.relativize(source).toString().replace(source.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * Schrijft de gegenereerde CSS naar de uitvoermap, met dezelfde relatieve structuur als de bronmap.
+     * Het bestand wordt atomair vervangen, zodat bijvoorbeeld een dev server nooit een half bestand leest.
+     *
+     * @param source Het bronbestand waarvoor de CSS gegenereerd is.
+     * @param css    De gegenereerde CSS.
+     * @throws IOException Als het bestand niet geschreven kan worden.
+     */
+    private void writeOutput(Path source, String css) throws IOException {
+        if (targetRoot == null) {
+            return;
+        }
+
+        AtomicFiles.write(targetFor(source), css.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Bepaalt het uitvoerpad van een bronbestand.
+     *
+     * @param source Het .icss-bestand.
+     * @return Het bijbehorende .css-bestand in de uitvoermap.
+     */
+    Path targetFor(Path source) {
+        String fileName = source.getFileName().toString();
+        String cssName = fileName.substring(0, fileName.length() - SOURCE_EXTENSION.length()) + TARGET_EXTENSION;
+        Path relative = sourceRoot.relativize(source).resolveSibling(cssName);
+
+        return targetRoot.resolve(relative);
+    }
+
+    /**
+     * @param value De waarde van -j.
+     * @return Het aantal threads, of 0 als de waarde geen getal is.
+     */
+    static int parseParallelism(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: BatchCompiler [-j threads] [--cache file] [--watch] [--validate] <source dir> [target dir]");
+        System.exit(2);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        List<String> paths = new ArrayList<>();
+
+        Path cacheFile = null;
+        boolean watch = false;
+        boolean validateOnly = false;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-j") && i + 1 < args.length) {
+                parallelism = parseParallelism(args[++i]);
+                if (parallelism < 1) {
+                    System.err.println("-j verwacht een positief aantal threads, niet " + args[i]);
+                    usage();
+                }
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheFile = Paths.get(args[++i]);
+            } else if (args[i].equals("--watch")) {
+                watch = true;
+            } else if (args[i].equals("--validate")) {
+                validateOnly = true;
+            } else {
+                paths.add(args[i]);
+            }
+        }
+        if (paths.isEmpty() || paths.size() > 2) {
+            usage();
+        }
+
+        Path sourceRoot = Paths.get(paths.get(0));
+        Path targetRoot = paths.size() == 2 ? Paths.get(paths.get(1)) : null;
+        BuildCache cache = cacheFile != null ? BuildCache.load(cacheFile) : null;
+        BatchCompiler compiler = new BatchCompiler(sourceRoot, targetRoot, cache);
+        compiler.setValidateOnly(validateOnly);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            List<FileResult> results = compiler.compileAll(pool);
+            boolean succeeded = report(results, System.nanoTime() - start);
+
+            if (watch) {
+                try (WatchCompiler watcher = new WatchCompiler(compiler, sourceRoot, WatchCompiler.DEFAULT_DEBOUNCE_MILLIS)) {
+                    watcher.watch(pool);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            System.exit(succeeded ? 0 : 1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Print de fouten per bestand en de totale doorvoer.
+     *
+     * @param results De resultaten van alle bestanden.
+     * @param elapsed De totale wandkloktijd in nanoseconden.
+     * @return true als alle bestanden zonder fouten gecompileerd zijn.
+     */
+    static boolean report(List<FileResult> results, long elapsed) {
+        long failed = 0;
+        long upToDate = 0;
+        long bytes = 0;
+
+        for (FileResult result : results) {
+            bytes += result.getBytes();
+            if (result.isUpToDate()) {
+                upToDate++;
+            }
+            if (!result.isSucceeded()) {
+                failed++;
+                for (String error : result.getErrors()) {
+                    System.err.println(result.getSource() + ": " + error);
+                }
+            }
+        }
+
+        double seconds = Math.max(elapsed, 1) / 1_000_000_000.0;
+        System.out.printf("Compiled %d files (%d failed, %d up to date) in %.1f ms: %.1f files/s, %.1f KB/s%n",
+                results.size(), failed, upToDate, elapsed / 1_000_000.0,
+                results.size() / seconds, bytes / 1024.0 / seconds);
+
+        if (Boolean.getBoolean(Pipeline.METRICS_PROPERTY)) {
+            for (Stage stage : Stage.values()) {
+                System.out.println(stage + ": " + CompilerMetrics.global().get(stage));
+            }
+        }
+
+        return failed == 0;
+    }
+}
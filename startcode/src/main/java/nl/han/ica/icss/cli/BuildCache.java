@@ -0,0 +1,210 @@
+package nl.han.ica.icss.cli;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * De bouwstatus van de BatchCompiler op schijf. Per .icss-bestand wordt de SHA-256 hash van de inhoud en
+ * de gegenereerde CSS bewaard, samen met de hash van de compiler die de CSS gemaakt heeft. Een bestand
+ * waarvan de inhoud niet veranderd is hoeft bij een volgende build niet opnieuw door de Pipeline.
+ *
+ * Van het geschreven .css-bestand worden de grootte en de wijzigingstijd bewaard. Zo ziet de BatchCompiler
+ * dat uitvoer met de hand gewijzigd of door iets anders overschreven is en schrijft hij deze opnieuw.
+ *
+ * De cache is alleen geldig voor precies dezelfde compiler: bij een andere compilerversie wordt de hele
+ * cache genegeerd. Alleen bestanden die zonder fouten gecompileerd zijn worden bewaard, zodat fouten bij
+ * elke build opnieuw gemeld worden. Bij het opslaan vallen bestanden die niet meer bestaan weg.
+ */
+public class BuildCache {
+    private static final int MAGIC = 0x49435343;
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path file;
+    private final String compilerHash;
+
+    // De entries uit het cachebestand; wordt na het laden niet meer gewijzigd
+    private final Map<String, Entry> previous;
+
+    // De entries van de huidige build, die bij save() weggeschreven worden
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private BuildCache(Path file, String compilerHash, Map<String, Entry> previous) {
+        this.file = file;
+        this.compilerHash = compilerHash;
+        this.previous = previous;
+    }
+
+    /**
+     * Laadt de cache voor de huidige compiler. Een ontbrekend, beschadigd of door een andere compiler
+     * geschreven cachebestand levert een lege cache op.
+     *
+     * @param file Het cachebestand.
+     * @return De geladen cache.
+     * @throws IOException Als het cachebestand bestaat maar niet gelezen kan worden.
+     */
+    public static BuildCache load(Path file) throws IOException {
+        return load(file, CompilerVersion.hash());
+    }
+
+    static BuildCache load(Path file, String compilerHash) throws IOException {
+        Map<String, Entry> entries;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            entries = read(input, compilerHash);
+        } catch (NoSuchFileException e) {
+            entries = Collections.emptyMap();
+        }
+
+        return new BuildCache(file, compilerHash, entries);
+    }
+
+    private static Map<String, Entry> read(DataInputStream input, String compilerHash) throws IOException {
+        try {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || !input.readUTF().equals(compilerHash)) {
+                return Collections.emptyMap();
+            }
+
+            int count = input.readInt();
+            Map<String, Entry> entries = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = input.readUTF();
+                byte[] contentHash = readBytes(input);
+                String css = new String(readBytes(input), StandardCharsets.UTF_8);
+                long outputSize = input.readLong();
+                long outputModified = input.readLong();
+                entries.put(key, new Entry(contentHash, css, outputSize, outputModified));
+            }
+            return entries;
+        } catch (EOFException | UTFDataFormatException e) {
+            //Een afgebroken of beschadigd bestand: alles opnieuw compileren
+            return Collections.emptyMap();
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new EOFException();
+        }
+        return input.readNBytes(length);
+    }
+
+    /**
+     * Zoekt de CSS van een bestand met precies deze inhoud op. Een gevonden entry blijft bij save() bewaard.
+     *
+     * @param key         Het pad van het bestand ten opzichte van de bronmap.
+     * @param contentHash De SHA-256 hash van de huidige inhoud van het bestand.
+     * @return De eerder gegenereerde CSS, of null als het bestand (opnieuw) gecompileerd moet worden.
+     */
+    public String lookup(String key, byte[] contentHash) {
+        Entry entry = previous.get(key);
+        if (entry == null || !Arrays.equals(entry.contentHash, contentHash)) {
+            return null;
+        }
+
+        current.put(key, entry);
+        return entry.css;
+    }
+
+    /**
+     * Controleert of het .css-bestand van een gevonden bestand nog is wat er bij het opslaan geschreven is.
+     *
+     * @param key      Het pad van het bestand ten opzichte van de bronmap.
+     * @param size     De huidige grootte van het .css-bestand.
+     * @param modified De huidige wijzigingstijd van het .css-bestand in milliseconden.
+     * @return false als het bestand niet in de cache staat, zonder uitvoer opgeslagen is of gewijzigd is.
+     */
+    public boolean isOutputCurrent(String key, long size, long modified) {
+        Entry entry = current.get(key);
+        return entry != null && entry.outputSize == size && entry.outputModified == modified;
+    }
+
+    /**
+     * Legt de gegenereerde CSS van een foutloos gecompileerd bestand vast, zonder geschreven uitvoer.
+     *
+     * @param key         Het pad van het bestand ten opzichte van de bronmap.
+     * @param contentHash De SHA-256 hash van de gecompileerde inhoud.
+     * @param css         De gegenereerde CSS.
+     */
+    public void store(String key, byte[] contentHash, String css) {
+        store(key, contentHash, css, -1, -1);
+    }
+
+    /**
+     * Legt de gegenereerde CSS van een foutloos gecompileerd bestand vast, met het .css-bestand waarin deze
+     * geschreven is.
+     *
+     * @param key            Het pad van het bestand ten opzichte van de bronmap.
+     * @param contentHash    De SHA-256 hash van de gecompileerde inhoud.
+     * @param css            De gegenereerde CSS.
+     * @param outputSize     De grootte van het geschreven .css-bestand.
+     * @param outputModified De wijzigingstijd van het geschreven .css-bestand in milliseconden.
+     */
+    public void store(String key, byte[] contentHash, String css, long outputSize, long outputModified) {
+        current.put(key, new Entry(contentHash.clone(), css, outputSize, outputModified));
+    }
+
+    /**
+     * Vergeet een bestand, bijvoorbeeld omdat het verwijderd is.
+     *
+     * @param key Het pad van het bestand ten opzichte van de bronmap.
+     */
+    public void remove(String key) {
+        current.remove(key);
+    }
+
+    /**
+     * Schrijft de entries van de huidige build atomair naar het cachebestand.
+     *
+     * @throws IOException Als het cachebestand niet geschreven kan worden.
+     */
+    public void save() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(compilerHash);
+
+            //Gesorteerd, zodat dezelfde build altijd hetzelfde bestand oplevert
+            Map<String, Entry> entries = new TreeMap<>(current);
+            output.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                output.writeUTF(entry.getKey());
+                writeBytes(output, entry.getValue().contentHash);
+                writeBytes(output, entry.getValue().css.getBytes(StandardCharsets.UTF_8));
+                output.writeLong(entry.getValue().outputSize);
+                output.writeLong(entry.getValue().outputModified);
+            }
+        }
+
+        AtomicFiles.write(file, bytes.toByteArray());
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static class Entry {
+        final byte[] contentHash;
+        final String css;
+        //-1 als er geen uitvoer geschreven is
+        final long outputSize;
+        final long outputModified;
+
+        Entry(byte[] contentHash, String css, long outputSize, long outputModified) {
+            this.contentHash = contentHash;
+            this.css = css;
+            this.outputSize = outputSize;
+            this.outputModified = outputModified;
+        }
+    }
+}
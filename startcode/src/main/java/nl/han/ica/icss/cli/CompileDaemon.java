@@ -0,0 +1,187 @@
+package nl.han.ica.icss.cli;
+
+import nl.han.ica.icss.CompilationResult;
+import nl.han.ica.icss.IcssCompiler;
+import nl.han.ica.icss.parser.ParserWarmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Een compiler die in het geheugen blijft en compileeropdrachten als JSON-regels van stdin leest. Zo
+ * betalen build tools het laden van de classes, het deserialiseren van de Antlr ATN en het opwarmen van
+ * de JIT maar één keer, in plaats van bij elke start van een JVM.
+ *
+ * Elke regel is één opdracht met een "id" (wordt ongewijzigd teruggegeven) en ofwel "source" met de
+ * ICSS-tekst, ofwel "path" met het te compileren bestand. Met "target" wordt de CSS naar dat bestand
+ * geschreven in plaats van in het antwoord meegestuurd:
+ *
+ * <pre>
+ * {"id": 1, "source": "p { width: 10px; }"}
+ * {"id": 2, "path": "theme/main.icss", "target": "build/main.css"}
+ * </pre>
+ *
+ * Opdrachten worden tegelijk op een pool van workers uitgevoerd; elk antwoord is één JSON-regel op stdout,
+ * in de volgorde waarin de opdrachten klaar zijn:
+ *
+ * <pre>
+ * {"id":1,"ok":true,"errors":[],"css":"p {\n  width: 10px;\n}\n"}
+ * </pre>
+ *
+ * Er wachten hooguit een paar opdrachten per worker; staan er meer klaar, dan compileert de thread die stdin
+ * leest zelf een opdracht, zodat een snelle client niet onbeperkt opdrachten in het geheugen kan zetten.
+ *
+ * De daemon stopt als stdin gesloten wordt, nadat alle lopende opdrachten beantwoord zijn.
+ *
+ * Gebruik: CompileDaemon [-j threads]
+ */
+public class CompileDaemon {
+    private static final int QUEUED_PER_WORKER = 4;
+
+    private final IcssCompiler compiler = new IcssCompiler();
+    private final PrintWriter output;
+    private final int parallelism;
+
+    /**
+     * @param output      Waar de antwoorden naartoe geschreven worden.
+     * @param parallelism Het aantal opdrachten dat tegelijk gecompileerd mag worden.
+     */
+    public CompileDaemon(PrintWriter output, int parallelism) {
+        this.output = output;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Verwerkt opdrachten totdat de invoer op is en wacht daarna tot alle antwoorden geschreven zijn.
+     *
+     * @param input De opdrachten, één JSON-object per regel; lege regels worden overgeslagen.
+     * @throws IOException          Als de invoer niet gelezen kan worden.
+     * @throws InterruptedException Als het wachten op de lopende opdrachten onderbroken wordt.
+     */
+    public void run(BufferedReader input) throws IOException, InterruptedException {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * QUEUED_PER_WORKER), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (!line.isBlank()) {
+                    String request = line;
+                    workers.execute(() -> respond(handle(request)));
+                }
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Voert één opdracht uit.
+     *
+     * @param line De opdracht als JSON.
+     * @return Het antwoord als JSON op één regel.
+     */
+    String handle(String line) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", null);
+
+        try {
+            Object request = Json.parse(line);
+            if (!(request instanceof Map)) {
+                return failure(response, "Invalid request: expected a JSON object");
+            }
+            Map<?, ?> fields = (Map<?, ?>) request;
+            response.put("id", fields.get("id"));
+
+            Object source = fields.get("source");
+            Object path = fields.get("path");
+            Object target = fields.get("target");
+            if ((source == null) == (path == null)) {
+                return failure(response, "Invalid request: expected either \"source\" or \"path\"");
+            }
+            if ((source != null && !(source instanceof String)) || (path != null && !(path instanceof String))
+                    || (target != null && !(target instanceof String))) {
+                return failure(response, "Invalid request: \"source\", \"path\" and \"target\" must be strings");
+            }
+
+            CompilationResult result = source != null
+                    ? compiler.compile((String) source)
+                    : compiler.compile(Paths.get((String) path));
+
+            response.put("ok", result.isSucceeded());
+            response.put("errors", result.getDiagnostics());
+            if (result.isSucceeded()) {
+                if (target != null) {
+                    Path targetPath = Paths.get((String) target);
+                    AtomicFiles.write(targetPath, result.getCss().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    response.put("css", result.getCss());
+                }
+            }
+            return Json.write(response);
+
+        } catch (IllegalArgumentException e) {
+            return failure(response, "Invalid request: " + e.getMessage());
+        } catch (IOException e) {
+            return failure(response, "I/O error: " + e.getMessage());
+        } catch (RuntimeException e) {
+            //Eén kapotte opdracht mag de daemon niet stoppen
+            return failure(response, "Internal error: " + e);
+        } catch (StackOverflowError e) {
+            //De parser, checker en evaluator zijn recursief, dus een heel diep geneste bron kan de stack opmaken
+            return failure(response, "Internal error: the source is nested too deeply");
+        }
+    }
+
+    private static String failure(Map<String, Object> response, String error) {
+        response.put("ok", false);
+        response.put("errors", Collections.singletonList(error));
+        response.remove("css");
+        return Json.write(response);
+    }
+
+    private void respond(String response) {
+        synchronized (output) {
+            output.println(response);
+            output.flush();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: CompileDaemon [-j threads]");
+        System.exit(2);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        if (args.length == 2 && args[0].equals("-j")) {
+            parallelism = BatchCompiler.parseParallelism(args[1]);
+            if (parallelism < 1) {
+                System.err.println("-j verwacht een positief aantal threads, niet " + args[1]);
+                usage();
+            }
+        } else if (args.length != 0) {
+            usage();
+        }
+
+        //Een daemon start één keer, dus de eerste opdracht hoeft niet op een koude parser te wachten
+        ParserWarmup.warmUp();
+
+        PrintWriter output = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        new CompileDaemon(output, parallelism).run(input);
+    }
+}
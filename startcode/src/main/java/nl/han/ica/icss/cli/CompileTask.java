@@ -0,0 +1,48 @@
+package nl.han.ica.icss.cli;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join taak die een reeks bronbestanden blijft splitsen totdat elk bestand op een eigen worker
+ * gecompileerd wordt. De resultaten worden in de oorspronkelijke volgorde samengevoegd.
+ */
+class CompileTask extends RecursiveTask<List<FileResult>> {
+    private static final long serialVersionUID = 1L;
+
+    private final BatchCompiler compiler;
+    private final List<Path> sources;
+    private final int from;
+    private final int to;
+
+    CompileTask(BatchCompiler compiler, List<Path> sources, int from, int to) {
+        this.compiler = compiler;
+        this.sources = sources;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected List<FileResult> compute() {
+        if (to - from == 0) {
+            return Collections.emptyList();
+        }
+        if (to - from == 1) {
+            return Collections.singletonList(compiler.compileFile(sources.get(from)));
+        }
+
+        int middle = (from + to) >>> 1;
+        CompileTask left = new CompileTask(compiler, sources, from, middle);
+        CompileTask right = new CompileTask(compiler, sources, middle, to);
+        left.fork();
+
+        List<FileResult> rightResults = right.compute();
+        List<FileResult> results = new ArrayList<>(left.join());
+        results.addAll(rightResults);
+
+        return results;
+    }
+}
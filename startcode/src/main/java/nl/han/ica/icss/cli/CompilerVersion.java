@@ -0,0 +1,131 @@
+package nl.han.ica.icss.cli;
+
+import nl.han.ica.icss.Pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Bepaalt een hash van de compiler zelf: van zijn eigen classes in de jar waaruit hij geladen is, of van
+ * alle bestanden in de classes-map als hij niet uit een jar komt. Elke wijziging aan de compiler levert zo
+ * een andere hash op, waardoor eerder gecachte resultaten ongeldig worden.
+ *
+ * Van een jar worden alleen de naam, grootte en CRC uit de centrale directory van de entries onder
+ * {@value #OWN_CLASSES} gehasht. Zo hoeft de jar niet gelezen te worden, ook niet de meegeleverde
+ * dependencies van een jar-with-dependencies.
+ */
+final class CompilerVersion {
+    private static final String OWN_CLASSES = "nl/han/ica/icss/";
+
+    private CompilerVersion() { }
+
+    /**
+     * @return De hexadecimale SHA-256 hash van de compiler; wordt per JVM één keer berekend.
+     */
+    static String hash() {
+        return Holder.HASH;
+    }
+
+    /**
+     * @return De SHA-256 hash van de bytes.
+     */
+    static byte[] hash(byte[] bytes) {
+        return sha256().digest(bytes);
+    }
+
+    /**
+     * @return De SHA-256 hash van de inhoud van het bestand, gelezen via een vaste buffer.
+     */
+    static byte[] hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String compute() throws IOException, URISyntaxException {
+        Path location = Paths.get(Pipeline.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        if (Files.isRegularFile(location)) {
+            return toHex(hashJar(location));
+        }
+
+        MessageDigest digest = sha256();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(location)) {
+            files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update(hash(file));
+        }
+        return toHex(digest.digest());
+    }
+
+    private static byte[] hashJar(Path jar) throws IOException {
+        List<ZipEntry> entries;
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            entries = zip.stream()
+                    .filter(entry -> entry.getName().startsWith(OWN_CLASSES))
+                    .sorted(Comparator.comparing(ZipEntry::getName))
+                    .collect(Collectors.toList());
+        }
+
+        MessageDigest digest = sha256();
+        ByteBuffer sizes = ByteBuffer.allocate(2 * Long.BYTES);
+        for (ZipEntry entry : entries) {
+            digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+            sizes.clear();
+            sizes.putLong(entry.getSize()).putLong(entry.getCrc()).flip();
+            digest.update(sizes);
+        }
+        return digest.digest();
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return builder.toString();
+    }
+
+    private static class Holder {
+        static final String HASH = computeOrFail();
+
+        private static String computeOrFail() {
+            try {
+                return compute();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package nl.han.ica.icss.cli;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Het resultaat van het compileren van één .icss-bestand door de BatchCompiler.
+ */
+public class FileResult {
+    private final Path source;
+    private final List<String> errors;
+    private final long bytes;
+    private final long nanos;
+    private final boolean upToDate;
+
+    public FileResult(Path source, List<String> errors, long bytes, long nanos) {
+        this(source, errors, bytes, nanos, false);
+    }
+
+    public FileResult(Path source, List<String> errors, long bytes, long nanos, boolean upToDate) {
+        this.source = source;
+        this.errors = Collections.unmodifiableList(errors);
+        this.bytes = bytes;
+        this.nanos = nanos;
+        this.upToDate = upToDate;
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public boolean isSucceeded() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * @return true als de CSS uit de BuildCache kwam en het bestand niet door de Pipeline is gegaan.
+     */
+    public boolean isUpToDate() {
+        return upToDate;
+    }
+
+    /**
+     * @return Het aantal bytes van het bronbestand.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return De tijd in nanoseconden die parse, check, transform en generate samen kostten.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
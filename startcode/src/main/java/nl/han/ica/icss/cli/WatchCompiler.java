@@ -0,0 +1,183 @@
+package nl.han.ica.icss.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Houdt een bronmap in de gaten met een WatchService en compileert alleen de .icss-bestanden die
+ * gewijzigd zijn. Een editor levert bij het opslaan vaak meerdere events achter elkaar op; die worden
+ * samengevoegd totdat het een debounce-venster lang stil is gebleven, en pas dan wordt er gecompileerd.
+ * Van verwijderde bestanden wordt de uitvoer opgeruimd. Bij een verwijderde map meldt de WatchService alleen
+ * de map, dus de watcher onthoudt welke bronbestanden er zijn om ook de uitvoer van de bestanden in de map op te
+ * ruimen.
+ */
+public class WatchCompiler implements Closeable {
+    static final long DEFAULT_DEBOUNCE_MILLIS = 100;
+
+    private final BatchCompiler compiler;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    //De bronbestanden die bij de laatste compilatie bestonden
+    private final Set<Path> knownSources = new TreeSet<>();
+
+    /**
+     * @param compiler       De compiler waarmee gewijzigde bestanden gecompileerd worden.
+     * @param sourceRoot     De bronmap van de compiler; alle submappen worden ook in de gaten gehouden.
+     * @param debounceMillis Hoe lang het stil moet blijven voordat er gecompileerd wordt.
+     * @throws IOException Als de mappen niet geregistreerd kunnen worden.
+     */
+    public WatchCompiler(BatchCompiler compiler, Path sourceRoot, long debounceMillis) throws IOException {
+        this.compiler = compiler;
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        register(sourceRoot);
+        knownSources.addAll(compiler.findSources());
+    }
+
+    /**
+     * Compileert gewijzigde bestanden totdat de watcher gesloten wordt.
+     *
+     * @param pool De fork-join pool waarop de bestanden gecompileerd worden.
+     * @throws IOException          Als een nieuwe map niet geregistreerd kan worden.
+     * @throws InterruptedException Als de thread onderbroken wordt tijdens het wachten.
+     */
+    public void watch(ForkJoinPool pool) throws IOException, InterruptedException {
+        try {
+            while (true) {
+                Set<Path> changed = awaitChanges();
+                long start = System.nanoTime();
+                List<FileResult> results = recompile(changed, pool);
+                if (!results.isEmpty()) {
+                    BatchCompiler.report(results, System.nanoTime() - start);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            //Gesloten met close(): klaar
+        }
+    }
+
+    /**
+     * Wacht op het eerste event en verzamelt daarna events totdat het een debounce-venster lang stil is.
+     *
+     * @return De gewijzigde, aangemaakte of verwijderde bestanden, gesorteerd op pad.
+     */
+    private Set<Path> awaitChanges() throws IOException, InterruptedException {
+        Set<Path> changed = new TreeSet<>();
+
+        WatchKey key = watchService.take();
+        while (key != null) {
+            collect(key, changed);
+            key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+        }
+
+        return changed;
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) throws IOException {
+        Path directory = directories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                //Er zijn events verloren gegaan: alles opnieuw compileren is de enige veilige keuze
+                changed.addAll(compiler.findSources());
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                //Een nieuwe map kan al bestanden bevatten voordat hij geregistreerd is
+                register(path);
+                try (Stream<Path> paths = Files.walk(path)) {
+                    changed.addAll(paths.filter(this::isSource).collect(Collectors.toList()));
+                }
+            } else if (path.getFileName().toString().endsWith(BatchCompiler.SOURCE_EXTENSION)
+                    || event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                //Een verwijderde map kan bronbestanden bevatten
+                changed.add(path);
+            }
+        }
+
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    /**
+     * Compileert de bestaande bestanden opnieuw en ruimt de uitvoer van verwijderde bestanden op, ook van de
+     * bestanden in verwijderde mappen.
+     *
+     * @param changed De gewijzigde bestanden en verwijderde mappen.
+     * @param pool    De fork-join pool waarop de bestanden gecompileerd worden.
+     * @return Het resultaat per opnieuw gecompileerd bestand.
+     * @throws IOException Als uitvoer niet opgeruimd of de cache niet opgeslagen kan worden.
+     */
+    List<FileResult> recompile(Set<Path> changed, ForkJoinPool pool) throws IOException {
+        List<Path> sources = new ArrayList<>();
+        Set<Path> removed = new TreeSet<>();
+        for (Path path : changed) {
+            if (isSource(path)) {
+                sources.add(path);
+            } else if (Files.notExists(path)) {
+                if (path.getFileName().toString().endsWith(BatchCompiler.SOURCE_EXTENSION)) {
+                    removed.add(path);
+                }
+                //Een pad begint met zichzelf, dus dit vindt zowel een verwijderd bestand als de bestanden in een map
+                for (Path source : knownSources) {
+                    if (source.startsWith(path)) {
+                        removed.add(source);
+                    }
+                }
+            }
+        }
+
+        for (Path source : removed) {
+            compiler.removeOutput(source);
+            knownSources.remove(source);
+        }
+        knownSources.addAll(sources);
+
+        return compiler.compile(sources, pool);
+    }
+
+    private boolean isSource(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().endsWith(BatchCompiler.SOURCE_EXTENSION);
+    }
+
+    private void register(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path directory : paths.filter(Files::isDirectory).collect(Collectors.toList())) {
+                WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                directories.put(key, directory);
+            }
+        }
+    }
+
+    /**
+     * Stopt de watcher; een lopende {@link #watch(ForkJoinPool)} keert daarna terug.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
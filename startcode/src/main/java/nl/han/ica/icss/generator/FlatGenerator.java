@@ -0,0 +1,237 @@
+package nl.han.ica.icss.generator;
+
+import nl.han.ica.datastructures.HANScopeMap;
+import nl.han.ica.datastructures.IHANScopeMap;
+import nl.han.ica.icss.ast.flat.FlatAST;
+import nl.han.ica.icss.ast.flat.NodeKind;
+import nl.han.ica.icss.checker.SemanticError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evalueert en genereert een {@link FlatAST} in één doorgang over de arrays, zonder de boom te herschrijven.
+ * De uitvoer en de fouten zijn gelijk aan die van de Evaluator gevolgd door de {@link Generator} op het
+ * object-AST van dezelfde tekst.
+ *
+ * Een geëvalueerde waarde is een long met het soort literal in de bovenste 32 bits en de waarde in de onderste,
+ * zodat het rekenen geen objecten maakt. Controleer de tekst eerst, bijvoorbeeld met de StylesheetValidator;
+ * net als de Evaluator gaat deze klasse uit van een foutloze stylesheet.
+ */
+public class FlatGenerator {
+
+    private static final long NO_VALUE = -1L;
+
+    private final StringBuilder stringBuilder = new StringBuilder();
+    private final IHANScopeMap<Long> variableValues = new HANScopeMap<>();
+    private final List<SemanticError> errors = new ArrayList<>();
+    private FlatAST ast;
+
+    /**
+     * @return De fouten die pas tijdens het evalueren te zien zijn, zoals delen door nul.
+     */
+    public List<SemanticError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Genereert de CSS van de platte boom.
+     *
+     * @param ast De boom om CSS uit te genereren.
+     * @return De gegenereerde CSS als een tekstreeks.
+     */
+    public String generate(FlatAST ast) {
+        this.ast = ast;
+        stringBuilder.setLength(0);
+        errors.clear();
+        variableValues.clear();
+
+        if (ast.root() != FlatAST.NONE) {
+            generateStylesheet(ast.root());
+        }
+        return stringBuilder.toString();
+    }
+
+    private void generateStylesheet(int stylesheet) {
+        variableValues.openScope();
+        for (int child = ast.firstChild(stylesheet); child != FlatAST.NONE; child = ast.nextSibling(child)) {
+            NodeKind kind = ast.kind(child);
+            if (kind == NodeKind.VARIABLE_ASSIGNMENT) {
+                evaluateVariableAssignment(child);
+            } else if (kind == NodeKind.STYLERULE) {
+                generateStylerule(child);
+            }
+        }
+        variableValues.closeScope();
+
+        // Verwijder laatste trailing karakter
+        if (stringBuilder.length() > 1) {
+            stringBuilder.setLength(stringBuilder.length() - 1);
+        }
+    }
+
+    /**
+     * Genereert een stylerule: eerst de selectors, daarna de declaraties van de body, de takken van
+     * if-clauses meegerekend.
+     */
+    private void generateStylerule(int stylerule) {
+        variableValues.openScope();
+
+        int child = ast.firstChild(stylerule);
+        boolean first = true;
+        for (; child != FlatAST.NONE && isSelector(ast.kind(child)); child = ast.nextSibling(child)) {
+            if (!first) {
+                stringBuilder.append(", ");
+            }
+            stringBuilder.append(ast.name(child));
+            first = false;
+        }
+        stringBuilder.append(" {\n");
+
+        generateBody(child);
+
+        variableValues.closeScope();
+        stringBuilder.append("}\n\n");
+    }
+
+    /**
+     * Genereert de body die met de gegeven node begint, tot en met de laatste sibling ervan.
+     */
+    private void generateBody(int first) {
+        for (int child = first; child != FlatAST.NONE; child = ast.nextSibling(child)) {
+            switch (ast.kind(child)) {
+                case VARIABLE_ASSIGNMENT:
+                    evaluateVariableAssignment(child);
+                    break;
+                case DECLARATION:
+                    generateDeclaration(child);
+                    break;
+                case IF_CLAUSE:
+                    generateIfClause(child);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Genereert de tak van de if-clause die door de voorwaarde gekozen wordt. Net als bij de Evaluator
+     * openen de takken geen eigen scope.
+     */
+    private void generateIfClause(int ifClause) {
+        int condition = ast.firstChild(ifClause);
+        if (condition == FlatAST.NONE) {
+            return;
+        }
+        long value = evaluateExpression(condition);
+
+        int elseClause = FlatAST.NONE;
+        for (int child = ast.nextSibling(condition); child != FlatAST.NONE; child = ast.nextSibling(child)) {
+            if (ast.kind(child) == NodeKind.ELSE_CLAUSE) {
+                elseClause = child;
+            }
+        }
+
+        if (value != NO_VALUE && valueOf(value) != 0) {
+            generateBody(ast.nextSibling(condition));
+        } else if (elseClause != FlatAST.NONE) {
+            generateBody(ast.firstChild(elseClause));
+        }
+    }
+
+    private void generateDeclaration(int declaration) {
+        int property = ast.firstChild(declaration);
+        int expression = ast.nextSibling(property);
+
+        stringBuilder.append("  ").append(ast.name(property)).append(": ");
+        if (expression != FlatAST.NONE) {
+            appendValue(evaluateExpression(expression));
+        }
+        stringBuilder.append(";\n");
+    }
+
+    private void appendValue(long value) {
+        if (value == NO_VALUE) {
+            return;
+        }
+
+        switch (kindOf(value)) {
+            case PERCENTAGE_LITERAL:
+                stringBuilder.append(valueOf(value)).append('%');
+                break;
+            case PIXEL_LITERAL:
+                stringBuilder.append(valueOf(value)).append("px");
+                break;
+            case COLOR_LITERAL:
+                stringBuilder.append(FlatAST.colorText(valueOf(value)));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void evaluateVariableAssignment(int assignment) {
+        int name = ast.firstChild(assignment);
+        int expression = ast.nextSibling(name);
+        if (expression != FlatAST.NONE) {
+            variableValues.put(ast.value(name), evaluateExpression(expression));
+        }
+    }
+
+    /**
+     * @return De waarde van de expressie, of NO_VALUE voor een variabele zonder waarde.
+     */
+    private long evaluateExpression(int expression) {
+        NodeKind kind = ast.kind(expression);
+        if (kind == NodeKind.VARIABLE_REFERENCE) {
+            Long value = variableValues.get(ast.value(expression));
+            return value != null ? value : NO_VALUE;
+        }
+        if (kind.isOperation()) {
+            return evaluateOperation(expression, kind);
+        }
+
+        return literal(kind, ast.value(expression));
+    }
+
+    private long evaluateOperation(int operation, NodeKind kind) {
+        int lhs = ast.firstChild(operation);
+        long left = evaluateExpression(lhs);
+        long right = evaluateExpression(ast.nextSibling(lhs));
+        int leftValue = valueOf(left);
+        int rightValue = valueOf(right);
+
+        switch (kind) {
+            case ADD:
+                return literal(kindOf(left), leftValue + rightValue);
+            case SUBTRACT:
+                return literal(kindOf(left), leftValue - rightValue);
+            case MULTIPLY:
+                NodeKind resultKind = kindOf(right) == NodeKind.SCALAR_LITERAL ? kindOf(left) : kindOf(right);
+                return literal(resultKind, leftValue * rightValue);
+            default:
+                if (rightValue == 0) {
+                    errors.add(new SemanticError("Delen door nul is niet toegestaan.", ast.start(operation)));
+                    return literal(kindOf(left), 0);
+                }
+                return literal(kindOf(left), leftValue / rightValue);
+        }
+    }
+
+    private static boolean isSelector(NodeKind kind) {
+        return kind == NodeKind.CLASS_SELECTOR || kind == NodeKind.ID_SELECTOR || kind == NodeKind.TAG_SELECTOR;
+    }
+
+    private static long literal(NodeKind kind, int value) {
+        return (long) kind.ordinal() << 32 | (value & 0xffffffffL);
+    }
+
+    private static NodeKind kindOf(long literal) {
+        return NodeKind.of((int) (literal >>> 32));
+    }
+
+    private static int valueOf(long literal) {
+        return (int) literal;
+    }
+}
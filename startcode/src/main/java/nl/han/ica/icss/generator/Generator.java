@@ -5,12 +5,15 @@ import nl.han.ica.icss.ast.literals.ColorLiteral;
 import nl.han.ica.icss.ast.literals.PercentageLiteral;
 import nl.han.ica.icss.ast.literals.PixelLiteral;
 
-import java.util.stream.Collectors;
-
 
+/**
+ * Genereert CSS uit een geëvalueerd AST. Op het soort node wordt gedispatcht met een {@link ASTVisitor}; nodes
+ * die na het evalueren niet meer horen te bestaan worden overgeslagen.
+ */
 public class Generator {
 
 	private final StringBuilder stringBuilder;
+	private final CssVisitor visitor = new CssVisitor();
 
 	public Generator() {
 		this.stringBuilder = new StringBuilder();
@@ -23,6 +26,7 @@ public class Generator {
 	 * @return De gegenereerde CSS als een tekstreeks.
 	 */
 	public String generate(AST ast) {
+		stringBuilder.setLength(0);
 		generateNode(ast.root);
 		return stringBuilder.toString();
 	}
@@ -33,10 +37,8 @@ public class Generator {
 	 * @param astNode De AST-node om CSS-regels voor te genereren.
 	 */
 	private void generateNode(ASTNode astNode) {
-		for (ASTNode node : astNode.getChildren()) {
-			if (node instanceof Stylerule) {
-				generateStylerule((Stylerule) node);
-			}
+		for (int i = 0; i < astNode.getChildCount(); i++) {
+			astNode.getChild(i).accept(visitor, null);
 		}
 
 		// Verwijder laatste trailing karakter
@@ -63,25 +65,25 @@ public class Generator {
 	 * @param stylerule De Stylerule waarvoor selectors worden gegenereerd.
 	 */
 	private void generateSelectors(Stylerule stylerule) {
-		String selectors = stylerule.selectors.stream()
-				.map(ASTNode::toString)
-				.collect(Collectors.joining(", "));
+		for (int i = 0; i < stylerule.selectors.size(); i++) {
+			if (i > 0) {
+				stringBuilder.append(", ");
+			}
+			stringBuilder.append(stylerule.selectors.get(i));
+		}
 
-		stringBuilder.append(selectors).append(" {\n");
+		stringBuilder.append(" {\n");
 	}
 
 	/**
 	 * Genereert declaraties voor een gegeven Stylerule-knooppunt door de kinderen van de Stylerule te doorlopen.
-	 * Voor elk kindknooppunt dat een instantie is van het Declaration-type, wordt de methode generateDeclaration opgeroepen
-	 * om de declaratie te verwerken.
+	 * De visitor roept voor elke Declaration de methode generateDeclaration op.
 	 *
 	 * @param stylerule Het Stylerule-knooppunt waarvan de declaraties moeten worden gegenereerd.
 	 */
 	private void generateDeclarations(Stylerule stylerule) {
-		for (ASTNode node : stylerule.getChildren()) {
-			if (node instanceof Declaration) {
-				generateDeclaration((Declaration) node);
-			}
+		for (int i = 0; i < stylerule.body.size(); i++) {
+			stylerule.body.get(i).accept(visitor, null);
 		}
 	}
 
@@ -93,28 +95,52 @@ public class Generator {
 	private void generateDeclaration(Declaration declaration) {
 		stringBuilder.append("  ")
 				.append(declaration.property.name)
-				.append(": ")
-				.append(expressionToString(declaration.expression))
-				.append(";\n");
+				.append(": ");
+		if (declaration.expression != null) {
+			declaration.expression.accept(visitor, null);
+		}
+		stringBuilder.append(";\n");
 	}
 
 	/**
-	 * Converteert een Expression naar een CSS-stringrepresentatie.
-	 *
-	 * @param expression De Expression om te converteren.
-	 * @return Een CSS-stringrepresentatie van de Expression.
+	 * Schrijft stylerules, declaraties en de waarde van literals naar de stringBuilder. Een Expression die geen
+	 * percentage, pixel of kleur is levert geen tekst op.
 	 */
-	private String expressionToString(Expression expression) {
-		if (expression instanceof PercentageLiteral) {
-			return ((PercentageLiteral) expression).value + "%";
+	private class CssVisitor extends DefaultASTVisitor<Void, Void> {
+
+		@Override
+		public Void visitNode(ASTNode node, Void context) {
+			return null;
 		}
-		if (expression instanceof PixelLiteral) {
-			return ((PixelLiteral) expression).value + "px";
+
+		@Override
+		public Void visitStylerule(Stylerule node, Void context) {
+			generateStylerule(node);
+			return null;
+		}
+
+		@Override
+		public Void visitDeclaration(Declaration node, Void context) {
+			generateDeclaration(node);
+			return null;
 		}
-		if (expression instanceof ColorLiteral) {
-			return ((ColorLiteral) expression).value;
+
+		@Override
+		public Void visitPercentageLiteral(PercentageLiteral node, Void context) {
+			stringBuilder.append(node.value).append('%');
+			return null;
 		}
 
-		return "";
+		@Override
+		public Void visitPixelLiteral(PixelLiteral node, Void context) {
+			stringBuilder.append(node.value).append("px");
+			return null;
+		}
+
+		@Override
+		public Void visitColorLiteral(ColorLiteral node, Void context) {
+			stringBuilder.append(node.value);
+			return null;
+		}
 	}
 }
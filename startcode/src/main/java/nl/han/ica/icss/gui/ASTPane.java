@@ -8,6 +8,7 @@ import javafx.scene.control.TreeView;
 import javafx.scene.layout.BorderPane;
 import nl.han.ica.icss.ast.AST;
 import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.flat.FlatAST;
 
 public class ASTPane extends BorderPane {
 
@@ -50,13 +51,20 @@ public class ASTPane extends BorderPane {
     public void update(AST ast) {
         content.setRoot(astNodeToTreeItem(ast.root));
     }
+    /**
+     * Updates the panes based on the current content of a flat AST
+     * @param ast
+     */
+    public void update(FlatAST ast) {
+        content.setRoot(ast.root() == FlatAST.NONE ? null : astNodeToTreeItem(ast.node(ast.root())));
+    }
     private TreeItem<ASTNode> astNodeToTreeItem(ASTNode astNode) {
 
         TreeItem<ASTNode> tvNode = new TreeItem<ASTNode>(astNode);
         tvNode.setExpanded(true);
 
-        for(ASTNode child : astNode.getChildren()) {
-            tvNode.getChildren().add(astNodeToTreeItem(child));
+        for(int i = 0; i < astNode.getChildCount(); i++) {
+            tvNode.getChildren().add(astNodeToTreeItem(astNode.getChild(i)));
         }
         return tvNode;
     }
@@ -194,7 +194,7 @@ public class MainGui extends Application {
     private void parse() {
         clear();
         feedbackPane.addLine("Parsing...");
-        pipeline.parseString(inputPane.getText());
+        pipeline.parseIncremental(inputPane.getText());
         for(String e : pipeline.getErrors()) {
             feedbackPane.addLine(e);
         }
@@ -0,0 +1,110 @@
+package nl.han.ica.icss.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Telt de metingen van alle Pipelines bij elkaar op. De globale instantie wordt bij het eerste
+ * gebruik geregistreerd als MBean onder {@value #OBJECT_NAME}.
+ */
+public class CompilerMetrics implements CompilerMetricsMXBean {
+    public static final String OBJECT_NAME = "nl.han.ica.icss:type=CompilerMetrics";
+
+    private static final int STAGES = Stage.values().length;
+
+    private final LongAdder[] wallNanos = adders();
+    private final LongAdder[] cpuNanos = adders();
+    private final LongAdder[] allocatedBytes = adders();
+    private final LongAdder[] nodeCounts = adders();
+    private final LongAdder[] errorCounts = adders();
+    private final LongAdder compilations = new LongAdder();
+
+    /**
+     * @return De JVM-brede instantie, die als MBean geregistreerd is.
+     */
+    public static CompilerMetrics global() {
+        return Holder.INSTANCE;
+    }
+
+    void add(Stage stage, StageMetrics metrics) {
+        int index = stage.ordinal();
+        wallNanos[index].add(metrics.getWallNanos());
+        cpuNanos[index].add(metrics.getCpuNanos());
+        allocatedBytes[index].add(metrics.getAllocatedBytes());
+        nodeCounts[index].add(metrics.getNodeCount());
+        errorCounts[index].add(metrics.getErrorCount());
+        if (stage == Stage.PARSE) {
+            compilations.increment();
+        }
+    }
+
+    /**
+     * @param stage De fase.
+     * @return De opgetelde metingen van deze fase.
+     */
+    public StageMetrics get(Stage stage) {
+        int index = stage.ordinal();
+        return new StageMetrics(wallNanos[index].sum(), cpuNanos[index].sum(), allocatedBytes[index].sum(),
+                nodeCounts[index].sum(), errorCounts[index].sum());
+    }
+
+    @Override
+    public long getCompilations() {
+        return compilations.sum();
+    }
+
+    @Override
+    public StageMetrics getParse() {
+        return get(Stage.PARSE);
+    }
+
+    @Override
+    public StageMetrics getCheck() {
+        return get(Stage.CHECK);
+    }
+
+    @Override
+    public StageMetrics getTransform() {
+        return get(Stage.TRANSFORM);
+    }
+
+    @Override
+    public StageMetrics getGenerate() {
+        return get(Stage.GENERATE);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < STAGES; i++) {
+            wallNanos[i].reset();
+            cpuNanos[i].reset();
+            allocatedBytes[i].reset();
+            nodeCounts[i].reset();
+            errorCounts[i].reset();
+        }
+        compilations.reset();
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[STAGES];
+        for (int i = 0; i < STAGES; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static class Holder {
+        static final CompilerMetrics INSTANCE = register(new CompilerMetrics());
+
+        private static CompilerMetrics register(CompilerMetrics metrics) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                System.err.println("Could not register " + OBJECT_NAME + ": " + e.getMessage());
+            }
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package nl.han.ica.icss.metrics;
+
+/**
+ * JMX-interface met de opgetelde kosten van alle Pipelines in deze JVM waarvoor metrics aan staan.
+ */
+public interface CompilerMetricsMXBean {
+
+    /**
+     * @return Het aantal keer dat er geparsed is.
+     */
+    long getCompilations();
+
+    StageMetrics getParse();
+
+    StageMetrics getCheck();
+
+    StageMetrics getTransform();
+
+    StageMetrics getGenerate();
+
+    /**
+     * Zet alle totalen terug naar 0.
+     */
+    void reset();
+}
@@ -0,0 +1,119 @@
+package nl.han.ica.icss.metrics;
+
+import nl.han.ica.icss.ast.ASTNode;
+
+/**
+ * Houdt per fase van één Pipeline de wandkloktijd, CPU-tijd, gealloceerde bytes, het aantal
+ * AST-knopen en het aantal fouten bij. Elke afgeronde fase wordt ook opgeteld bij de totalen van
+ * {@link CompilerMetrics}, zodat die via JMX uitgelezen kunnen worden.
+ *
+ * Een Pipeline zonder metrics heeft geen PipelineMetrics-object; de metingen kosten dan niets.
+ */
+public class PipelineMetrics {
+    private static final int STAGES = Stage.values().length;
+
+    private final long[] wallNanos = new long[STAGES];
+    private final long[] cpuNanos = new long[STAGES];
+    private final long[] allocatedBytes = new long[STAGES];
+    private final long[] nodeCounts = new long[STAGES];
+    private final long[] errorCounts = new long[STAGES];
+
+    private final CompilerMetrics totals;
+
+    private long startWall;
+    private long startCpu;
+    private long startAllocated;
+    private WorkerCost workers;
+
+    public PipelineMetrics() {
+        this(CompilerMetrics.global());
+    }
+
+    public PipelineMetrics(CompilerMetrics totals) {
+        this.totals = totals;
+    }
+
+    /**
+     * Start de meting van een fase. Fases worden nooit genest, dus er is maar één lopende meting.
+     */
+    public void begin() {
+        startWall = System.nanoTime();
+        startCpu = ThreadClock.cpuNanos();
+        startAllocated = ThreadClock.allocatedBytes();
+        workers = null;
+    }
+
+    /**
+     * @return De teller voor het werk dat de lopende fase op andere threads laat doen. Dat werk telt mee in de
+     * CPU-tijd en de allocaties van de fase.
+     */
+    public WorkerCost workers() {
+        if (workers == null) {
+            workers = new WorkerCost();
+        }
+        return workers;
+    }
+
+    /**
+     * Rondt de meting af die met {@link #begin()} gestart is.
+     *
+     * @param stage  De fase die gemeten is.
+     * @param root   De wortel van het AST na afloop van de fase, of null als er geen AST is.
+     * @param errors Het aantal fouten dat de fase opleverde.
+     */
+    public void end(Stage stage, ASTNode root, int errors) {
+        int index = stage.ordinal();
+        wallNanos[index] = System.nanoTime() - startWall;
+        cpuNanos[index] = ThreadClock.cpuNanos() - startCpu;
+        allocatedBytes[index] = ThreadClock.allocatedBytes() - startAllocated;
+        if (workers != null) {
+            cpuNanos[index] += workers.cpuNanos();
+            allocatedBytes[index] += workers.allocatedBytes();
+            workers = null;
+        }
+        nodeCounts[index] = root == null ? 0 : countNodes(root);
+        errorCounts[index] = errors;
+
+        if (totals != null) {
+            totals.add(stage, get(stage));
+        }
+    }
+
+    /**
+     * @param stage De fase.
+     * @return De metingen van de laatste keer dat deze fase uitgevoerd is.
+     */
+    public StageMetrics get(Stage stage) {
+        int index = stage.ordinal();
+        return new StageMetrics(wallNanos[index], cpuNanos[index], allocatedBytes[index],
+                nodeCounts[index], errorCounts[index]);
+    }
+
+    /**
+     * @return De opgetelde wandkloktijd van alle fases.
+     */
+    public long getTotalWallNanos() {
+        long total = 0;
+        for (long nanos : wallNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    private static long countNodes(ASTNode node) {
+        long count = 1;
+        for (int i = 0; i < node.getChildCount(); i++) {
+            count += countNodes(node.getChild(i));
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            builder.append(stage).append(": ").append(get(stage)).append('\n');
+        }
+        return builder.toString();
+    }
+}
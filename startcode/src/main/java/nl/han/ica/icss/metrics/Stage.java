@@ -0,0 +1,11 @@
+package nl.han.ica.icss.metrics;
+
+/**
+ * De fases van de Pipeline waarvoor metrics bijgehouden worden.
+ */
+public enum Stage {
+    PARSE,
+    CHECK,
+    TRANSFORM,
+    GENERATE
+}
@@ -0,0 +1,58 @@
+package nl.han.ica.icss.metrics;
+
+/**
+ * Een onveranderlijke momentopname van de kosten van één fase. Deze klasse wordt ook als
+ * CompositeData via JMX gepubliceerd, daarom heeft elk attribuut een getter.
+ */
+public class StageMetrics {
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+    private final long nodeCount;
+    private final long errorCount;
+
+    public StageMetrics(long wallNanos, long cpuNanos, long allocatedBytes, long nodeCount, long errorCount) {
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.nodeCount = nodeCount;
+        this.errorCount = errorCount;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return De CPU-tijd van de thread en van de workers waar de fase werk op liet doen, of 0 als de JVM dit
+     * niet kan meten.
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * @return Het aantal gealloceerde bytes van de thread en van de workers waar de fase werk op liet doen, of 0
+     * als de JVM dit niet kan meten.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return Het aantal AST-knopen na afloop van de fase.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    @Override
+    public String toString() {
+        return "wall=" + wallNanos + "ns cpu=" + cpuNanos + "ns allocated=" + allocatedBytes
+                + "B nodes=" + nodeCount + " errors=" + errorCount;
+    }
+}
@@ -0,0 +1,46 @@
+package nl.han.ica.icss.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Telt de CPU-tijd en de allocaties op van werk dat een fase op andere threads laat doen, zoals de stukken
+ * van een parallelle parse. {@link ThreadClock} ziet alleen de thread van de Pipeline zelf.
+ *
+ * Werk dat toch op die thread draait wordt niet nog eens geteld; dat zit al in de meting van de fase.
+ */
+public final class WorkerCost {
+    private final Thread owner = Thread.currentThread();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    WorkerCost() { }
+
+    /**
+     * Voert het werk uit en telt de kosten ervan op als het op een andere thread draait.
+     *
+     * @param work Het werk.
+     */
+    public void measure(Runnable work) {
+        if (Thread.currentThread() == owner) {
+            work.run();
+            return;
+        }
+
+        long startCpu = ThreadClock.cpuNanos();
+        long startAllocated = ThreadClock.allocatedBytes();
+        try {
+            work.run();
+        } finally {
+            cpuNanos.add(ThreadClock.cpuNanos() - startCpu);
+            allocatedBytes.add(ThreadClock.allocatedBytes() - startAllocated);
+        }
+    }
+
+    long cpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes.sum();
+    }
+}
@@ -0,0 +1,201 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.datastructures.HANStack;
+import nl.han.ica.datastructures.IHANStack;
+import nl.han.ica.icss.ast.*;
+import nl.han.ica.icss.ast.literals.*;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Bouwt het AST tijdens het parsen, als parse listener van de parser. Zo hoeft Antlr geen parse tree
+ * op te bouwen die daarna nog een keer doorlopen wordt; elke context is na het verlaten van zijn regel
+ * meteen garbage. Het resultaat is gelijk aan dat van {@link ASTListener}.
+ *
+ * Namen worden bij het bouwen geïnterned in de {@link SymbolTable} van het AST, zodat elke naam maar één
+ * keer in het geheugen staat en variabelen en properties een symbool-id hebben.
+ *
+ * Bij syntaxfouten is het AST onvolledig, net als bij ASTListener, maar het bouwen gaat nooit mis.
+ */
+public class ASTBuilder extends ICSSBaseListener {
+
+    private final AST ast;
+    private final SymbolTable symbols;
+
+    // De ouders van de nodes die nu gebouwd worden
+    private final IHANStack<ASTNode> currentContainer = new HANStack<>();
+
+    // De expressie die nu gebouwd wordt, of null buiten een expressie
+    private ExpressionParser expression;
+
+    public ASTBuilder() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * @param symbols De symbolentabel voor de namen, bijvoorbeeld een die met eerdere parses gedeeld wordt.
+     */
+    public ASTBuilder(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.ast = new AST(new Stylesheet(), symbols);
+    }
+
+    public AST getAST() {
+        return ast;
+    }
+
+    @Override
+    public void enterStylesheet(ICSSParser.StylesheetContext ctx) {
+        currentContainer.push(new Stylesheet());
+    }
+
+    @Override
+    public void exitStylesheet(ICSSParser.StylesheetContext ctx) {
+        ast.setRoot((Stylesheet) pop(ctx));
+    }
+
+    @Override
+    public void enterStyleRule(ICSSParser.StyleRuleContext ctx) {
+        currentContainer.push(new Stylerule());
+    }
+
+    @Override
+    public void exitStyleRule(ICSSParser.StyleRuleContext ctx) {
+        addToContainer(pop(ctx));
+    }
+
+    @Override
+    public void exitClassSelector(ICSSParser.ClassSelectorContext ctx) {
+        addToContainer(new ClassSelector(symbols.canonical(ctx.getStart().getText())), ctx);
+    }
+
+    @Override
+    public void exitIdSelector(ICSSParser.IdSelectorContext ctx) {
+        addToContainer(new IdSelector(symbols.canonical(ctx.getStart().getText())), ctx);
+    }
+
+    @Override
+    public void exitTagSelector(ICSSParser.TagSelectorContext ctx) {
+        addToContainer(new TagSelector(symbols.canonical(ctx.getStart().getText())), ctx);
+    }
+
+    @Override
+    public void enterDeclaration(ICSSParser.DeclarationContext ctx) {
+        currentContainer.push(new Declaration());
+    }
+
+    @Override
+    public void exitDeclaration(ICSSParser.DeclarationContext ctx) {
+        addToContainer(pop(ctx));
+    }
+
+    @Override
+    public void exitPropertyName(ICSSParser.PropertyNameContext ctx) {
+        int symbol = symbols.intern(ctx.getStart().getText());
+        addToContainer(new PropertyName(symbols.name(symbol), symbol), ctx);
+    }
+
+    @Override
+    public void enterVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
+        currentContainer.push(new VariableAssignment());
+    }
+
+    @Override
+    public void exitVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
+        addToContainer(pop(ctx));
+    }
+
+    @Override
+    public void exitVariableReference(ICSSParser.VariableReferenceContext ctx) {
+        int symbol = symbols.intern(ctx.getStart().getText());
+        addToContainer(new VariableReference(symbols.name(symbol), symbol), ctx);
+    }
+
+    @Override
+    public void exitBoolLiteral(ICSSParser.BoolLiteralContext ctx) {
+        addToContainer(new BoolLiteral(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void exitColorLiteral(ICSSParser.ColorLiteralContext ctx) {
+        addToContainer(new ColorLiteral(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void exitPercentageLiteral(ICSSParser.PercentageLiteralContext ctx) {
+        addToContainer(new PercentageLiteral(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void exitPixelLiteral(ICSSParser.PixelLiteralContext ctx) {
+        addToContainer(new PixelLiteral(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void exitScalarLiteral(ICSSParser.ScalarLiteralContext ctx) {
+        addToContainer(new ScalarLiteral(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void enterExpression(ICSSParser.ExpressionContext ctx) {
+        expression = new ExpressionParser();
+    }
+
+    @Override
+    public void exitExpression(ICSSParser.ExpressionContext ctx) {
+        Expression parsed = expression.parse();
+        expression = null;
+        if (parsed != null) {
+            addToContainer(parsed);
+        }
+    }
+
+    @Override
+    public void exitOperator(ICSSParser.OperatorContext ctx) {
+        expression.addOperator(ctx.getStart().getType());
+    }
+
+    @Override
+    public void enterIfClause(ICSSParser.IfClauseContext ctx) {
+        currentContainer.push(new IfClause());
+    }
+
+    @Override
+    public void exitIfClause(ICSSParser.IfClauseContext ctx) {
+        addToContainer(pop(ctx));
+    }
+
+    @Override
+    public void enterElseClause(ICSSParser.ElseClauseContext ctx) {
+        currentContainer.push(new ElseClause());
+    }
+
+    @Override
+    public void exitElseClause(ICSSParser.ElseClauseContext ctx) {
+        addToContainer(pop(ctx));
+    }
+
+    private void addToContainer(ASTNode node) {
+        currentContainer.peek().addChild(node);
+    }
+
+    /**
+     * Voegt een node toe aan de container, of als operand aan de expressie die nu gebouwd wordt.
+     */
+    private void addToContainer(ASTNode node, ParserRuleContext ctx) {
+        NodePositions.locate(node, ctx);
+        if (expression != null && node instanceof Expression) {
+            expression.addOperand((Expression) node);
+        } else {
+            addToContainer(node);
+        }
+    }
+
+    private ASTNode pop(ParserRuleContext ctx) {
+        ASTNode node = currentContainer.pop();
+        NodePositions.locate(node, ctx);
+        return node;
+    }
+}
@@ -4,9 +4,6 @@ import nl.han.ica.datastructures.HANStack;
 import nl.han.ica.datastructures.IHANStack;
 import nl.han.ica.icss.ast.*;
 import nl.han.ica.icss.ast.literals.*;
-import nl.han.ica.icss.ast.operations.AddOperation;
-import nl.han.ica.icss.ast.operations.MultiplyOperation;
-import nl.han.ica.icss.ast.operations.SubtractOperation;
 import nl.han.ica.icss.ast.selectors.ClassSelector;
 import nl.han.ica.icss.ast.selectors.IdSelector;
 import nl.han.ica.icss.ast.selectors.TagSelector;
@@ -18,13 +15,17 @@ public class ASTListener extends ICSSBaseListener {
 
 	// Accumulator attributes:
 	private AST ast;
+	private SymbolTable symbols;
 
 	// Use this to keep track of the parent nodes when recursively traversing the
 	// ast
 	private IHANStack<ASTNode> currentContainer;
+	// The expression that is being built, or null outside an expression
+	private ExpressionParser expression;
 
 	public ASTListener() {
 		ast = new AST();
+		symbols = ast.symbols;
 		currentContainer = new HANStack<>();
 	}
 
@@ -41,6 +42,7 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitStylesheet(ICSSParser.StylesheetContext ctx) {
 		Stylesheet stylesheet = (Stylesheet) currentContainer.pop();
+		NodePositions.locate(stylesheet, ctx);
 		ast.setRoot(stylesheet);
 	}
 
@@ -52,42 +54,46 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitStyleRule(ICSSParser.StyleRuleContext ctx) {
 		Stylerule stylerule = (Stylerule) currentContainer.pop();
+		NodePositions.locate(stylerule, ctx);
 		currentContainer.peek().addChild(stylerule);
 	}
 
 	@Override
 	public void enterClassSelector(ICSSParser.ClassSelectorContext ctx) {
-		ClassSelector classSelector = new ClassSelector(ctx.getText());
+		ClassSelector classSelector = new ClassSelector(symbols.canonical(ctx.getText()));
 		currentContainer.push(classSelector);
 	}
 
 	@Override
 	public void exitClassSelector(ICSSParser.ClassSelectorContext ctx) {
 		ClassSelector classSelector = (ClassSelector) currentContainer.pop();
+		NodePositions.locate(classSelector, ctx);
 		currentContainer.peek().addChild(classSelector);
 	}
 
 	@Override
 	public void enterIdSelector(ICSSParser.IdSelectorContext ctx) {
-		IdSelector idSelector = new IdSelector(ctx.getText());
+		IdSelector idSelector = new IdSelector(symbols.canonical(ctx.getText()));
 		currentContainer.push(idSelector);
 	}
 
 	@Override
 	public void exitIdSelector(ICSSParser.IdSelectorContext ctx) {
 		IdSelector idSelector = (IdSelector) currentContainer.pop();
+		NodePositions.locate(idSelector, ctx);
 		currentContainer.peek().addChild(idSelector);
 	}
 
 	@Override
 	public void enterTagSelector(ICSSParser.TagSelectorContext ctx) {
-		TagSelector tagSelector = new TagSelector(ctx.getText());
+		TagSelector tagSelector = new TagSelector(symbols.canonical(ctx.getText()));
 		currentContainer.push(tagSelector);
 	}
 
 	@Override
 	public void exitTagSelector(ICSSParser.TagSelectorContext ctx) {
 		TagSelector tagSelector = (TagSelector) currentContainer.pop();
+		NodePositions.locate(tagSelector, ctx);
 		currentContainer.peek().addChild(tagSelector);
 	}
 
@@ -99,18 +105,21 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitDeclaration(ICSSParser.DeclarationContext ctx) {
 		Declaration declaration = (Declaration) currentContainer.pop();
+		NodePositions.locate(declaration, ctx);
 		currentContainer.peek().addChild(declaration);
 	}
 
 	@Override
 	public void enterPropertyName(ICSSParser.PropertyNameContext ctx) {
-		PropertyName propertyName = new PropertyName(ctx.getText());
+		int symbol = symbols.intern(ctx.getText());
+		PropertyName propertyName = new PropertyName(symbols.name(symbol), symbol);
 		currentContainer.push(propertyName);
 	}
 
 	@Override
 	public void exitPropertyName(ICSSParser.PropertyNameContext ctx) {
 		PropertyName propertyName = (PropertyName) currentContainer.pop();
+		NodePositions.locate(propertyName, ctx);
 		currentContainer.peek().addChild(propertyName);
 	}
 
@@ -123,7 +132,8 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitColorLiteral(ICSSParser.ColorLiteralContext ctx) {
 		ColorLiteral colorLiteral = (ColorLiteral) currentContainer.pop();
-		currentContainer.peek().addChild(colorLiteral);
+		NodePositions.locate(colorLiteral, ctx);
+		addExpressionPart(colorLiteral);
 	}
 
 	@Override
@@ -135,7 +145,8 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitPixelLiteral(ICSSParser.PixelLiteralContext ctx) {
 		PixelLiteral pixelLiteral = (PixelLiteral) currentContainer.pop();
-		currentContainer.peek().addChild(pixelLiteral);
+		NodePositions.locate(pixelLiteral, ctx);
+		addExpressionPart(pixelLiteral);
 	}
 
 	@Override
@@ -147,7 +158,8 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitPercentageLiteral(ICSSParser.PercentageLiteralContext ctx) {
 		PercentageLiteral percentageLiteral = (PercentageLiteral) currentContainer.pop();
-		currentContainer.peek().addChild(percentageLiteral);
+		NodePositions.locate(percentageLiteral, ctx);
+		addExpressionPart(percentageLiteral);
 	}
 
 	@Override
@@ -159,7 +171,8 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitScalarLiteral(ICSSParser.ScalarLiteralContext ctx) {
 		ScalarLiteral scalarLiteral = (ScalarLiteral) currentContainer.pop();
-		currentContainer.peek().addChild(scalarLiteral);
+		NodePositions.locate(scalarLiteral, ctx);
+		addExpressionPart(scalarLiteral);
 	}
 
 	@Override
@@ -171,19 +184,22 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitBoolLiteral(ICSSParser.BoolLiteralContext ctx) {
 		BoolLiteral boolLiteral = (BoolLiteral) currentContainer.pop();
-		currentContainer.peek().addChild(boolLiteral);
+		NodePositions.locate(boolLiteral, ctx);
+		addExpressionPart(boolLiteral);
 	}
 
 	@Override
 	public void enterVariableReference(ICSSParser.VariableReferenceContext ctx) {
-		VariableReference variableReference = new VariableReference(ctx.getText());
+		int symbol = symbols.intern(ctx.getText());
+		VariableReference variableReference = new VariableReference(symbols.name(symbol), symbol);
 		currentContainer.push(variableReference);
 	}
 
 	@Override
 	public void exitVariableReference(ICSSParser.VariableReferenceContext ctx) {
 		VariableReference variableReference = (VariableReference) currentContainer.pop();
-		currentContainer.peek().addChild(variableReference);
+		NodePositions.locate(variableReference, ctx);
+		addExpressionPart(variableReference);
 	}
 
 	@Override
@@ -194,31 +210,34 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
 		VariableAssignment variableAssignment = (VariableAssignment) currentContainer.pop();
+		NodePositions.locate(variableAssignment, ctx);
 		currentContainer.peek().addChild(variableAssignment);
 	}
 
 	@Override
 	public void enterExpression(ICSSParser.ExpressionContext ctx) {
-		if (ctx.getChildCount() != 3)
-			return;
-
-		String operation = ctx.getChild(1).getText();
-		if (operation.equals("+")) {
-			currentContainer.push(new AddOperation());
-		} else if (operation.equals("-")) {
-			currentContainer.push(new SubtractOperation());
-		} else if (operation.equals("*")) {
-			currentContainer.push(new MultiplyOperation());
-		}
+		expression = new ExpressionParser();
 	}
 
 	@Override
 	public void exitExpression(ICSSParser.ExpressionContext ctx) {
-		if (ctx.getChildCount() != 3)
-			return;
+		Expression parsed = expression.parse();
+		expression = null;
+		if (parsed != null)
+			currentContainer.peek().addChild(parsed);
+	}
+
+	@Override
+	public void exitOperator(ICSSParser.OperatorContext ctx) {
+		expression.addOperator(ctx.getStart().getType());
+	}
 
-		ASTNode operation = currentContainer.pop();
-		currentContainer.peek().addChild(operation);
+	// Literals and variables inside an expression are operands; a variable can also be the name of an assignment
+	private void addExpressionPart(Expression part) {
+		if (expression != null)
+			expression.addOperand(part);
+		else
+			currentContainer.peek().addChild(part);
 	}
 
 	@Override
@@ -229,6 +248,7 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitIfClause(ICSSParser.IfClauseContext ctx) {
 		IfClause ifClause = (IfClause) currentContainer.pop();
+		NodePositions.locate(ifClause, ctx);
 		currentContainer.peek().addChild(ifClause);
 	}
 
@@ -240,6 +260,7 @@ public class ASTListener extends ICSSBaseListener {
 	@Override
 	public void exitElseClause(ICSSParser.ElseClauseContext ctx) {
 		ElseClause elseClause = (ElseClause) currentContainer.pop();
+		NodePositions.locate(elseClause, ctx);
 		currentContainer.peek().addChild(elseClause);
 	}
 
@@ -0,0 +1,118 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.Expression;
+import nl.han.ica.icss.ast.Operation;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bouwt de Operation-nodes van één expressie met precedence climbing. De grammatica levert een expressie
+ * als platte reeks "literal (operator literal)*"; deze klasse verzamelt de operanden en de tokentypes van
+ * de operatoren en maakt er daarna een boom van waarin * en / voor + en - gaan en gelijke operatoren
+ * links-associatief zijn. Zo blijft de parse tree van een lange keten plat en hoeft de parser daarvoor
+ * niets te voorspellen.
+ *
+ * {@link ASTListener} en {@link ASTBuilder} houden tijdens een expressie een ExpressionParser bij, naast hun
+ * stack van containers, en geven de literals en variabelen van de expressie met addOperand door.
+ * Expressies zijn niet genest, dus er is er hoogstens één tegelijk.
+ */
+class ExpressionParser {
+    private static final int[] PRECEDENCE = new int[ICSSLexer.VOCABULARY.getMaxTokenType() + 1];
+
+    static {
+        PRECEDENCE[ICSSLexer.PLUS] = 1;
+        PRECEDENCE[ICSSLexer.MIN] = 1;
+        PRECEDENCE[ICSSLexer.MUL] = 2;
+        PRECEDENCE[ICSSLexer.DIV] = 2;
+    }
+
+    private final List<Expression> operands = new ArrayList<>();
+    private int[] operators = new int[4];
+    private int operatorCount;
+
+    // De volgende operand bij het opbouwen
+    private int position;
+
+    /**
+     * @param operand De volgende literal of variabele van de expressie.
+     */
+    void addOperand(Expression operand) {
+        operands.add(operand);
+    }
+
+    /**
+     * @param tokenType Het tokentype van de operator tussen de laatste en de volgende operand.
+     */
+    void addOperator(int tokenType) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+        }
+        operators[operatorCount++] = tokenType;
+    }
+
+    /**
+     * @return De expressie, of null als er (door een syntaxfout) geen enkele operand is.
+     */
+    Expression parse() {
+        if (operands.isEmpty()) {
+            return null;
+        }
+
+        //Na een syntaxfout kan een operator zonder rechteroperand overblijven; die valt weg
+        operatorCount = Math.min(operatorCount, operands.size() - 1);
+        position = 0;
+        return parse(1);
+    }
+
+    /**
+     * Leest een operand en daarna alle operatoren met minimaal de gegeven precedentie. De rechteroperand
+     * van een operator bevat alleen operatoren met een hogere precedentie, wat links-associativiteit geeft.
+     */
+    private Expression parse(int minimumPrecedence) {
+        Expression lhs = operands.get(position++);
+
+        while (position - 1 < operatorCount && precedence(operators[position - 1]) >= minimumPrecedence) {
+            int operator = operators[position - 1];
+            Expression rhs = parse(precedence(operator) + 1);
+            lhs = create(operator, lhs, rhs);
+        }
+
+        return lhs;
+    }
+
+    /**
+     * @return De precedentie van de operator, of 0 voor een token dat na een syntaxfout geen operator is.
+     */
+    static int precedence(int tokenType) {
+        return tokenType >= 0 && tokenType < PRECEDENCE.length ? PRECEDENCE[tokenType] : 0;
+    }
+
+    private static Operation create(int operator, Expression lhs, Expression rhs) {
+        Operation operation;
+        switch (operator) {
+            case ICSSLexer.PLUS:
+                operation = new AddOperation();
+                break;
+            case ICSSLexer.MIN:
+                operation = new SubtractOperation();
+                break;
+            case ICSSLexer.MUL:
+                operation = new MultiplyOperation();
+                break;
+            default:
+                operation = new DivideOperation();
+                break;
+        }
+
+        operation.lhs = lhs;
+        operation.rhs = rhs;
+        operation.setPosition(lhs.getStart(), rhs.getEnd());
+        return operation;
+    }
+}
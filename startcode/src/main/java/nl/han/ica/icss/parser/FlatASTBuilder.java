@@ -0,0 +1,278 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.SourcePosition;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.flat.FlatAST;
+import nl.han.ica.icss.ast.flat.NodeKind;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+
+import java.util.Arrays;
+
+/**
+ * Bouwt tijdens het parsen een {@link FlatAST} in plaats van een AST van objecten, als parse listener van de
+ * parser, net als {@link ASTBuilder}. Nodes worden toegevoegd zodra hun regel begint, zodat ze in bronvolgorde
+ * in de arrays staan; alleen de operaties van een expressie komen pas na hun operanden, omdat de boom van een
+ * expressie pas aan het eind ervan bekend is (zie {@link ExpressionParser}).
+ *
+ * De boom heeft dezelfde vorm, posities en symbolen als die van ASTBuilder; {@link FlatAST#toAST()} levert een
+ * gelijk AST op.
+ */
+public class FlatASTBuilder extends ICSSBaseListener {
+
+    private final FlatAST ast;
+    private final SymbolTable symbols;
+
+    // De ouders van de nodes die nu gebouwd worden
+    private int[] containers = new int[16];
+    private int containerCount;
+
+    // De operanden en operatoren van de expressie die nu gelezen wordt; expressies zijn nooit genest
+    private boolean inExpression;
+    private int[] operands = new int[8];
+    private int operandCount;
+    private int[] operators = new int[8];
+    private int operatorCount;
+    private int position;
+
+    /**
+     * @param symbols De symbolentabel voor de namen.
+     */
+    public FlatASTBuilder(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.ast = new FlatAST(symbols);
+    }
+
+    public FlatAST getAST() {
+        return ast;
+    }
+
+    @Override
+    public void enterEveryRule(ParserRuleContext ctx) {
+        //Het eerste token van elke regel komt hier langs voordat een node erop kan eindigen, dus de regels
+        //komen in oplopende volgorde in de tabel
+        Token start = ctx.getStart();
+        ast.addLine(start.getLine(), start.getStartIndex() - start.getCharPositionInLine());
+    }
+
+    @Override
+    public void enterStylesheet(ICSSParser.StylesheetContext ctx) {
+        push(ast.add(NodeKind.STYLESHEET, 0));
+    }
+
+    @Override
+    public void exitStylesheet(ICSSParser.StylesheetContext ctx) {
+        locate(pop(), ctx);
+        ast.trim();
+    }
+
+    @Override
+    public void enterStyleRule(ICSSParser.StyleRuleContext ctx) {
+        push(ast.add(NodeKind.STYLERULE, 0));
+    }
+
+    @Override
+    public void exitStyleRule(ICSSParser.StyleRuleContext ctx) {
+        exitContainer(ctx);
+    }
+
+    @Override
+    public void exitClassSelector(ICSSParser.ClassSelectorContext ctx) {
+        addToContainer(NodeKind.CLASS_SELECTOR, symbols.intern(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void exitIdSelector(ICSSParser.IdSelectorContext ctx) {
+        addToContainer(NodeKind.ID_SELECTOR, symbols.intern(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void exitTagSelector(ICSSParser.TagSelectorContext ctx) {
+        addToContainer(NodeKind.TAG_SELECTOR, symbols.intern(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void enterDeclaration(ICSSParser.DeclarationContext ctx) {
+        push(ast.add(NodeKind.DECLARATION, 0));
+    }
+
+    @Override
+    public void exitDeclaration(ICSSParser.DeclarationContext ctx) {
+        exitContainer(ctx);
+    }
+
+    @Override
+    public void exitPropertyName(ICSSParser.PropertyNameContext ctx) {
+        addToContainer(NodeKind.PROPERTY_NAME, symbols.intern(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void enterVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
+        push(ast.add(NodeKind.VARIABLE_ASSIGNMENT, 0));
+    }
+
+    @Override
+    public void exitVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
+        exitContainer(ctx);
+    }
+
+    @Override
+    public void exitVariableReference(ICSSParser.VariableReferenceContext ctx) {
+        addToContainer(NodeKind.VARIABLE_REFERENCE, symbols.intern(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void exitBoolLiteral(ICSSParser.BoolLiteralContext ctx) {
+        addToContainer(NodeKind.BOOL_LITERAL, ctx.getStart().getText().equals("TRUE") ? 1 : 0, ctx);
+    }
+
+    @Override
+    public void exitColorLiteral(ICSSParser.ColorLiteralContext ctx) {
+        addToContainer(NodeKind.COLOR_LITERAL, FlatAST.colorValue(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void exitPercentageLiteral(ICSSParser.PercentageLiteralContext ctx) {
+        String text = ctx.getStart().getText();
+        addToContainer(NodeKind.PERCENTAGE_LITERAL, Integer.parseInt(text.substring(0, text.length() - 1)), ctx);
+    }
+
+    @Override
+    public void exitPixelLiteral(ICSSParser.PixelLiteralContext ctx) {
+        String text = ctx.getStart().getText();
+        addToContainer(NodeKind.PIXEL_LITERAL, Integer.parseInt(text.substring(0, text.length() - 2)), ctx);
+    }
+
+    @Override
+    public void exitScalarLiteral(ICSSParser.ScalarLiteralContext ctx) {
+        addToContainer(NodeKind.SCALAR_LITERAL, Integer.parseInt(ctx.getStart().getText()), ctx);
+    }
+
+    @Override
+    public void enterExpression(ICSSParser.ExpressionContext ctx) {
+        inExpression = true;
+        operandCount = 0;
+        operatorCount = 0;
+    }
+
+    @Override
+    public void exitExpression(ICSSParser.ExpressionContext ctx) {
+        inExpression = false;
+        if (operandCount == 0) {
+            return;
+        }
+
+        //Net als in het object-AST telt alleen de eerste expressie van een toewijzing
+        int container = containers[containerCount - 1];
+        if (ast.kind(container) == NodeKind.VARIABLE_ASSIGNMENT && ast.firstChild(container) != FlatAST.NONE
+                && ast.nextSibling(ast.firstChild(container)) != FlatAST.NONE) {
+            return;
+        }
+
+        //Na een syntaxfout kan een operator zonder rechteroperand overblijven; die valt weg
+        operatorCount = Math.min(operatorCount, operandCount - 1);
+        position = 0;
+        ast.append(container, parseExpression(1));
+    }
+
+    @Override
+    public void exitOperator(ICSSParser.OperatorContext ctx) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+        }
+        operators[operatorCount++] = ctx.getStart().getType();
+    }
+
+    @Override
+    public void enterIfClause(ICSSParser.IfClauseContext ctx) {
+        push(ast.add(NodeKind.IF_CLAUSE, 0));
+    }
+
+    @Override
+    public void exitIfClause(ICSSParser.IfClauseContext ctx) {
+        exitContainer(ctx);
+    }
+
+    @Override
+    public void enterElseClause(ICSSParser.ElseClauseContext ctx) {
+        push(ast.add(NodeKind.ELSE_CLAUSE, 0));
+    }
+
+    @Override
+    public void exitElseClause(ICSSParser.ElseClauseContext ctx) {
+        exitContainer(ctx);
+    }
+
+    /**
+     * Precedence climbing over de operanden, zoals in {@link ExpressionParser}.
+     */
+    private int parseExpression(int minimumPrecedence) {
+        int lhs = operands[position++];
+
+        while (position - 1 < operatorCount && ExpressionParser.precedence(operators[position - 1]) >= minimumPrecedence) {
+            int operator = operators[position - 1];
+            int rhs = parseExpression(ExpressionParser.precedence(operator) + 1);
+
+            int operation = ast.add(operationKind(operator), 0);
+            ast.setPosition(operation, ast.startOffset(lhs), ast.endOffset(rhs));
+            ast.append(operation, lhs);
+            ast.append(operation, rhs);
+            lhs = operation;
+        }
+
+        return lhs;
+    }
+
+    private static NodeKind operationKind(int operator) {
+        switch (operator) {
+            case ICSSLexer.PLUS:
+                return NodeKind.ADD;
+            case ICSSLexer.MIN:
+                return NodeKind.SUBTRACT;
+            case ICSSLexer.MUL:
+                return NodeKind.MULTIPLY;
+            default:
+                return NodeKind.DIVIDE;
+        }
+    }
+
+    private void addToContainer(NodeKind kind, int value, ParserRuleContext ctx) {
+        int node = ast.add(kind, value);
+        locate(node, ctx);
+
+        if (inExpression) {
+            if (operandCount == operands.length) {
+                operands = Arrays.copyOf(operands, operandCount * 2);
+            }
+            operands[operandCount++] = node;
+        } else {
+            ast.append(containers[containerCount - 1], node);
+        }
+    }
+
+    private void exitContainer(ParserRuleContext ctx) {
+        int node = pop();
+        locate(node, ctx);
+        ast.append(containers[containerCount - 1], node);
+    }
+
+    private void locate(int node, ParserRuleContext ctx) {
+        Token start = ctx.getStart();
+        long end = NodePositions.end(ctx);
+
+        //Een node kan eindigen op een regel waar geen andere regel begint, zoals de } van een stylerule
+        ast.addLine(SourcePosition.line(end), SourcePosition.offset(end) - SourcePosition.column(end));
+        ast.setPosition(node, start.getStartIndex(), SourcePosition.offset(end));
+    }
+
+    private void push(int node) {
+        if (containerCount == containers.length) {
+            containers = Arrays.copyOf(containers, containerCount * 2);
+        }
+        containers[containerCount++] = node;
+    }
+
+    private int pop() {
+        return containers[--containerCount];
+    }
+}
@@ -0,0 +1,305 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+
+/**
+ * Een met de hand geschreven lexer voor de tokens uit ICSS.g4, die dezelfde tokenstroom oplevert als
+ * {@link ICSSLexer} maar zonder de ATN-simulator van Antlr. Elk teken wordt met één tabelopzoeking
+ * ingedeeld; de langste match wint en bij gelijke lengte de regel die eerst in de grammatica staat
+ * (zo is "if" een IF en geen LOWER_IDENT, en "#a0b1c2" een COLOR en geen ID_IDENT).
+ *
+ * Ook de foutmeldingen zijn gelijk aan die van ICSSLexer: een teken waarmee geen token kan beginnen,
+ * of een '#' of '.' zonder geldig vervolg, wordt samen met het teken waarop het misging overgeslagen
+ * en gemeld als "token recognition error at: '...'". Bij een wijziging van de lexer-regels in de
+ * grammatica moet deze klasse mee veranderen; ICSSFastLexerTest vergelijkt beide lexers.
+ */
+public class ICSSFastLexer implements TokenSource {
+    private static final int LOWER = 1;
+    private static final int UPPER = 1 << 1;
+    private static final int DIGIT = 1 << 2;
+    private static final int HEX = 1 << 3;
+    private static final int DASH = 1 << 4;
+    private static final int UNDERSCORE = 1 << 5;
+    private static final int WHITESPACE = 1 << 6;
+
+    // De tekens waarmee LOWER_IDENT, ID_IDENT en CLASS_IDENT verder kunnen gaan: [a-z0-9\-]
+    private static final int LOWER_PART = LOWER | DIGIT | DASH;
+    // De tekens waarmee CAPITAL_IDENT verder kan gaan: [A-Za-z0-9_]
+    private static final int CAPITAL_PART = LOWER | UPPER | DIGIT | UNDERSCORE;
+
+    private static final int[] CLASSES = new int[128];
+    private static final int[] PUNCTUATION = new int[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = LOWER | (c <= 'f' ? HEX : 0);
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CLASSES[c] = UPPER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CLASSES[c] = DIGIT | HEX;
+        }
+        CLASSES['-'] = DASH;
+        CLASSES['_'] = UNDERSCORE;
+        CLASSES[' '] = CLASSES['\t'] = CLASSES['\r'] = CLASSES['\n'] = WHITESPACE;
+
+        PUNCTUATION['['] = ICSSLexer.BOX_BRACKET_OPEN;
+        PUNCTUATION[']'] = ICSSLexer.BOX_BRACKET_CLOSE;
+        PUNCTUATION['{'] = ICSSLexer.OPEN_BRACE;
+        PUNCTUATION['}'] = ICSSLexer.CLOSE_BRACE;
+        PUNCTUATION[';'] = ICSSLexer.SEMICOLON;
+        PUNCTUATION['+'] = ICSSLexer.PLUS;
+        PUNCTUATION['-'] = ICSSLexer.MIN;
+        PUNCTUATION['*'] = ICSSLexer.MUL;
+        PUNCTUATION['/'] = ICSSLexer.DIV;
+    }
+
+    private final CharStream input;
+    private final ANTLRErrorListener listener;
+    private final Pair<TokenSource, CharStream> source;
+    private TokenFactory<?> factory = CommonTokenFactory.DEFAULT;
+
+    private int line = 1;
+    private int column = 0;
+
+    // Het type van het laatst gematchte token
+    private int matchedType;
+
+    /**
+     * @param input    De te lexen invoer.
+     * @param listener De listener die de token recognition errors ontvangt.
+     */
+    public ICSSFastLexer(CharStream input, ANTLRErrorListener listener) {
+        this.input = input;
+        this.listener = listener;
+        this.source = new Pair<>(this, input);
+    }
+
+    /**
+     * Lext invoer die niet aan het begin van de tekst begint, zoals een deel van een tekst dat los geparsed wordt.
+     *
+     * @param input    De te lexen invoer, met de index op het eerste te lexen teken.
+     * @param listener De listener die de token recognition errors ontvangt.
+     * @param line     De regel van het eerste teken, vanaf 1.
+     * @param column   De kolom van het eerste teken, vanaf 0.
+     */
+    public ICSSFastLexer(CharStream input, ANTLRErrorListener listener, int line, int column) {
+        this(input, listener);
+        this.line = line;
+        this.column = column;
+    }
+
+    @Override
+    public Token nextToken() {
+        while (true) {
+            //WS: [ \t\r\n]+ -> skip
+            int c = input.LA(1);
+            while (is(c, WHITESPACE)) {
+                consumeChar(c);
+                c = input.LA(1);
+            }
+
+            int start = input.index();
+            int startLine = line;
+            int startColumn = column;
+            if (c == IntStream.EOF) {
+                return factory.create(source, Token.EOF, null, Token.DEFAULT_CHANNEL, start, start - 1, line, column);
+            }
+
+            //Het venster van een UnbufferedCharStream moet het hele token bevatten totdat het gemaakt is
+            int marker = input.mark();
+            try {
+                int length = match(c);
+                if (length > 0) {
+                    consume(length);
+                    return factory.create(source, matchedType, null, Token.DEFAULT_CHANNEL, start, start + length - 1,
+                            startLine, startColumn);
+                }
+
+                //Net als Antlr: het teken waarop het misging hoort bij de fout en wordt ook overgeslagen
+                int failed = -length;
+                String text = errorText(failed);
+                consume(input.LA(failed) == IntStream.EOF ? failed - 1 : failed);
+                listener.syntaxError(null, null, startLine, startColumn, "token recognition error at: '" + text + "'", null);
+            } finally {
+                input.release(marker);
+            }
+        }
+    }
+
+    /**
+     * Zoekt het langste token dat bij het huidige teken begint.
+     *
+     * @param c Het eerste teken.
+     * @return De lengte van het token (het type staat dan in matchedType), of min de positie van het
+     * teken waarop geen enkel token meer mogelijk was.
+     */
+    private int match(int c) {
+        if (is(c, LOWER)) {
+            int length = 1 + run(2, LOWER_PART);
+            matchedType = ICSSLexer.LOWER_IDENT;
+            if (length == 2 && c == 'i' && input.LA(2) == 'f') {
+                matchedType = ICSSLexer.IF;
+            } else if (length == 4 && c == 'e' && input.LA(2) == 'l' && input.LA(3) == 's' && input.LA(4) == 'e') {
+                matchedType = ICSSLexer.ELSE;
+            }
+            return length;
+        }
+
+        if (is(c, UPPER)) {
+            int length = 1 + run(2, CAPITAL_PART);
+            matchedType = ICSSLexer.CAPITAL_IDENT;
+            if (length == 4 && c == 'T' && input.LA(2) == 'R' && input.LA(3) == 'U' && input.LA(4) == 'E') {
+                matchedType = ICSSLexer.TRUE;
+            } else if (length == 5 && c == 'F' && input.LA(2) == 'A' && input.LA(3) == 'L' && input.LA(4) == 'S'
+                    && input.LA(5) == 'E') {
+                matchedType = ICSSLexer.FALSE;
+            }
+            return length;
+        }
+
+        if (is(c, DIGIT)) {
+            int digits = run(1, DIGIT);
+            int next = input.LA(digits + 1);
+            if (next == 'p' && input.LA(digits + 2) == 'x') {
+                matchedType = ICSSLexer.PIXELSIZE;
+                return digits + 2;
+            }
+            if (next == '%') {
+                matchedType = ICSSLexer.PERCENTAGE;
+                return digits + 1;
+            }
+            matchedType = ICSSLexer.SCALAR;
+            return digits;
+        }
+
+        switch (c) {
+            case '#': {
+                int length = run(2, LOWER_PART);
+                if (length == 0) {
+                    return -2;
+                }
+                //Zes hextekens zijn zowel COLOR als ID_IDENT; COLOR staat eerst in de grammatica
+                matchedType = length == 6 && run(2, HEX) == 6 ? ICSSLexer.COLOR : ICSSLexer.ID_IDENT;
+                return 1 + length;
+            }
+            case '.': {
+                int length = run(2, LOWER_PART);
+                if (length == 0) {
+                    return -2;
+                }
+                matchedType = ICSSLexer.CLASS_IDENT;
+                return 1 + length;
+            }
+            case ':':
+                if (input.LA(2) == '=') {
+                    matchedType = ICSSLexer.ASSIGNMENT_OPERATOR;
+                    return 2;
+                }
+                matchedType = ICSSLexer.COLON;
+                return 1;
+            default:
+                if (c < PUNCTUATION.length && PUNCTUATION[c] != 0) {
+                    matchedType = PUNCTUATION[c];
+                    return 1;
+                }
+                return -1;
+        }
+    }
+
+    /**
+     * @return Het aantal opeenvolgende tekens vanaf lookahead-positie from die in de klasse vallen.
+     */
+    private int run(int from, int mask) {
+        int i = from;
+        while (is(input.LA(i), mask)) {
+            i++;
+        }
+        return i - from;
+    }
+
+    private static boolean is(int c, int mask) {
+        return c >= 0 && c < CLASSES.length && (CLASSES[c] & mask) != 0;
+    }
+
+    /**
+     * @return De tekens tot en met het teken op lookahead-positie last, zoals Antlr ze in een foutmelding toont.
+     */
+    private String errorText(int last) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i <= last; i++) {
+            int c = input.LA(i);
+            if (c == IntStream.EOF) {
+                break;
+            }
+            switch (c) {
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                default:
+                    builder.appendCodePoint(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private void consume(int length) {
+        for (int i = 0; i < length; i++) {
+            consumeChar(input.LA(1));
+        }
+    }
+
+    private void consumeChar(int c) {
+        if (c == '\n') {
+            line++;
+            column = 0;
+        } else {
+            column++;
+        }
+        input.consume();
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return column;
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        return input;
+    }
+
+    @Override
+    public String getSourceName() {
+        return input.getSourceName();
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+        return factory;
+    }
+}
@@ -0,0 +1,150 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CodePointBuffer;
+import org.antlr.v4.runtime.CodePointCharStream;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Maakt Antlr CharStreams van bestanden, channels, readers en input streams, zonder dat de aanroeper
+ * de invoer eerst in een String hoeft te lezen.
+ *
+ * ICSS-bronnen zijn in de praktijk ASCII. Voor bestanden en channels worden de bytes daarom direct als
+ * 8-bit code points gebruikt, zonder te decoderen en met één byte per teken; alleen als er een byte
+ * buiten ASCII voorkomt wordt alsnog als UTF-8 gedecodeerd. Grote bestanden worden niet gelezen maar in
+ * het geheugen gemapt, zodat ze niet op de heap komen (zie {@link MappedAsciiCharStream}). Readers en input streams worden niet
+ * gebufferd: de lexer ziet dan alleen een schuivend venster van de invoer.
+ */
+public final class IcssCharStreams {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int UNBUFFERED_SIZE = 4096;
+
+    // Kleinere bestanden zijn sneller gelezen dan gemapt
+    static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private IcssCharStreams() { }
+
+    /**
+     * @param path Het te lezen bestand.
+     * @return Een CharStream met de volledige inhoud van het bestand.
+     * @throws IOException Als het bestand niet gelezen kan worden.
+     */
+    public static CharStream fromPath(Path path) throws IOException {
+        return fromPath(path, MAP_THRESHOLD);
+    }
+
+    /**
+     * @param path         Het te lezen bestand.
+     * @param mapThreshold Vanaf deze grootte wordt het bestand gemapt in plaats van gelezen.
+     * @return Een CharStream met de volledige inhoud van het bestand.
+     * @throws IOException Als het bestand niet gelezen kan worden.
+     */
+    static CharStream fromPath(Path path, long mapThreshold) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Bestand is te groot om te parsen: " + path);
+            }
+
+            if (size >= mapThreshold) {
+                //De mapping blijft geldig nadat het channel gesloten is
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (MappedAsciiCharStream.isAscii(mapped)) {
+                    return new MappedAsciiCharStream(mapped, path.toString());
+                }
+
+                channel.position(0);
+                return CharStreams.fromChannel(channel, StandardCharsets.UTF_8, CHUNK_SIZE,
+                        CodingErrorAction.REPLACE, path.toString(), size);
+            }
+
+            ByteBuffer bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // Lees door totdat de buffer vol is of het bestand op is
+            }
+            bytes.flip();
+
+            return fromBytes(bytes, path.toString());
+        }
+    }
+
+    /**
+     * @param channel Het te lezen channel; dit wordt tot het einde gelezen maar niet gesloten.
+     * @return Een CharStream met de volledige inhoud van het channel.
+     * @throws IOException Als het channel niet gelezen kan worden.
+     */
+    public static CharStream fromChannel(ReadableByteChannel channel) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE);
+        while (channel.read(bytes) >= 0) {
+            if (!bytes.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+                bytes.flip();
+                larger.put(bytes);
+                bytes = larger;
+            }
+        }
+        bytes.flip();
+
+        return fromBytes(bytes, CharStream.UNKNOWN_SOURCE_NAME);
+    }
+
+    /**
+     * @param reader De te lezen reader; deze wordt niet gesloten.
+     * @return Een ongebufferde CharStream over de reader.
+     */
+    public static CharStream unbuffered(Reader reader) {
+        return new UnbufferedCharStream(reader, UNBUFFERED_SIZE);
+    }
+
+    /**
+     * @param inputStream De te lezen UTF-8 stream; deze wordt niet gesloten.
+     * @return Een ongebufferde CharStream over de stream.
+     */
+    public static CharStream unbuffered(InputStream inputStream) {
+        return new UnbufferedCharStream(inputStream, UNBUFFERED_SIZE, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Maakt een CharStream van UTF-8 bytes, met een snelle route voor pure ASCII.
+     *
+     * @param bytes De bytes tussen position en limit; de buffer moet een array hebben.
+     * @param name  De naam van de bron, voor foutmeldingen.
+     * @return Een CharStream over de bytes.
+     * @throws IOException Als de bytes geen geldige UTF-8 zijn.
+     */
+    static CharStream fromBytes(ByteBuffer bytes, String name) throws IOException {
+        if (isAscii(bytes)) {
+            return CodePointCharStream.fromBuffer(CodePointBuffer.withBytes(bytes), name);
+        }
+
+        InputStream inputStream = new ByteArrayInputStream(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        return CharStreams.fromChannel(Channels.newChannel(inputStream), StandardCharsets.UTF_8, CHUNK_SIZE,
+                CodingErrorAction.REPLACE, name, bytes.remaining());
+    }
+
+    private static boolean isAscii(ByteBuffer bytes) {
+        byte[] array = bytes.array();
+        int end = bytes.arrayOffset() + bytes.limit();
+        for (int i = bytes.arrayOffset() + bytes.position(); i < end; i++) {
+            if (array[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,419 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.ASTVisitor;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.ElseClause;
+import nl.han.ica.icss.ast.Expression;
+import nl.han.ica.icss.ast.IfClause;
+import nl.han.ica.icss.ast.Operation;
+import nl.han.ica.icss.ast.PropertyName;
+import nl.han.ica.icss.ast.Selector;
+import nl.han.ica.icss.ast.SourcePosition;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.Stylerule;
+import nl.han.ica.icss.ast.Stylesheet;
+import nl.han.ica.icss.ast.VariableAssignment;
+import nl.han.ica.icss.ast.VariableReference;
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.ColorLiteral;
+import nl.han.ica.icss.ast.literals.PercentageLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Parset een steeds veranderende tekst, zoals die van de editor, opnieuw door alleen de top-level
+ * statements te parsen die sinds de vorige keer veranderd zijn. De AST-knopen van de statements
+ * ervoor en erna worden hergebruikt en samen met de nieuwe knopen in een nieuwe Stylesheet gezet.
+ *
+ * De posities van los geparste knopen worden verschoven naar hun plek in de nieuwe tekst, zodat ze gelijk zijn
+ * aan die van een volledige parse. Hergebruikte knopen zitten ook in de bomen van eerdere parses; een statement
+ * dat verschoven is wordt daarom gekopieerd, zodat die bomen hun posities houden.
+ *
+ * Alle parses tot de volgende volledige parse delen één {@link SymbolTable}, zodat de symbolen van hergebruikte
+ * en nieuwe knopen bij elkaar passen. Elke half getypte naam komt ook in die tabel; zodra hij twee keer zo groot
+ * is als na de laatste volledige parse, wordt de tekst weer volledig geparsed met een nieuwe tabel.
+ *
+ * Alleen een foutloze parse wordt onthouden. Zodra een veranderd statement een fout bevat, wordt de
+ * hele tekst opnieuw geparsed, zodat de foutmeldingen precies die van een volledige parse zijn.
+ */
+public class IncrementalParser {
+    // Een kleine tabel mag wat harder groeien voordat het een volledige parse waard is
+    private static final int MINIMUM_SYMBOL_GROWTH = 256;
+
+    private String previousText;
+    private TopLevelRegions previousRegions;
+    private ASTNode[] previousNodes;
+    private long[] previousBases;
+    private SymbolTable symbols;
+    private int symbolLimit;
+
+    /**
+     * Parset de tekst en hergebruikt daarbij zoveel mogelijk van de vorige parse.
+     *
+     * @param text     De volledige tekst.
+     * @param listener De listener die de syntaxfouten van een volledige parse ontvangt.
+     * @return Het AST van de tekst.
+     */
+    public AST parse(String text, ANTLRErrorListener listener) {
+        TopLevelRegions regions = TopLevelRegions.scan(text);
+
+        if (previousNodes != null && symbols.size() <= symbolLimit) {
+            long[] bases = basePositions(text, regions);
+            ASTNode[] nodes = reparseChanged(text, regions, bases);
+            if (nodes != null) {
+                remember(text, regions, nodes, bases);
+
+                Stylesheet stylesheet = new Stylesheet(new ArrayList<>(Arrays.asList(nodes)));
+                long end = bases[regions.count()];
+                stylesheet.setPosition(nodes.length > 0 ? nodes[0].getStart() : end, end);
+                return new AST(stylesheet, symbols);
+            }
+        }
+
+        return parseFully(text, regions, listener);
+    }
+
+    /**
+     * Vergeet de vorige parse, bijvoorbeeld omdat de knopen daarvan door een transformatie gewijzigd zijn.
+     */
+    public void reset() {
+        previousText = null;
+        previousRegions = null;
+        previousNodes = null;
+        previousBases = null;
+    }
+
+    private AST parseFully(String text, TopLevelRegions regions, ANTLRErrorListener listener) {
+        ErrorCounter counter = new ErrorCounter();
+        AST ast;
+        try {
+            symbols = new SymbolTable();
+            ast = StylesheetParser.parse(CharStreams.fromString(text), new ForwardingListener(listener, counter), symbols);
+        } finally {
+            reset();
+        }
+
+        ArrayList<ASTNode> body = ast.root.body;
+        if (counter.errors == 0 && body.size() == regions.count()) {
+            remember(text, regions, body.toArray(new ASTNode[0]), basePositions(text, regions));
+            symbolLimit = symbols.size() + Math.max(symbols.size(), MINIMUM_SYMBOL_GROWTH);
+        }
+
+        return ast;
+    }
+
+    /**
+     * @return De knopen van alle statements, of null als er een volledige parse nodig is.
+     */
+    private ASTNode[] reparseChanged(String text, TopLevelRegions regions, long[] bases) {
+        int count = regions.count();
+        int previousCount = previousRegions.count();
+
+        int prefix = 0;
+        while (prefix < count && prefix < previousCount && sameRegion(text, regions, prefix, prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < count - prefix && suffix < previousCount - prefix
+                && sameRegion(text, regions, count - 1 - suffix, previousCount - 1 - suffix)) {
+            suffix++;
+        }
+
+        ASTNode[] nodes = new ASTNode[count];
+        System.arraycopy(previousNodes, 0, nodes, 0, prefix);
+        System.arraycopy(previousNodes, previousCount - suffix, nodes, count - suffix, suffix);
+
+        for (int i = prefix; i < count - suffix; i++) {
+            nodes[i] = parseRegion(text.substring(regions.start(i), regions.end(i)));
+            if (nodes[i] == null) {
+                return null;
+            }
+        }
+
+        // De grammatica staat geen variable assignments na de eerste stylerule toe
+        boolean seenStylerule = false;
+        for (ASTNode node : nodes) {
+            if (node instanceof VariableAssignment && seenStylerule) {
+                return null;
+            }
+            seenStylerule |= node instanceof Stylerule;
+        }
+
+        for (int i = prefix; i < count - suffix; i++) {
+            relocate(nodes[i], SourcePosition.START, bases[i]);
+        }
+        for (int i = count - suffix; i < count; i++) {
+            long previousBase = previousBases[i - count + previousCount];
+            if (previousBase != bases[i]) {
+                nodes[i] = new RelocatedCopy(previousBase, bases[i]).copy(nodes[i]);
+            }
+        }
+
+        return nodes;
+    }
+
+    private boolean sameRegion(String text, TopLevelRegions regions, int region, int previousRegion) {
+        int length = regions.length(region);
+        return length == previousRegions.length(previousRegion)
+                && text.regionMatches(regions.start(region), previousText, previousRegions.start(previousRegion), length);
+    }
+
+    /**
+     * @return De knoop van het enige statement in de tekst, of null als het geen foutloos statement is.
+     */
+    private ASTNode parseRegion(String regionText) {
+        ErrorCounter counter = new ErrorCounter();
+        AST ast = StylesheetParser.parse(CharStreams.fromString(regionText), counter, symbols);
+
+        if (counter.errors != 0 || ast.root.body.size() != 1) {
+            return null;
+        }
+        return ast.root.body.get(0);
+    }
+
+    private void remember(String text, TopLevelRegions regions, ASTNode[] nodes, long[] bases) {
+        previousText = text;
+        previousRegions = regions;
+        previousNodes = nodes;
+        previousBases = bases;
+    }
+
+    /**
+     * @return De positie van het begin van elk statement in de tekst, met als laatste element het einde van de tekst.
+     */
+    private static long[] basePositions(String text, TopLevelRegions regions) {
+        int count = regions.count();
+        long[] bases = new long[count + 1];
+        int line = 1;
+        int lineStart = 0;
+        int offset = 0;
+
+        for (int i = 0; i <= count; i++) {
+            int start = i < count ? regions.start(i) : text.length();
+            for (; offset < start; offset++) {
+                if (text.charAt(offset) == '\n') {
+                    line++;
+                    lineStart = offset + 1;
+                }
+            }
+            bases[i] = SourcePosition.of(start, line, start - lineStart);
+        }
+
+        return bases;
+    }
+
+    /**
+     * Verschuift de posities van een knoop en zijn kinderen van het ene begin van een statement naar het andere.
+     * Alleen voor nieuw geparste knopen, die nog in geen enkele andere boom zitten.
+     */
+    private static void relocate(ASTNode node, long from, long to) {
+        node.setPosition(SourcePosition.relocate(SourcePosition.relative(node.getStart(), from), to),
+                SourcePosition.relocate(SourcePosition.relative(node.getEnd(), from), to));
+        for (int i = 0; i < node.getChildCount(); i++) {
+            relocate(node.getChild(i), from, to);
+        }
+    }
+
+    /**
+     * Kopieert een statement met de posities die het op een andere plek in de tekst heeft. Alleen knopen die de
+     * parser maakt worden gekopieerd; de symbolen en namen blijven die van de gedeelde tabel.
+     */
+    private static class RelocatedCopy implements ASTVisitor<ASTNode, Void> {
+        private final long from;
+        private final long to;
+
+        RelocatedCopy(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        ASTNode copy(ASTNode node) {
+            if (node == null) {
+                return null;
+            }
+
+            ASTNode copy = node.accept(this, null);
+            copy.setPosition(SourcePosition.relocate(SourcePosition.relative(node.getStart(), from), to),
+                    SourcePosition.relocate(SourcePosition.relative(node.getEnd(), from), to));
+            return copy;
+        }
+
+        private ArrayList<ASTNode> copy(ArrayList<ASTNode> nodes) {
+            ArrayList<ASTNode> copies = new ArrayList<>(nodes.size());
+            for (ASTNode node : nodes) {
+                copies.add(copy(node));
+            }
+            return copies;
+        }
+
+        private ASTNode copyOperation(Operation node, Operation copy) {
+            copy.lhs = (Expression) copy(node.lhs);
+            copy.rhs = (Expression) copy(node.rhs);
+            return copy;
+        }
+
+        @Override
+        public ASTNode visitNode(ASTNode node, Void context) {
+            throw new IllegalArgumentException("Can not copy " + node.getNodeLabel());
+        }
+
+        @Override
+        public ASTNode visitStylesheet(Stylesheet node, Void context) {
+            return new Stylesheet(copy(node.body));
+        }
+
+        @Override
+        public ASTNode visitStylerule(Stylerule node, Void context) {
+            Stylerule copy = new Stylerule();
+            for (Selector selector : node.selectors) {
+                copy.selectors.add((Selector) copy(selector));
+            }
+            copy.body = copy(node.body);
+            return copy;
+        }
+
+        @Override
+        public ASTNode visitClassSelector(ClassSelector node, Void context) {
+            return new ClassSelector(node.cls);
+        }
+
+        @Override
+        public ASTNode visitIdSelector(IdSelector node, Void context) {
+            return new IdSelector(node.id);
+        }
+
+        @Override
+        public ASTNode visitTagSelector(TagSelector node, Void context) {
+            return new TagSelector(node.tag);
+        }
+
+        @Override
+        public ASTNode visitDeclaration(Declaration node, Void context) {
+            Declaration copy = new Declaration();
+            copy.property = (PropertyName) copy(node.property);
+            copy.expression = (Expression) copy(node.expression);
+            return copy;
+        }
+
+        @Override
+        public ASTNode visitPropertyName(PropertyName node, Void context) {
+            return new PropertyName(node.name, node.symbol);
+        }
+
+        @Override
+        public ASTNode visitVariableAssignment(VariableAssignment node, Void context) {
+            VariableAssignment copy = new VariableAssignment();
+            copy.name = (VariableReference) copy(node.name);
+            copy.expression = (Expression) copy(node.expression);
+            return copy;
+        }
+
+        @Override
+        public ASTNode visitVariableReference(VariableReference node, Void context) {
+            return new VariableReference(node.name, node.symbol);
+        }
+
+        @Override
+        public ASTNode visitIfClause(IfClause node, Void context) {
+            IfClause copy = new IfClause();
+            copy.conditionalExpression = (Expression) copy(node.conditionalExpression);
+            copy.body = copy(node.body);
+            copy.elseClause = (ElseClause) copy(node.elseClause);
+            return copy;
+        }
+
+        @Override
+        public ASTNode visitElseClause(ElseClause node, Void context) {
+            return new ElseClause(copy(node.body));
+        }
+
+        @Override
+        public ASTNode visitAddOperation(AddOperation node, Void context) {
+            return copyOperation(node, new AddOperation());
+        }
+
+        @Override
+        public ASTNode visitSubtractOperation(SubtractOperation node, Void context) {
+            return copyOperation(node, new SubtractOperation());
+        }
+
+        @Override
+        public ASTNode visitMultiplyOperation(MultiplyOperation node, Void context) {
+            return copyOperation(node, new MultiplyOperation());
+        }
+
+        @Override
+        public ASTNode visitDivideOperation(DivideOperation node, Void context) {
+            return copyOperation(node, new DivideOperation());
+        }
+
+        @Override
+        public ASTNode visitBoolLiteral(BoolLiteral node, Void context) {
+            return new BoolLiteral(node.value);
+        }
+
+        @Override
+        public ASTNode visitColorLiteral(ColorLiteral node, Void context) {
+            return new ColorLiteral(node.value);
+        }
+
+        @Override
+        public ASTNode visitPercentageLiteral(PercentageLiteral node, Void context) {
+            return new PercentageLiteral(node.value);
+        }
+
+        @Override
+        public ASTNode visitPixelLiteral(PixelLiteral node, Void context) {
+            return new PixelLiteral(node.value);
+        }
+
+        @Override
+        public ASTNode visitScalarLiteral(ScalarLiteral node, Void context) {
+            return new ScalarLiteral(node.value);
+        }
+    }
+
+    private static class ErrorCounter extends BaseErrorListener {
+        int errors;
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                int charPositionInLine, String msg, RecognitionException e) {
+            errors++;
+        }
+    }
+
+    private static class ForwardingListener extends BaseErrorListener {
+        private final ANTLRErrorListener target;
+        private final ErrorCounter counter;
+
+        ForwardingListener(ANTLRErrorListener target, ErrorCounter counter) {
+            this.target = target;
+            this.counter = counter;
+        }
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                int charPositionInLine, String msg, RecognitionException e) {
+            counter.syntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, e);
+            target.syntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, e);
+        }
+    }
+}
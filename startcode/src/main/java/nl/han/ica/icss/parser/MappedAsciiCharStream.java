@@ -0,0 +1,114 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Een CharStream die ASCII-tekens rechtstreeks uit een ByteBuffer leest, meestal een in het geheugen
+ * gemapt bestand. Er wordt niets gekopieerd of gedecodeerd; alleen de tekst van tokens wordt als String
+ * gemaakt. De buffer mag alleen ASCII bevatten (zie {@link #isAscii(ByteBuffer)}).
+ */
+class MappedAsciiCharStream implements CharStream {
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final ByteBuffer bytes;
+    private final int size;
+    private final String name;
+    private int index;
+
+    /**
+     * @param bytes De tekens tussen 0 en limit; position wordt niet gebruikt.
+     * @param name  De naam van de bron, voor foutmeldingen.
+     */
+    MappedAsciiCharStream(ByteBuffer bytes, String name) {
+        this.bytes = bytes;
+        this.size = bytes.limit();
+        this.name = name;
+    }
+
+    /**
+     * @return true als alle bytes tussen 0 en limit ASCII zijn.
+     */
+    static boolean isAscii(ByteBuffer bytes) {
+        int limit = bytes.limit();
+        int i = 0;
+        //Acht bytes tegelijk: geen enkele byte mag het hoogste bit hebben
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            if ((bytes.getLong(i) & HIGH_BITS) != 0) {
+                return false;
+            }
+        }
+        for (; i < limit; i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = Math.max(interval.a, 0);
+        int stop = Math.min(interval.b, size - 1);
+        if (stop < start) {
+            return "";
+        }
+
+        byte[] text = new byte[stop - start + 1];
+        bytes.get(start, text, 0, text.length);
+        return new String(text, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public void consume() {
+        if (index >= size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        index++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+        int position = i > 0 ? index + i - 1 : index + i;
+        if (position < 0 || position >= size) {
+            return IntStream.EOF;
+        }
+        return bytes.get(position);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public void seek(int index) {
+        this.index = Math.min(index, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return name;
+    }
+}
@@ -0,0 +1,47 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.SourcePosition;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Zet de posities van Antlr-tokens om naar de gepakte posities van AST-nodes (zie {@link SourcePosition}).
+ * De contexts zelf worden niet bewaard, zodat de parse tree na het bouwen weg kan.
+ */
+final class NodePositions {
+
+    private NodePositions() { }
+
+    /**
+     * Geeft de node de positie van de tokens van de regel, van het eerste token tot en met het laatste.
+     */
+    static void locate(ASTNode node, ParserRuleContext ctx) {
+        node.setPosition(start(ctx.getStart()), end(ctx));
+    }
+
+    /**
+     * @return De positie direct na het laatste token van de regel.
+     */
+    static long end(ParserRuleContext ctx) {
+        Token stop = ctx.getStop();
+        //Na een syntaxfout kan een regel zonder tokens eindigen; dan is het eind gelijk aan het begin
+        if (stop == null || stop.getStopIndex() < ctx.getStart().getStartIndex()) {
+            stop = ctx.getStart();
+        }
+
+        return end(stop);
+    }
+
+    static long start(Token token) {
+        return SourcePosition.of(token.getStartIndex(), token.getLine(), token.getCharPositionInLine());
+    }
+
+    /**
+     * @return De positie direct na het token. ICSS-tokens lopen nooit over een regeleinde heen.
+     */
+    static long end(Token token) {
+        int length = Math.max(0, token.getStopIndex() - token.getStartIndex() + 1);
+        return SourcePosition.of(token.getStartIndex() + length, token.getLine(), token.getCharPositionInLine() + length);
+    }
+}
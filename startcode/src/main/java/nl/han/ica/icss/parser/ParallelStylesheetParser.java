@@ -0,0 +1,316 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.PropertyName;
+import nl.han.ica.icss.ast.Stylerule;
+import nl.han.ica.icss.ast.Stylesheet;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.VariableAssignment;
+import nl.han.ica.icss.ast.VariableReference;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import nl.han.ica.icss.metrics.WorkerCost;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parset één grote stylesheet op meerdere cores. De tekst wordt één keer doorlopen om de grenzen van de
+ * top-level statements te vinden (zie {@link TopLevelRegions}) en in stukken van hele statements verdeeld.
+ * Elk stuk wordt met een eigen lexer en parser geparsed, met de posities die het in de hele tekst heeft;
+ * daarna worden de statements in bronvolgorde in één Stylesheet gezet en de symbolentabellen van de stukken
+ * samengevoegd.
+ *
+ * Alleen een foutloze tekst wordt zo geparsed. Zodra een stuk een fout bevat, of de stukken samen de
+ * grammatica schenden, wordt de hele tekst opnieuw na elkaar geparsed; de meldingen zijn dan precies die
+ * van {@link StylesheetParser}.
+ */
+public final class ParallelStylesheetParser {
+    // Kleinere stukken kosten meer aan overhead dan ze aan parallellisme opleveren
+    static final int MINIMUM_CHUNK_SIZE = 64 * 1024;
+
+    // Meer stukken dan workers, zodat een trage worker de rest niet ophoudt
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private ParallelStylesheetParser() { }
+
+    /**
+     * Parset de tekst tot een AST, op de workers van de pool. Teksten van minder dan twee stukken, of een pool
+     * met maar één worker, worden gewoon na elkaar geparsed.
+     *
+     * @param text     De te parsen tekst.
+     * @param listener De listener die de syntaxfouten ontvangt.
+     * @param pool     De pool waarop de stukken geparsed worden.
+     * @return Het AST van de tekst.
+     */
+    public static AST parse(String text, ANTLRErrorListener listener, ForkJoinPool pool) {
+        return parse(text, listener, pool, null);
+    }
+
+    /**
+     * Parset de tekst zoals {@link #parse(String, ANTLRErrorListener, ForkJoinPool)} en telt de kosten van het
+     * werk op de workers op.
+     *
+     * @param workers De teller voor de kosten van de workers, of null om niet te meten.
+     */
+    public static AST parse(String text, ANTLRErrorListener listener, ForkJoinPool pool, WorkerCost workers) {
+        if (pool.getParallelism() < 2) {
+            return StylesheetParser.parse(CharStreams.fromString(text), listener);
+        }
+
+        int chunkSize = Math.max(MINIMUM_CHUNK_SIZE, text.length() / (pool.getParallelism() * CHUNKS_PER_WORKER));
+        return parse(text, listener, pool, chunkSize, workers);
+    }
+
+    static AST parse(String text, ANTLRErrorListener listener, ForkJoinPool pool, int chunkSize) {
+        return parse(text, listener, pool, chunkSize, null);
+    }
+
+    static AST parse(String text, ANTLRErrorListener listener, ForkJoinPool pool, int chunkSize, WorkerCost workers) {
+        int[] chunkStarts = chunkStarts(text, chunkSize);
+        if (chunkStarts.length > 2) {
+            AST ast = parseChunks(text, chunkStarts, pool, workers);
+            if (ast != null) {
+                return ast;
+            }
+        }
+
+        return StylesheetParser.parse(CharStreams.fromString(text), listener);
+    }
+
+    /**
+     * @return Het begin van elk stuk, met als laatste element de lengte van de tekst. Het eerste stuk begint
+     * bij 0 en elk volgend stuk bij het begin van een statement.
+     */
+    private static int[] chunkStarts(String text, int chunkSize) {
+        TopLevelRegions regions = TopLevelRegions.scan(text);
+        int[] starts = new int[8];
+        int count = 1;
+
+        for (int i = 0; i < regions.count(); i++) {
+            if (regions.start(i) - starts[count - 1] >= chunkSize) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = regions.start(i);
+            }
+        }
+
+        starts = Arrays.copyOf(starts, count + 1);
+        starts[count] = text.length();
+        return starts;
+    }
+
+    /**
+     * @return Het AST, of null als een stuk een fout bevat.
+     */
+    private static AST parseChunks(String text, int[] chunkStarts, ForkJoinPool pool, WorkerCost workers) {
+        int chunks = chunkStarts.length - 1;
+        long[] lineStarts = lineStarts(text, chunkStarts);
+        AST[] asts = new AST[chunks];
+        boolean[] failed = new boolean[1];
+
+        pool.invoke(new ChunkTask(text, chunkStarts, lineStarts, asts, failed, workers, 0, chunks));
+        if (failed[0]) {
+            return null;
+        }
+
+        // De grammatica staat geen variable assignments na de eerste stylerule toe
+        ArrayList<ASTNode> body = new ArrayList<>();
+        boolean seenStylerule = false;
+        for (AST ast : asts) {
+            for (ASTNode node : ast.root.body) {
+                if (node instanceof VariableAssignment && seenStylerule) {
+                    return null;
+                }
+                seenStylerule |= node instanceof Stylerule;
+                body.add(node);
+            }
+        }
+
+        SymbolTable symbols = mergeSymbols(asts, pool, workers);
+
+        Stylesheet stylesheet = new Stylesheet(body);
+        stylesheet.setPosition(asts[0].root.getStart(), asts[chunks - 1].root.getEnd());
+        return new AST(stylesheet, symbols);
+    }
+
+    /**
+     * @return Per stuk de regel (in de bovenste 32 bits) en kolom waarop het begint.
+     */
+    private static long[] lineStarts(String text, int[] chunkStarts) {
+        long[] lineStarts = new long[chunkStarts.length - 1];
+        int line = 1;
+        int lineStart = 0;
+        int offset = 0;
+
+        for (int i = 0; i < lineStarts.length; i++) {
+            for (; offset < chunkStarts[i]; offset++) {
+                if (text.charAt(offset) == '\n') {
+                    line++;
+                    lineStart = offset + 1;
+                }
+            }
+            lineStarts[i] = (long) line << 32 | (chunkStarts[i] - lineStart);
+        }
+
+        return lineStarts;
+    }
+
+    /**
+     * Voegt de symbolentabellen van de stukken samen in die van het eerste stuk en zet de symbolen en namen
+     * van de knopen van de andere stukken om naar die tabel.
+     */
+    private static SymbolTable mergeSymbols(AST[] asts, ForkJoinPool pool, WorkerCost workers) {
+        SymbolTable symbols = asts[0].symbols;
+        int[][] remaps = new int[asts.length][];
+
+        for (int i = 1; i < asts.length; i++) {
+            SymbolTable chunkSymbols = asts[i].symbols;
+            remaps[i] = new int[chunkSymbols.size()];
+            for (int symbol = 0; symbol < chunkSymbols.size(); symbol++) {
+                remaps[i][symbol] = symbols.intern(chunkSymbols.name(symbol));
+            }
+        }
+
+        //Vanaf hier wordt de tabel alleen nog gelezen, dus de stukken kunnen tegelijk omgezet worden
+        pool.invoke(new RemapTask(asts, remaps, symbols, workers, 1, asts.length));
+        return symbols;
+    }
+
+    private static void remap(ASTNode node, int[] remap, SymbolTable symbols) {
+        if (node instanceof VariableReference) {
+            VariableReference reference = (VariableReference) node;
+            reference.symbol = remap[reference.symbol];
+            reference.name = symbols.name(reference.symbol);
+        } else if (node instanceof PropertyName) {
+            PropertyName property = (PropertyName) node;
+            property.symbol = remap[property.symbol];
+            property.name = symbols.name(property.symbol);
+        } else if (node instanceof ClassSelector) {
+            ((ClassSelector) node).cls = symbols.name(symbols.find(((ClassSelector) node).cls));
+        } else if (node instanceof IdSelector) {
+            ((IdSelector) node).id = symbols.name(symbols.find(((IdSelector) node).id));
+        } else if (node instanceof TagSelector) {
+            ((TagSelector) node).tag = symbols.name(symbols.find(((TagSelector) node).tag));
+        }
+
+        for (int i = 0; i < node.getChildCount(); i++) {
+            remap(node.getChild(i), remap, symbols);
+        }
+    }
+
+    private static void measure(WorkerCost workers, Runnable work) {
+        if (workers == null) {
+            work.run();
+        } else {
+            workers.measure(work);
+        }
+    }
+
+    /**
+     * Fork-join taak die de stukken verdeelt totdat elk stuk op een eigen worker geparsed wordt.
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+        private final int[] chunkStarts;
+        private final long[] lineStarts;
+        private final AST[] asts;
+        private final boolean[] failed;
+        private final WorkerCost workers;
+        private final int from;
+        private final int to;
+
+        ChunkTask(String text, int[] chunkStarts, long[] lineStarts, AST[] asts, boolean[] failed, WorkerCost workers,
+                  int from, int to) {
+            this.text = text;
+            this.chunkStarts = chunkStarts;
+            this.lineStarts = lineStarts;
+            this.asts = asts;
+            this.failed = failed;
+            this.workers = workers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                measure(workers, () -> parseChunk(from));
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(text, chunkStarts, lineStarts, asts, failed, workers, from, middle),
+                    new ChunkTask(text, chunkStarts, lineStarts, asts, failed, workers, middle, to));
+        }
+
+        private void parseChunk(int chunk) {
+            ErrorCounter counter = new ErrorCounter();
+            TextSliceCharStream input = new TextSliceCharStream(text, chunkStarts[chunk], chunkStarts[chunk + 1]);
+            ICSSFastLexer lexer = new ICSSFastLexer(input, counter, (int) (lineStarts[chunk] >>> 32), (int) lineStarts[chunk]);
+
+            asts[chunk] = StylesheetParser.parse(lexer, counter, new SymbolTable());
+            if (counter.errors != 0) {
+                //Het resultaat wordt pas na de join van alle taken gelezen
+                failed[0] = true;
+            }
+        }
+    }
+
+    /**
+     * Fork-join taak die de knopen van de stukken naar de samengevoegde symbolentabel omzet.
+     */
+    private static class RemapTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final AST[] asts;
+        private final int[][] remaps;
+        private final SymbolTable symbols;
+        private final WorkerCost workers;
+        private final int from;
+        private final int to;
+
+        RemapTask(AST[] asts, int[][] remaps, SymbolTable symbols, WorkerCost workers, int from, int to) {
+            this.asts = asts;
+            this.remaps = remaps;
+            this.symbols = symbols;
+            this.workers = workers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                measure(workers, () -> remap(asts[from].root, remaps[from], symbols));
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RemapTask(asts, remaps, symbols, workers, from, middle),
+                    new RemapTask(asts, remaps, symbols, workers, middle, to));
+        }
+    }
+
+    private static class ErrorCounter extends BaseErrorListener {
+        int errors;
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                int charPositionInLine, String msg, RecognitionException e) {
+            errors++;
+        }
+    }
+}
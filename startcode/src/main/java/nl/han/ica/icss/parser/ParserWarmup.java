@@ -0,0 +1,90 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Warmt de lexer en parser op voordat de eerste echte invoer binnenkomt. Het parsen van de eerste
+ * stylesheet in een JVM is duur: de ATN moet gedeserialiseerd worden en de gedeelde DFA-cache is nog
+ * leeg. Door bij het starten een corpus te parsen betaalt de eerste gebruiker daar niet meer voor.
+ *
+ * Het corpus bestaat uit de meegeleverde level0 t/m level3 stylesheets, aangevuld met alle .icss-bestanden
+ * in de map uit de system property {@value #CORPUS_PROPERTY}, zodat een project met eigen stylesheets de
+ * DFA kan vullen met precies de constructies die het gebruikt.
+ */
+public final class ParserWarmup {
+
+    //Set this system property to a directory with .icss files to add them to the warm-up corpus
+    public static final String CORPUS_PROPERTY = "icss.warmup.corpus";
+
+    private static final String[] BUNDLED = {"level0.icss", "level1.icss", "level2.icss", "level3.icss"};
+    private static boolean warmedUp;
+
+    private ParserWarmup() { }
+
+    /**
+     * Parset het corpus één keer per JVM; volgende aanroepen doen niets. Een mislukte warm-up telt niet, zodat
+     * de volgende aanroep het opnieuw probeert. Een corpusmap die niet bestaat wordt overgeslagen.
+     *
+     * @return Het aantal geparste stylesheets, of 0 als er al opgewarmd was.
+     * @throws UncheckedIOException Als een stylesheet van het corpus niet gelezen kan worden.
+     */
+    public static synchronized int warmUp() {
+        if (warmedUp) {
+            return 0;
+        }
+
+        int parsed = parseCorpus(System.getProperty(CORPUS_PROPERTY));
+        warmedUp = true;
+        return parsed;
+    }
+
+    /**
+     * @param corpus De map met extra stylesheets, of null voor alleen de meegeleverde.
+     * @return Het aantal geparste stylesheets.
+     */
+    static int parseCorpus(String corpus) {
+        int parsed = 0;
+        try {
+            for (String resource : BUNDLED) {
+                try (InputStream inputStream = ParserWarmup.class.getClassLoader().getResourceAsStream(resource)) {
+                    if (inputStream != null) {
+                        String source = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                        StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener());
+                        parsed++;
+                    }
+                }
+            }
+
+            if (corpus != null && Files.isDirectory(Paths.get(corpus))) {
+                for (Path file : findSources(Paths.get(corpus))) {
+                    StylesheetParser.parse(IcssCharStreams.fromPath(file), new BaseErrorListener());
+                    parsed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return parsed;
+    }
+
+    private static List<Path> findSources(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".icss"))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.flat.FlatAST;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+
+import java.util.function.Supplier;
+
+/**
+ * Lext ICSS-invoer met {@link ICSSFastLexer}, parset de tokens met de door Antlr gegenereerde parser en
+ * bouwt daar in dezelfde doorgang het AST van (zie {@link ASTBuilder}).
+ * Deze klasse heeft geen toestand, dus kan vanuit meerdere threads tegelijk gebruikt worden.
+ *
+ * Er wordt in twee stappen geparsed. Eerst met de snelle SLL-voorspelling en een strategie die bij de
+ * eerste fout stopt; dat lukt voor vrijwel alle invoer. Alleen als dat mislukt wordt dezelfde tokenstroom
+ * opnieuw geparsed met volledige LL-voorspelling en de gewone foutafhandeling, zodat de meldingen gelijk
+ * zijn aan die van één LL-parse. De DFA-cache van de parser is statisch en wordt dus door alle parsers in
+ * de JVM gedeeld; zie {@link ParserWarmup} om die vooraf op te warmen.
+ */
+public final class StylesheetParser {
+
+    private StylesheetParser() { }
+
+    /**
+     * Parset de invoer tot een AST. Syntaxfouten worden aan de listener gemeld; de parser herstelt
+     * zich daarvan en levert toch een (onvolledig) AST op.
+     *
+     * @param input    De te parsen invoer.
+     * @param listener De listener die de syntaxfouten van lexer en parser ontvangt.
+     * @return Het AST van de invoer.
+     */
+    public static AST parse(CharStream input, ANTLRErrorListener listener) {
+        return parse(input, listener, new SymbolTable());
+    }
+
+    /**
+     * Parset de invoer tot een AST waarvan de namen in de gegeven symbolentabel komen.
+     *
+     * @param input    De te parsen invoer.
+     * @param listener De listener die de syntaxfouten van lexer en parser ontvangt.
+     * @param symbols  De symbolentabel van het AST; deze mag niet tegelijk door een andere parse gebruikt worden.
+     * @return Het AST van de invoer.
+     */
+    public static AST parse(CharStream input, ANTLRErrorListener listener, SymbolTable symbols) {
+        return parse(lexer(input, listener), listener, symbols);
+    }
+
+    /**
+     * Parset de invoer tot een {@link FlatAST}, zonder een object per node. Syntaxfouten worden net als bij
+     * {@link #parse(CharStream, ANTLRErrorListener)} gemeld en hersteld.
+     *
+     * @param input    De te parsen invoer.
+     * @param listener De listener die de syntaxfouten van lexer en parser ontvangt.
+     * @return De platte boom van de invoer.
+     */
+    public static FlatAST parseFlat(CharStream input, ANTLRErrorListener listener) {
+        SymbolTable symbols = new SymbolTable();
+        return parse(lexer(input, listener), listener, () -> new FlatASTBuilder(symbols)).getAST();
+    }
+
+    private static ICSSFastLexer lexer(CharStream input, ANTLRErrorListener listener) {
+        //Lex (with the hand-written lexer, which produces the same tokens as Antlr's generated lexer)
+        ICSSFastLexer lexer = new ICSSFastLexer(input, listener);
+        if (input instanceof UnbufferedCharStream) {
+            // De tekens achter het venster zijn weg, dus tokens moeten hun tekst zelf bewaren
+            lexer.setTokenFactory(new CommonTokenFactory(true));
+        }
+        return lexer;
+    }
+
+    /**
+     * Parset de tokens van een lexer tot een AST.
+     */
+    static AST parse(TokenSource lexer, ANTLRErrorListener listener, SymbolTable symbols) {
+        return parse(lexer, listener, () -> new ASTBuilder(symbols)).getAST();
+    }
+
+    /**
+     * Parset de tokens met een builder van de leverancier als parse listener.
+     *
+     * @return De builder die de hele invoer gezien heeft.
+     */
+    private static <B extends ParseTreeListener> B parse(TokenSource lexer, ANTLRErrorListener listener, Supplier<B> builders) {
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+
+        //Parse (with Antlr's generated parser), first with SLL prediction and bail out on the first error.
+        //The AST is built while parsing, so Antlr does not have to build a parse tree.
+        ICSSParser parser = new ICSSParser(tokens);
+        parser.setBuildParseTree(false);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+
+        B builder = builders.get();
+        parser.addParseListener(builder);
+        try {
+            parser.stylesheet();
+        } catch (ParseCancellationException e) {
+            //De tokens zijn al gebufferd, dus de lexer meldt zijn fouten niet nog een keer
+            tokens.seek(0);
+            parser.reset();
+            parser.addErrorListener(listener);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+
+            //Het half gebouwde AST van de eerste poging wordt weggegooid
+            builder = builders.get();
+            parser.removeParseListeners();
+            parser.addParseListener(builder);
+            parser.stylesheet();
+        }
+
+        return builder;
+    }
+}
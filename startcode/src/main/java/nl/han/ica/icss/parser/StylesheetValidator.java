@@ -0,0 +1,294 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.datastructures.HANScopeMap;
+import nl.han.ica.datastructures.IHANScopeMap;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.types.ExpressionType;
+import nl.han.ica.icss.checker.Operator;
+import nl.han.ica.icss.checker.SemanticError;
+import nl.han.ica.icss.checker.TypeRules;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Controleert of een stylesheet geldig is zonder er een AST van te bouwen. De invoer wordt met een
+ * ongebufferde tokenstroom geparsed en bij de eerste syntaxfout wordt gestopt. Tijdens het parsen worden
+ * dezelfde typeregels als in de {@link nl.han.ica.icss.checker.Checker} toegepast (zie {@link TypeRules}):
+ * er worden alleen de scopes met variabeletypes bijgehouden en de types van de expressie die op dat moment
+ * gelezen wordt. Het geheugengebruik hangt daardoor niet af van de grootte van de stylesheet.
+ *
+ * De semantische fouten zijn dezelfde als die van de Checker, maar worden gemeld in de volgorde waarin ze
+ * gevonden worden in plaats van in de volgorde van de boom.
+ */
+public class StylesheetValidator extends ICSSBaseListener {
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final IHANScopeMap<ExpressionType> variableTypes = new HANScopeMap<>();
+    private final List<SemanticError> errors = new ArrayList<>();
+
+    // De operanden en operatoren van de expressie die nu gelezen wordt; expressies zijn nooit genest
+    private ExpressionType[] operandTypes = new ExpressionType[8];
+    private boolean[] zeroOperands = new boolean[8];
+    private long[] operandStarts = new long[8];
+    private int operandCount;
+    private int[] operators = new int[8];
+    private int operatorCount;
+    private int position;
+
+    // Het type van de eerste expressie van de huidige declaratie of toewijzing, of null als er nog geen is
+    private ExpressionType expressionType;
+    private boolean ignoreExpression;
+    private int property;
+    private int variable;
+
+    private StylesheetValidator() { }
+
+    /**
+     * Parset en controleert de invoer. Syntaxfouten worden aan de listener gemeld; na de eerste syntaxfout
+     * wordt gestopt en worden er geen semantische fouten meer gezocht.
+     *
+     * @param input    De te controleren invoer.
+     * @param listener De listener die de syntaxfouten van lexer en parser ontvangt.
+     * @return De semantische fouten; leeg als de stylesheet geldig is of een syntaxfout bevat.
+     */
+    public static List<SemanticError> validate(CharStream input, ANTLRErrorListener listener) {
+        ICSSFastLexer lexer = new ICSSFastLexer(input, listener);
+        if (input instanceof UnbufferedCharStream) {
+            lexer.setTokenFactory(new CommonTokenFactory(true));
+        }
+
+        //Een ongebufferde tokenstroom kan niet terug naar het begin, dus geen SLL-poging met LL als vangnet:
+        //LL probeert zelf eerst SLL en is voor deze grammatica net zo snel
+        ICSSParser parser = new ICSSParser(new UnbufferedTokenStream<Token>(lexer));
+        parser.setBuildParseTree(false);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+
+        StylesheetValidator validator = new StylesheetValidator();
+        parser.addParseListener(validator);
+        try {
+            parser.stylesheet();
+        } catch (ParseCancellationException e) {
+            Token offending = e.getCause() instanceof RecognitionException
+                    ? ((RecognitionException) e.getCause()).getOffendingToken()
+                    : parser.getCurrentToken();
+            listener.syntaxError(parser, offending, offending.getLine(), offending.getCharPositionInLine(),
+                    "unexpected " + (offending.getType() == Token.EOF ? "end of input" : "'" + offending.getText() + "'"),
+                    e.getCause() instanceof RecognitionException ? (RecognitionException) e.getCause() : null);
+            return new ArrayList<>();
+        }
+
+        return validator.errors;
+    }
+
+    private void error(String description, long position) {
+        errors.add(new SemanticError(description, position));
+    }
+
+    @Override
+    public void enterStylesheet(ICSSParser.StylesheetContext ctx) {
+        variableTypes.openScope();
+    }
+
+    @Override
+    public void enterStyleRule(ICSSParser.StyleRuleContext ctx) {
+        variableTypes.openScope();
+    }
+
+    @Override
+    public void exitStyleRule(ICSSParser.StyleRuleContext ctx) {
+        variableTypes.closeScope();
+    }
+
+    @Override
+    public void enterIfClause(ICSSParser.IfClauseContext ctx) {
+        variableTypes.openScope();
+    }
+
+    @Override
+    public void enterElseClause(ICSSParser.ElseClauseContext ctx) {
+        //De else-tak ziet de variabelen uit de if-tak niet
+        variableTypes.closeScope();
+        variableTypes.openScope();
+    }
+
+    @Override
+    public void exitIfClause(ICSSParser.IfClauseContext ctx) {
+        variableTypes.closeScope();
+    }
+
+    @Override
+    public void enterDeclaration(ICSSParser.DeclarationContext ctx) {
+        expressionType = null;
+    }
+
+    @Override
+    public void exitPropertyName(ICSSParser.PropertyNameContext ctx) {
+        property = symbols.intern(ctx.getStart().getText());
+    }
+
+    @Override
+    public void exitDeclaration(ICSSParser.DeclarationContext ctx) {
+        long start = NodePositions.start(ctx.getStart());
+        TypeRules.declaration(property, expressionType, description -> error(description, start));
+    }
+
+    @Override
+    public void enterVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
+        expressionType = null;
+    }
+
+    @Override
+    public void exitVariableAssignment(ICSSParser.VariableAssignmentContext ctx) {
+        if (expressionType == null || expressionType == ExpressionType.UNDEFINED) {
+            error(TypeRules.ASSIGNMENT_UNDEFINED, NodePositions.start(ctx.getStart()));
+            return;
+        }
+
+        String typeChange = TypeRules.typeChange(variableTypes.get(variable), expressionType);
+        if (typeChange != null) {
+            error(typeChange, NodePositions.start(ctx.getStart()));
+        }
+        variableTypes.put(variable, expressionType);
+    }
+
+    @Override
+    public void exitVariableReference(ICSSParser.VariableReferenceContext ctx) {
+        ParserRuleContext parent = ctx.getParent();
+
+        if (parent instanceof ICSSParser.VariableAssignmentContext) {
+            variable = symbols.intern(ctx.getStart().getText());
+            return;
+        }
+        if (ignoreExpression && parent instanceof ICSSParser.LiteralContext) {
+            return;
+        }
+
+        ExpressionType type = variableTypes.get(symbols.intern(ctx.getStart().getText()));
+        if (type == null) {
+            error(TypeRules.UNDEFINED_VARIABLE, NodePositions.start(ctx.getStart()));
+            type = ExpressionType.UNDEFINED;
+        }
+        addOperand(ctx, type, false);
+    }
+
+    @Override
+    public void exitBoolLiteral(ICSSParser.BoolLiteralContext ctx) {
+        addOperand(ctx, ExpressionType.BOOL, false);
+    }
+
+    @Override
+    public void exitColorLiteral(ICSSParser.ColorLiteralContext ctx) {
+        addOperand(ctx, ExpressionType.COLOR, false);
+    }
+
+    @Override
+    public void exitPercentageLiteral(ICSSParser.PercentageLiteralContext ctx) {
+        addOperand(ctx, ExpressionType.PERCENTAGE, false);
+    }
+
+    @Override
+    public void exitPixelLiteral(ICSSParser.PixelLiteralContext ctx) {
+        addOperand(ctx, ExpressionType.PIXEL, false);
+    }
+
+    @Override
+    public void exitScalarLiteral(ICSSParser.ScalarLiteralContext ctx) {
+        addOperand(ctx, ExpressionType.SCALAR, Integer.parseInt(ctx.getStart().getText()) == 0);
+    }
+
+    /**
+     * Een literal binnen een expressie wordt een operand; daarbuiten is het de conditie van een if-clause.
+     */
+    private void addOperand(ParserRuleContext ctx, ExpressionType type, boolean zero) {
+        ParserRuleContext parent = ctx.getParent();
+        if (parent instanceof ICSSParser.IfClauseContext) {
+            if (type != ExpressionType.BOOL) {
+                error(TypeRules.CONDITION_NOT_BOOLEAN, NodePositions.start(parent.getStart()));
+            }
+            return;
+        }
+
+        if (operandCount == operandTypes.length) {
+            operandTypes = Arrays.copyOf(operandTypes, operandCount * 2);
+            zeroOperands = Arrays.copyOf(zeroOperands, operandCount * 2);
+            operandStarts = Arrays.copyOf(operandStarts, operandCount * 2);
+        }
+        operandTypes[operandCount] = type;
+        zeroOperands[operandCount] = zero;
+        operandStarts[operandCount] = NodePositions.start(ctx.getStart());
+        operandCount++;
+    }
+
+    @Override
+    public void enterExpression(ICSSParser.ExpressionContext ctx) {
+        //Het AST bewaart alleen de eerste expressie van een toewijzing, dus de Checker controleert de rest niet
+        ignoreExpression = expressionType != null;
+        operandCount = 0;
+        operatorCount = 0;
+    }
+
+    @Override
+    public void exitOperator(ICSSParser.OperatorContext ctx) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+        }
+        operators[operatorCount++] = ctx.getStart().getType();
+    }
+
+    @Override
+    public void exitExpression(ICSSParser.ExpressionContext ctx) {
+        if (ignoreExpression || operandCount == 0) {
+            return;
+        }
+
+        position = 0;
+        expressionType = fold(1);
+    }
+
+    /**
+     * Bepaalt het type van de expressie met precedence climbing, in dezelfde boomvorm als de
+     * {@link ExpressionParser} zou bouwen.
+     */
+    private ExpressionType fold(int minimumPrecedence) {
+        //Een operatie begint waar haar linkeroperand begint
+        long start = operandStarts[position];
+        ExpressionType left = operandTypes[position++];
+
+        while (position - 1 < operatorCount && ExpressionParser.precedence(operators[position - 1]) >= minimumPrecedence) {
+            int operator = operators[position - 1];
+            //Alleen een literal 0 als directe rechteroperand is een deling door nul, net als in de Checker
+            boolean zeroDivisor = zeroOperands[position]
+                    && (position >= operatorCount || ExpressionParser.precedence(operators[position]) <= ExpressionParser.precedence(operator));
+            ExpressionType right = fold(ExpressionParser.precedence(operator) + 1);
+            left = TypeRules.operation(toOperator(operator), left, right, zeroDivisor, description -> error(description, start));
+        }
+
+        return left;
+    }
+
+    private static Operator toOperator(int tokenType) {
+        switch (tokenType) {
+            case ICSSLexer.PLUS:
+                return Operator.ADD;
+            case ICSSLexer.MIN:
+                return Operator.SUBTRACT;
+            case ICSSLexer.MUL:
+                return Operator.MULTIPLY;
+            default:
+                return Operator.DIVIDE;
+        }
+    }
+}
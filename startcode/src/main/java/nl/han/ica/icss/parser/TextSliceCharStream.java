@@ -0,0 +1,84 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * Een CharStream over een deel van een tekst, zonder dat deel te kopiëren. De indexen zijn die van de hele
+ * tekst, zodat tokens dezelfde posities krijgen als bij het lexen van de hele tekst; na het deel volgt EOF.
+ *
+ * Elke UTF-16 char telt als één teken. Voor ICSS maakt dat niet uit: tekens buiten ASCII zijn altijd een
+ * lexerfout.
+ */
+class TextSliceCharStream implements CharStream {
+    private final String text;
+    private final int start;
+    private final int end;
+    private int index;
+
+    /**
+     * @param text  De hele tekst.
+     * @param start De index van het eerste teken van het deel.
+     * @param end   De index direct na het laatste teken van het deel.
+     */
+    TextSliceCharStream(String text, int start, int end) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.index = start;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int from = Math.max(interval.a, start);
+        int to = Math.min(interval.b + 1, end);
+        return from < to ? text.substring(from, to) : "";
+    }
+
+    @Override
+    public void consume() {
+        if (index >= end) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        index++;
+    }
+
+    @Override
+    public int LA(int i) {
+        int position = i > 0 ? index + i - 1 : index + i;
+        if (i == 0 || position < start || position >= end) {
+            return i == 0 ? 0 : IntStream.EOF;
+        }
+        return text.charAt(position);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public void seek(int index) {
+        this.index = Math.max(start, Math.min(index, end));
+    }
+
+    @Override
+    public int size() {
+        return end;
+    }
+
+    @Override
+    public String getSourceName() {
+        return IntStream.UNKNOWN_SOURCE_NAME;
+    }
+}
@@ -0,0 +1,91 @@
+package nl.han.ica.icss.parser;
+
+import java.util.Arrays;
+
+/**
+ * De grenzen van de top-level statements (variable assignments en stylerules) in een ICSS-tekst.
+ * De tekst wordt één keer doorlopen waarbij alleen accolades en puntkomma's geteld worden; er wordt
+ * niet gelext. Een statement eindigt bij een ';' buiten accolades of bij de '}' die de accolades weer
+ * sluit. Witruimte tussen statements hoort bij geen enkel region.
+ */
+public class TopLevelRegions {
+    private int[] starts;
+    private int[] ends;
+    private int count;
+
+    private TopLevelRegions(int capacity) {
+        starts = new int[capacity];
+        ends = new int[capacity];
+    }
+
+    /**
+     * @param text De ICSS-tekst.
+     * @return De regions van alle top-level statements, in bronvolgorde.
+     */
+    public static TopLevelRegions scan(CharSequence text) {
+        TopLevelRegions regions = new TopLevelRegions(16);
+        int length = text.length();
+        int i = 0;
+
+        while (i < length) {
+            while (i < length && isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+
+            int start = i;
+            int depth = 0;
+            while (i < length) {
+                char c = text.charAt(i++);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth <= 0) {
+                    break;
+                } else if (c == ';' && depth == 0) {
+                    break;
+                }
+            }
+            regions.add(start, i);
+        }
+
+        return regions;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private void add(int start, int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return De index van het eerste teken van het region.
+     */
+    public int start(int region) {
+        return starts[region];
+    }
+
+    /**
+     * @return De index direct na het laatste teken van het region.
+     */
+    public int end(int region) {
+        return ends[region];
+    }
+
+    public int length(int region) {
+        return ends[region] - starts[region];
+    }
+}
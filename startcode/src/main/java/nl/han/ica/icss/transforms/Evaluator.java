@@ -1,249 +1,276 @@
 package nl.han.ica.icss.transforms;
 
-import nl.han.ica.datastructures.IHANLinkedList;
-import nl.han.ica.datastructures.HANLinkedList;
+import nl.han.ica.datastructures.HANScopeMap;
+import nl.han.ica.datastructures.IHANScopeMap;
+import nl.han.ica.icss.checker.Operator;
+import nl.han.ica.icss.checker.SemanticError;
 import nl.han.ica.icss.ast.*;
 import nl.han.ica.icss.ast.literals.BoolLiteral;
-import nl.han.ica.icss.ast.literals.PercentageLiteral;
-import nl.han.ica.icss.ast.literals.PixelLiteral;
 import nl.han.ica.icss.ast.literals.ScalarLiteral;
-import nl.han.ica.icss.ast.operations.AddOperation;
-import nl.han.ica.icss.ast.operations.MultiplyOperation;
-import nl.han.ica.icss.ast.operations.SubtractOperation;
 
 import java.util.*;
 
+/**
+ * Rekent de variabelen, operaties en if-clauses van een gecheckt AST uit, zodat er alleen stylerules met
+ * declaraties van literals overblijven. Op het soort node wordt net als in de Checker met instanceof
+ * gedispatcht.
+ *
+ * De nodes van het gecheckte AST worden niet gewijzigd. {@link #evaluate(AST)} bouwt een nieuw AST dat elke
+ * ongewijzigde subboom deelt met het oude: alleen de nodes op het pad naar een gewijzigde node worden gekopieerd.
+ * Zo kan een gecheckt AST bewaard en vaker getransformeerd worden, en blijven beide bomen te bekijken.
+ */
 public class Evaluator implements Transform {
 
-    private IHANLinkedList<HashMap<String, Literal>> variableValues;
+    private IHANScopeMap<Literal> variableValues;
+    private SymbolTable symbols;
+    private final List<SemanticError> errors;
 
     public Evaluator() {
-        variableValues = new HANLinkedList<>();
+        variableValues = new HANScopeMap<>();
+        errors = new ArrayList<>();
     }
 
+    /**
+     * Fouten die pas tijdens het evalueren te zien zijn, zoals delen door een variabele met waarde 0.
+     * Zulke fouten horen niet bij een node, want de operatie is na het evalueren uit het AST verdwenen.
+     *
+     * @return De fouten van de laatste aanroep van apply.
+     */
+    public List<SemanticError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Vervangt de root van het AST door die van {@link #evaluate(AST)}. De nodes van de oude root blijven
+     * ongewijzigd.
+     */
     @Override
     public void apply(AST ast) {
-        Stylesheet stylesheet = ast.root;
+        ast.setRoot(evaluate(ast).root);
+    }
 
-        evaluateStylesheet(stylesheet);
+    /**
+     * Evalueer een gecheckt AST zonder het te wijzigen.
+     *
+     * @param ast Het AST om te evalueren.
+     * @return Een nieuw AST met dezelfde SymbolTable, dat de ongewijzigde subbomen deelt met het gegeven AST.
+     */
+    public AST evaluate(AST ast) {
+        //Een Evaluator wordt hergebruikt; ook na een afgebroken evaluatie begint hij met lege scopes
+        variableValues.clear();
+        symbols = ast.symbols;
+        errors.clear();
+        return new AST(evaluateStylesheet(ast.root), symbols);
     }
 
     /**
      * Evalueer de hele stylesheet door elke child ervan te behandelen.
      *
      * @param stylesheet De stylesheet om te evalueren.
+     * @return De stylesheet zelf als er niets veranderd is, anders een kopie met de geëvalueerde body.
      */
-    private void evaluateStylesheet(Stylesheet stylesheet) {
-        variableValues.addFirst(new HashMap<>());
-        List<ASTNode> nodesToRemove = new ArrayList<>();
-
-        for (ASTNode child : stylesheet.getChildren()) {
-            if (child instanceof VariableAssignment) {
-                evaluateVariableAssignment((VariableAssignment) child);
-                nodesToRemove.add(child);
-            } else if (child instanceof Stylerule) {
-                evaluateStylerule((Stylerule) child);
-            }
+    private Stylesheet evaluateStylesheet(Stylesheet stylesheet) {
+        variableValues.openScope();
+        ArrayList<ASTNode> nodesToKeep = new ArrayList<>();
+
+        //De toewijzingen vallen weg; de stylerules blijven over
+        for (int i = 0; i < stylesheet.getChildCount(); i++) {
+            evaluateStatement(stylesheet.getChild(i), nodesToKeep);
         }
 
-        variableValues.removeFirst();
-        nodesToRemove.forEach(stylesheet::removeChild);
+        variableValues.closeScope();
+        if (sameNodes(stylesheet.body, nodesToKeep)) {
+            return stylesheet;
+        }
+        return withPosition(new Stylesheet(nodesToKeep), stylesheet);
     }
 
     /**
-     * Evalueer een toewijzing van een variabele en werk deze eventueel bij.
+     * Evalueer een statement. De geëvalueerde nodes die in de body overblijven komen in de lijst: stylerules
+     * en declaraties, en de declaraties van de gekozen tak van een if-clause. Toewijzingen en andere nodes
+     * vallen weg.
+     *
+     * @param node       Het statement om te evalueren.
+     * @param parentBody De lijst waarin de geëvalueerde nodes worden toegevoegd.
+     */
+    private void evaluateStatement(ASTNode node, ArrayList<ASTNode> parentBody) {
+        if (node instanceof Declaration) {
+            parentBody.add(evaluateDeclaration((Declaration) node));
+        } else if (node instanceof Stylerule) {
+            parentBody.add(evaluateStylerule((Stylerule) node));
+        } else if (node instanceof IfClause) {
+            evaluateIfClause((IfClause) node, parentBody);
+        } else if (node instanceof VariableAssignment) {
+            evaluateVariableAssignment((VariableAssignment) node);
+        }
+    }
+
+    /**
+     * Evalueer een toewijzing van een variabele. De toewijzing zelf komt niet in het nieuwe AST, alleen de
+     * waarde wordt onthouden.
      *
      * @param variableAssignment De toewijzing van de variabele om te evalueren.
      */
     private void evaluateVariableAssignment(VariableAssignment variableAssignment) {
-        Expression expression = variableAssignment.expression;
-        variableAssignment.expression = evaluateExpression(expression);
+        Literal value = evaluateExpression(variableAssignment.expression);
 
-        variableValues.getFirst().put(variableAssignment.name.name, (Literal) variableAssignment.expression);
+        variableValues.put(symbols.symbol(variableAssignment.name), value);
     }
 
     /**
      * Evalueer een expressie in de AST.
      *
      * @param expression De expressie om te evalueren.
-     * @return Het resultaat van de evaluatie.
+     * @return Het resultaat van de evaluatie, of null voor een variabele zonder waarde.
      */
     private Literal evaluateExpression(Expression expression) {
         if (expression instanceof Operation) {
-            return evaluateOperation((Operation) expression);
-        }
-
-        if (expression instanceof VariableReference) {
-            return getVariableLiteral(((VariableReference) expression).name, variableValues);
+            Operation operation = (Operation) expression;
+            return evaluateOperation(operation, Operator.of(operation));
+        } else if (expression instanceof VariableReference) {
+            return getVariableLiteral((VariableReference) expression);
+        } else if (expression instanceof Literal) {
+            return (Literal) expression;
         }
 
-        return (Literal) expression;
+        return null;
     }
 
     /**
      * Evalueer een operatie en retourneer het resultaat.
      *
      * @param operation De operatie om te evalueren.
+     * @param operator  De operator van de operatie.
      * @return Het resultaat van de evaluatie als een literal.
      */
-    private Literal evaluateOperation(Operation operation) {
-        Literal left = getLiteralFromExpression(operation.lhs);
-        Literal right = getLiteralFromExpression(operation.rhs);
-
-        int leftValue = getLiteralValue(left);
-        int rightValue = getLiteralValue(right);
-
-        if (operation instanceof AddOperation) {
-            return createLiteral(left, leftValue + rightValue);
-        } else if (operation instanceof SubtractOperation) {
-            return createLiteral(left, leftValue - rightValue);
-        } else if (operation instanceof MultiplyOperation) {
-            if (right instanceof ScalarLiteral) {
-                return createLiteral(left, leftValue * rightValue);
-            } else {
-                return createLiteral(right, leftValue * rightValue);
-            }
-        } else {
-            return createLiteral(left, leftValue / rightValue);
+    private Literal evaluateOperation(Operation operation, Operator operator) {
+        //De Checker laat in operaties alleen pixels, percentages en scalars toe
+        NumericLiteral left = (NumericLiteral) evaluateExpression(operation.lhs);
+        NumericLiteral right = (NumericLiteral) evaluateExpression(operation.rhs);
+
+        switch (operator) {
+            case ADD:
+                return left.withValue(left.value + right.value);
+            case SUBTRACT:
+                return left.withValue(left.value - right.value);
+            case MULTIPLY:
+                if (right instanceof ScalarLiteral) {
+                    return left.withValue(left.value * right.value);
+                } else {
+                    return right.withValue(left.value * right.value);
+                }
+            default:
+                if (right.value == 0) {
+                    errors.add(new SemanticError("Delen door nul is niet toegestaan.", operation.getStart()));
+                    return left.withValue(0);
+                }
+                return left.withValue(left.value / right.value);
         }
     }
 
     /**
-     * Haal de waarde van een literal op.
+     * Haal de waarde van een variabele op uit de scopes die nu open zijn.
      *
-     * @param literal De literal waarvan de waarde wordt opgehaald.
-     * @return De integer waarde van de literal.
+     * @param variableReference De variabele.
+     * @return De waarde van de variabele, of null als deze niet gedeclareerd is.
      */
-    private int getLiteralValue(Literal literal) {
-        if (literal instanceof PixelLiteral) {
-            return ((PixelLiteral) literal).value;
-        } else if (literal instanceof ScalarLiteral) {
-            return ((ScalarLiteral) literal).value;
-        } else {
-            return ((PercentageLiteral) literal).value;
-        }
+    private Literal getVariableLiteral(VariableReference variableReference) {
+        return variableValues.get(symbols.symbol(variableReference));
     }
 
-    /**
-     * Creëer een nieuwe literal op basis van het gegeven waarde en het type van de originele literal.
-     *
-     * @param literal De originele literal waarvan het type wordt behouden.
-     * @param value   De nieuwe waarde van de literal.
-     * @return Een nieuwe literal met de bijgewerkte waarde.
-     */
-    private Literal createLiteral(Literal literal, int value) {
-        if (literal instanceof PixelLiteral) {
-            return new PixelLiteral(value);
-        } else if (literal instanceof ScalarLiteral) {
-            return new ScalarLiteral(value);
-        } else {
-            return new PercentageLiteral(value);
-        }
-    }
 
     /**
-     * Haal een literal op uit een expressie en evalueer deze indien nodig.
+     * Evalueer een stylerule.
      *
-     * @param expression De expressie waaruit een literal moet worden opgehaald of geëvalueerd.
-     * @return Een literal afkomstig uit de expressie of een geëvalueerde literal.
+     * @param stylerule De stylerule om te evalueren.
+     * @return De stylerule zelf als de body niet veranderd is, anders een kopie met dezelfde selectors.
      */
-    private Literal getLiteralFromExpression(Expression expression) {
-        if (expression instanceof Operation) {
-            return evaluateOperation((Operation) expression);
-        } else if (expression instanceof VariableReference) {
-            return getVariableLiteral(((VariableReference) expression).name, variableValues);
-        } else {
-            return (Literal) expression;
+    private Stylerule evaluateStylerule(Stylerule stylerule) {
+        variableValues.openScope();
+        ArrayList<ASTNode> nodesToAdd = new ArrayList<>();
+
+        for (int i = 0; i < stylerule.body.size(); i++) {
+            evaluateStatement(stylerule.body.get(i), nodesToAdd);
         }
-    }
 
-    /**
-     * Haal de waarde van een variabele op in de gegeven linked list.
-     *
-     * @param key            De naam van de variabele.
-     * @param variableValues De linked list met variabele waarden.
-     * @return Het resultaat van de variabele evaluatie.
-     */
-    public Literal getVariableLiteral(String key, IHANLinkedList<HashMap<String, Literal>> variableValues) {
-        for (HashMap<String, Literal> variableValue : variableValues) {
-            Literal result = variableValue.get(key);
-            if (result != null) {
-                return result;
-            }
+        variableValues.closeScope();
+        if (sameNodes(stylerule.body, nodesToAdd)) {
+            return stylerule;
         }
 
-        return null;
+        Stylerule evaluated = new Stylerule();
+        evaluated.selectors = new ArrayList<>(stylerule.selectors);
+        evaluated.body = nodesToAdd;
+        return withPosition(evaluated, stylerule);
     }
 
-
     /**
-     * Evalueer een stylerule en werk deze eventueel bij.
+     * Evalueer een declaratie.
      *
-     * @param stylerule De stylerule om te evalueren.
+     * @param declaration De declaratie om te evalueren.
+     * @return De declaratie zelf als de expressie al een literal was, anders een kopie met de uitkomst.
      */
-    private void evaluateStylerule(Stylerule stylerule) {
-        variableValues.addFirst(new HashMap<>());
-        ArrayList<ASTNode> nodesToAdd = new ArrayList<>();
-
-        for (ASTNode child : stylerule.body) {
-            evaluateStyleruleBody(child, nodesToAdd);
+    private Declaration evaluateDeclaration(Declaration declaration) {
+        Literal value = evaluateExpression(declaration.expression);
+        if (value == declaration.expression) {
+            return declaration;
         }
 
-        variableValues.removeFirst();
-        stylerule.body = nodesToAdd;
+        Declaration evaluated = new Declaration();
+        evaluated.property = declaration.property;
+        //Een gedeelde literal uit de berekening komt niet in de boom; de declaratie krijgt een eigen literal
+        //met de positie van de uitgerekende expressie
+        evaluated.expression = value.isShared()
+                ? withPosition(value.unshared(), declaration.expression)
+                : value;
+        return withPosition(evaluated, declaration);
     }
 
     /**
-     * Evalueer de body van een stylerule en werk deze bij.
+     * Evalueer een if-clause. De clause zelf verdwijnt; de statements van de gekozen tak worden geëvalueerd
+     * en in de body van de ouder gezet.
      *
-     * @param ruleBody   Het kind van de stylerule om te evalueren.
-     * @param parentBody De lijst waarin de bijgewerkte nodes worden toegevoegd.
+     * @param ifClause   De if-clausule om te evalueren.
+     * @param parentBody De lijst waarin de geëvalueerde nodes worden toegevoegd.
      */
-    private void evaluateStyleruleBody(ASTNode ruleBody, ArrayList<ASTNode> parentBody) {
-        if (ruleBody instanceof VariableAssignment) {
-            evaluateVariableAssignment((VariableAssignment) ruleBody);
-        } else if (ruleBody instanceof Declaration) {
-            evaluateDeclaration((Declaration) ruleBody);
-            parentBody.add(ruleBody);
-        } else if (ruleBody instanceof IfClause) {
-            evaluateIfClause((IfClause) ruleBody, parentBody);
+    private void evaluateIfClause(IfClause ifClause, ArrayList<ASTNode> parentBody) {
+        List<ASTNode> branch;
+        if (((BoolLiteral) evaluateExpression(ifClause.conditionalExpression)).value) {
+            branch = ifClause.body;
+        } else if (ifClause.elseClause != null) {
+            branch = ifClause.elseClause.body;
+        } else {
+            return;
         }
-    }
 
-    /**
-     * Evalueer een declaratie en werk de expressie binnenin bij.
-     *
-     * @param declaration De declaratie om te evalueren.
-     */
-    private void evaluateDeclaration(Declaration declaration) {
-        declaration.expression = evaluateExpression(declaration.expression);
+        for (int i = 0; i < branch.size(); i++) {
+            evaluateStatement(branch.get(i), parentBody);
+        }
     }
 
     /**
-     * Evalueer een if-clause en werk de body bij afhankelijk van de voorwaarde.
-     *
-     * @param ifClause   De if-clausule om te evalueren.
-     * @param parentBody De lijst waarin de bijgewerkte nodes worden toegevoegd.
+     * @return true als beide lijsten dezelfde objecten in dezelfde volgorde bevatten.
      */
-    private void evaluateIfClause(IfClause ifClause, ArrayList<ASTNode> parentBody) {
-        ifClause.conditionalExpression = evaluateExpression(ifClause.conditionalExpression);
-
-        if (((BoolLiteral) ifClause.conditionalExpression).value) {
-            if (ifClause.elseClause != null) {
-                ifClause.elseClause.body = new ArrayList<>();
-            }
-        } else {
-            if (ifClause.elseClause == null) {
-                ifClause.body = new ArrayList<>();
-            } else {
-                ifClause.body = ifClause.elseClause.body;
-                ifClause.elseClause.body = new ArrayList<>();
+    private static boolean sameNodes(List<ASTNode> original, List<ASTNode> evaluated) {
+        if (original.size() != evaluated.size()) {
+            return false;
+        }
+        for (int i = 0; i < original.size(); i++) {
+            if (original.get(i) != evaluated.get(i)) {
+                return false;
             }
         }
+        return true;
+    }
 
-        for (ASTNode child : ifClause.getChildren()) {
-            evaluateStyleruleBody(child, parentBody);
+    /**
+     * Geeft een kopie de positie van de node waar deze uit geëvalueerd is, zodat fouten en de GUI naar de
+     * bron kunnen blijven wijzen.
+     */
+    private static <T extends ASTNode> T withPosition(T evaluated, ASTNode original) {
+        if (original.hasPosition()) {
+            evaluated.setPosition(original.getStart(), original.getEnd());
         }
+        return evaluated;
     }
-
 }
@@ -0,0 +1,127 @@
+package nl.han.ica.icss.transforms;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+
+import java.util.Arrays;
+
+/**
+ * Hash-consing van het AST: gelijke subbomen, zoals herhaalde declaraties en stylerules met dezelfde body,
+ * worden één gedeeld object. Gelijk betekent hier gelijk volgens {@link ASTNode#equals}, dus posities, symbolen
+ * en fouten tellen niet mee.
+ *
+ * De boom wordt bottom-up doorlopen, zodat de kinderen van een node al gedeeld zijn als de node zelf opgezocht
+ * wordt; equals vindt die kinderen dan meteen op identiteit en de gecachte hashes worden maar één keer berekend.
+ * Alleen de nodes die overblijven bewaren hun hash.
+ *
+ * Na het delen staat een node voor alle gelijke voorkomens in de bron:
+ * - Een gedeelde node houdt de positie van het eerste voorkomen, dus de GUI en foutmeldingen wijzen voor alle
+ *   andere voorkomens naar de verkeerde plek.
+ * - setError op een gedeelde node markeert elk voorkomen, dus een pass die fouten op nodes zet (zoals de
+ *   Checker) hoort vóór het delen te draaien.
+ * De nodes worden ter plekke aangepast, dus nodes die het geëvalueerde AST deelt met het gecheckte AST krijgen
+ * ook daar gedeelde kinderen, met dezelfde gevolgen.
+ *
+ * Daarom zit deze transform niet in de {@link nl.han.ica.icss.Pipeline}: het is een losse bibliotheekklasse
+ * voor code die een AST alleen nog vergelijkt, opslaat of genereert, zoals {@code AstEqualityBenchmark}.
+ */
+public class SubtreeDeduplicator implements Transform {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    //De unieke nodes in een hashtabel met open adressering, met de hash van elke node ernaast
+    private ASTNode[] uniqueNodes = new ASTNode[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int uniqueCount;
+    private int sharedCount;
+
+    /**
+     * @return Het aantal kinderen dat bij de laatste aanroep van apply door een gedeelde node vervangen is.
+     */
+    public int getSharedCount() {
+        return sharedCount;
+    }
+
+    @Override
+    public void apply(AST ast) {
+        sharedCount = 0;
+        deduplicate(ast.root);
+        Arrays.fill(uniqueNodes, null);
+        uniqueCount = 0;
+    }
+
+    /**
+     * Deelt eerst de subbomen onder de node en zoekt daarna de node zelf op.
+     *
+     * @param node De node om te delen.
+     * @return Een eerder gevonden node die gelijk is, of de node zelf.
+     */
+    private ASTNode deduplicate(ASTNode node) {
+        for (int i = 0; i < node.getChildCount(); i++) {
+            ASTNode child = node.getChild(i);
+            if (child == null) {
+                continue;
+            }
+
+            ASTNode unique = deduplicate(child);
+            if (unique != child) {
+                node.shareChild(i, unique);
+                sharedCount++;
+            }
+        }
+
+        return unique(node);
+    }
+
+    /**
+     * Zoekt een node op zonder zijn hash te bewaren. Een bewaarde hash laat de kinderen de node onthouden,
+     * zodat ze hem kunnen vergeten als ze veranderen; de duplicaten die weggegooid worden, hoeven de gedeelde
+     * kinderen niet te onthouden.
+     *
+     * @param node De node om op te zoeken.
+     * @return Een eerder gevonden node die gelijk is, of de node zelf, die dan toegevoegd is.
+     */
+    private ASTNode unique(ASTNode node) {
+        int hash = node.hashWithoutKeeping();
+        int mask = uniqueNodes.length - 1;
+        int slot = spread(hash) & mask;
+        while (uniqueNodes[slot] != null) {
+            if (hashes[slot] == hash && uniqueNodes[slot].equals(node)) {
+                return uniqueNodes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        uniqueNodes[slot] = node;
+        hashes[slot] = hash;
+        if (++uniqueCount * 2 > uniqueNodes.length) {
+            grow();
+        }
+        return node;
+    }
+
+    private void grow() {
+        ASTNode[] oldNodes = uniqueNodes;
+        int[] oldHashes = hashes;
+        uniqueNodes = new ASTNode[oldNodes.length * 2];
+        hashes = new int[oldNodes.length * 2];
+        int mask = uniqueNodes.length - 1;
+        for (int i = 0; i < oldNodes.length; i++) {
+            if (oldNodes[i] != null) {
+                int slot = spread(oldHashes[i]) & mask;
+                while (uniqueNodes[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                uniqueNodes[slot] = oldNodes[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Verspreidt de hogere bits over de lagere, want het masker gebruikt alleen de lagere.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
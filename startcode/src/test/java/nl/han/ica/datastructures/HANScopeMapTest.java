@@ -0,0 +1,57 @@
+package nl.han.ica.datastructures;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HANScopeMapTest {
+    IHANScopeMap<String> sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new HANScopeMap<>();
+        sut.openScope();
+    }
+
+    @Test
+    void innerScopeHidesOuterValue() {
+        // Arrange
+        sut.put(3, "outer");
+        sut.openScope();
+
+        // Act
+        sut.put(3, "inner");
+
+        // Assert
+        assertEquals("inner", sut.get(3));
+    }
+
+    @Test
+    void closeScopeRestoresOuterValues() {
+        // Arrange
+        sut.put(3, "outer");
+        sut.openScope();
+        sut.put(3, "inner");
+        sut.put(3, "inner again");
+        sut.put(40, "only inner");
+
+        // Act
+        sut.closeScope();
+
+        // Assert
+        assertEquals("outer", sut.get(3));
+        assertNull(sut.get(40));
+    }
+
+    @Test
+    void unknownKeysAreNull() {
+        // Act
+        sut.clear();
+
+        // Assert
+        assertNull(sut.get(0));
+        assertNull(sut.get(1000));
+        assertThrows(IllegalStateException.class, () -> sut.put(0, "no scope"));
+    }
+}
@@ -0,0 +1,94 @@
+package nl.han.ica.icss;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.generator.Generator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcssCompilerTest {
+    private final IcssCompiler sut = new IcssCompiler();
+
+    @Test
+    void compilesValidSource() {
+        // Act
+        CompilationResult result = sut.compile("Width := 10px; p { width: Width * 2; }");
+
+        // Assert
+        assertTrue(result.isSucceeded());
+        assertEquals("p {\n  width: 20px;\n}\n", result.getCss());
+        assertTrue(result.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    void reportsSemanticErrorsWithoutCss() {
+        // Act
+        CompilationResult result = sut.compile("p { color: 10px; }");
+
+        // Assert
+        assertTrue(result.isParsed());
+        assertFalse(result.isChecked());
+        assertNull(result.getCss());
+        assertEquals(1, result.getDiagnostics().size());
+    }
+
+    @Test
+    void reportsSyntaxErrors() {
+        // Act
+        CompilationResult result = sut.compile("p { color: ; }");
+
+        // Assert
+        assertFalse(result.isParsed());
+        assertFalse(result.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    void changingTheASTDoesNotChangeTheResult() {
+        // Arrange
+        CompilationResult result = sut.compile("p { width: 10px; }");
+        AST first = result.getAST();
+
+        // Act
+        first.root.body.clear();
+
+        // Assert
+        AST second = result.getAST();
+        assertNotSame(first, second);
+        assertEquals(1, second.root.body.size());
+        assertEquals("p {\n  width: 10px;\n}\n", new Generator().generate(second));
+    }
+
+    @Test
+    void syntaxErrorTreesAreKept() {
+        // Act
+        CompilationResult result = sut.compile("p { color: ; }");
+
+        // Assert
+        assertNotNull(result.getAST().root);
+    }
+
+    @Test
+    void oneInstanceCanBeSharedBetweenThreads() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<CompilationResult>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            String source = "Width := " + i + "px; p { width: Width + 1px; }";
+            futures.add(executor.submit(() -> sut.compile(source)));
+        }
+
+        // Assert
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals("p {\n  width: " + (i + 1) + "px;\n}\n", futures.get(i).get().getCss());
+        }
+        executor.shutdown();
+    }
+}
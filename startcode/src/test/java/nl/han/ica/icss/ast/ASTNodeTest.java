@@ -0,0 +1,155 @@
+package nl.han.ica.icss.ast;
+
+import nl.han.ica.icss.ast.flat.FlatAST;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import nl.han.ica.icss.parser.Fixtures;
+import nl.han.ica.icss.parser.StylesheetParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ASTNodeTest {
+
+    @Test
+    void indexedChildrenMatchGetChildren() throws IOException {
+        for (String fixture : new String[]{"level0.icss", "level1.icss", "level2.icss", "level3.icss"}) {
+            // Arrange
+            String text = Fixtures.load(fixture);
+
+            // Act
+            AST ast = StylesheetParser.parse(CharStreams.fromString(text), new BaseErrorListener());
+            FlatAST flat = StylesheetParser.parseFlat(CharStreams.fromString(text), new BaseErrorListener());
+
+            // Assert
+            assertSameChildren(ast.root);
+            assertSameChildren(flat.node(flat.root()));
+        }
+    }
+
+    @Test
+    void partialNodesCountOnlyTheirChildren() {
+        // Arrange
+        Declaration declaration = new Declaration();
+        IfClause ifClause = new IfClause();
+        Operation operation = new AddOperation();
+
+        // Act
+        operation.rhs = new VariableReference("Width");
+
+        // Assert
+        assertEquals(0, declaration.getChildCount());
+        assertEquals(1, ifClause.getChildCount());
+        assertNull(ifClause.getChild(0));
+        assertEquals(1, operation.getChildCount());
+        assertSame(operation.rhs, operation.getChild(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> operation.getChild(1));
+    }
+
+    @Test
+    void equalityComparesClassesAndValues() {
+        // Arrange
+        Operation add = new AddOperation();
+        add.lhs = new PixelLiteral(10);
+        add.rhs = new PixelLiteral(20);
+        Operation multiply = new MultiplyOperation();
+        multiply.lhs = new PixelLiteral(10);
+        multiply.rhs = new PixelLiteral(20);
+
+        // Act & Assert
+        assertNotEquals(add, multiply);
+        assertNotEquals(new PropertyName("width"), new PropertyName("height"));
+        assertEquals(new PropertyName("width"), new PropertyName("width", 3));
+    }
+
+    @Test
+    void structuralHashIsCachedUntilADescendantChanges() throws IOException {
+        // Arrange
+        AST first = StylesheetParser.parse(CharStreams.fromString(Fixtures.load("level3.icss")), new BaseErrorListener());
+        AST second = StylesheetParser.parse(CharStreams.fromString(Fixtures.load("level3.icss")), new BaseErrorListener());
+        Stylerule stylerule = (Stylerule) first.root.body.get(first.root.body.size() - 1);
+        int hash = first.root.hashCode();
+
+        // Act
+        stylerule.addChild(new Declaration("width"));
+
+        // Assert
+        assertEquals(second.root.hashCode(), hash);
+        assertNotEquals(hash, first.root.hashCode());
+        assertNotEquals(second.root, first.root);
+    }
+
+    @Test
+    void nestedChangesAfterHashingKeepEqualsCorrect() {
+        // Arrange
+        AST first = StylesheetParser.parse(CharStreams.fromString("p { width: 10px + 2px; }"), new BaseErrorListener());
+        AST second = StylesheetParser.parse(CharStreams.fromString("p { width: 10px + 3px; }"), new BaseErrorListener());
+        Declaration declaration = (Declaration) ((Stylerule) first.root.body.get(0)).body.get(0);
+        first.root.hashCode();
+        second.root.hashCode();
+
+        // Act
+        declaration.expression.setChild(1, new PixelLiteral(3));
+
+        // Assert
+        assertEquals(second.root, first.root);
+        assertEquals(second.root.hashCode(), first.root.hashCode());
+    }
+
+    @Test
+    void aSharedChildForgetsTheHashesOfAllItsParents() {
+        // Arrange
+        Declaration shared = new Declaration("width");
+        shared.expression = new PixelLiteral(10);
+        Stylerule first = new Stylerule();
+        first.addChild(shared);
+        Stylerule second = new Stylerule();
+        second.addChild(shared);
+        int firstHash = first.hashCode();
+        int secondHash = second.hashCode();
+
+        // Act
+        shared.setChild(1, new PixelLiteral(20));
+
+        // Assert
+        assertNotEquals(firstHash, first.hashCode());
+        assertNotEquals(secondHash, second.hashCode());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void invalidateHashesForgetsDirectChanges() {
+        // Arrange
+        Declaration declaration = new Declaration("width");
+        declaration.expression = new PixelLiteral(10);
+        ArrayList<ASTNode> body = new ArrayList<>();
+        body.add(declaration);
+        AST ast = new AST();
+        ast.root.addChild(new Stylerule(new TagSelector("p"), body));
+        int hash = ast.root.hashCode();
+
+        // Act
+        declaration.expression = new PixelLiteral(20);
+        ast.invalidateHashes();
+
+        // Assert
+        assertNotEquals(hash, ast.root.hashCode());
+    }
+
+    private static void assertSameChildren(ASTNode node) {
+        List<ASTNode> children = node.getChildren();
+        assertEquals(children.size(), node.getChildCount(), node.getNodeLabel());
+        for (int i = 0; i < children.size(); i++) {
+            assertEquals(children.get(i), node.getChild(i), node.getNodeLabel());
+            assertSameChildren(node.getChild(i));
+        }
+    }
+}
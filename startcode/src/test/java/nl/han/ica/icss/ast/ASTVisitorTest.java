@@ -0,0 +1,191 @@
+package nl.han.ica.icss.ast;
+
+import nl.han.ica.icss.ast.flat.FlatAST;
+import nl.han.ica.icss.ast.literals.BoolLiteral;
+import nl.han.ica.icss.ast.literals.ColorLiteral;
+import nl.han.ica.icss.ast.literals.PercentageLiteral;
+import nl.han.ica.icss.ast.literals.PixelLiteral;
+import nl.han.ica.icss.ast.literals.ScalarLiteral;
+import nl.han.ica.icss.ast.operations.AddOperation;
+import nl.han.ica.icss.ast.operations.DivideOperation;
+import nl.han.ica.icss.ast.operations.MultiplyOperation;
+import nl.han.ica.icss.ast.operations.SubtractOperation;
+import nl.han.ica.icss.ast.selectors.ClassSelector;
+import nl.han.ica.icss.ast.selectors.IdSelector;
+import nl.han.ica.icss.ast.selectors.TagSelector;
+import nl.han.ica.icss.parser.Fixtures;
+import nl.han.ica.icss.parser.StylesheetParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ASTVisitorTest {
+
+    @Test
+    void everyNodeIsDispatchedToTheVisitMethodOfItsClass() throws IOException {
+        for (String fixture : new String[]{"level0.icss", "level1.icss", "level2.icss", "level3.icss"}) {
+            // Arrange
+            AST ast = StylesheetParser.parse(CharStreams.fromString(Fixtures.load(fixture)), new BaseErrorListener());
+
+            // Act & Assert
+            assertDispatchedByClass(ast.root);
+        }
+    }
+
+    @Test
+    void unhandledNodesFallBackToVisitNode() {
+        // Arrange
+        ASTVisitor<String, Void> visitor = new DefaultASTVisitor<>() {
+            @Override
+            public String visitNode(ASTNode node, Void context) {
+                return "node";
+            }
+
+            @Override
+            public String visitPixelLiteral(PixelLiteral node, Void context) {
+                return "pixel";
+            }
+        };
+
+        // Act
+        String pixel = new PixelLiteral(10).accept(visitor, null);
+        String declaration = new Declaration().accept(visitor, null);
+
+        // Assert
+        assertEquals("pixel", pixel);
+        assertEquals("node", declaration);
+    }
+
+    @Test
+    void nodesOutsideTheASTAreDispatchedToVisitNode() {
+        // Arrange
+        FlatAST flat = StylesheetParser.parseFlat(CharStreams.fromString("p { width: 10px; }"), new BaseErrorListener());
+
+        // Act
+        Class<?> visited = flat.node(flat.root()).accept(ClassVisitor.INSTANCE, null);
+
+        // Assert
+        assertEquals(ASTNode.class, visited);
+    }
+
+    private static void assertDispatchedByClass(ASTNode node) {
+        assertEquals(node.getClass(), node.accept(ClassVisitor.INSTANCE, null), node.getNodeLabel());
+        for (int i = 0; i < node.getChildCount(); i++) {
+            assertDispatchedByClass(node.getChild(i));
+        }
+    }
+
+    //Geeft per visit method de klasse terug waar die method voor is
+    private static class ClassVisitor implements ASTVisitor<Class<?>, Void> {
+        static final ClassVisitor INSTANCE = new ClassVisitor();
+
+        @Override
+        public Class<?> visitNode(ASTNode node, Void context) {
+            return ASTNode.class;
+        }
+
+        @Override
+        public Class<?> visitStylesheet(Stylesheet node, Void context) {
+            return Stylesheet.class;
+        }
+
+        @Override
+        public Class<?> visitStylerule(Stylerule node, Void context) {
+            return Stylerule.class;
+        }
+
+        @Override
+        public Class<?> visitClassSelector(ClassSelector node, Void context) {
+            return ClassSelector.class;
+        }
+
+        @Override
+        public Class<?> visitIdSelector(IdSelector node, Void context) {
+            return IdSelector.class;
+        }
+
+        @Override
+        public Class<?> visitTagSelector(TagSelector node, Void context) {
+            return TagSelector.class;
+        }
+
+        @Override
+        public Class<?> visitDeclaration(Declaration node, Void context) {
+            return Declaration.class;
+        }
+
+        @Override
+        public Class<?> visitPropertyName(PropertyName node, Void context) {
+            return PropertyName.class;
+        }
+
+        @Override
+        public Class<?> visitVariableAssignment(VariableAssignment node, Void context) {
+            return VariableAssignment.class;
+        }
+
+        @Override
+        public Class<?> visitVariableReference(VariableReference node, Void context) {
+            return VariableReference.class;
+        }
+
+        @Override
+        public Class<?> visitIfClause(IfClause node, Void context) {
+            return IfClause.class;
+        }
+
+        @Override
+        public Class<?> visitElseClause(ElseClause node, Void context) {
+            return ElseClause.class;
+        }
+
+        @Override
+        public Class<?> visitAddOperation(AddOperation node, Void context) {
+            return AddOperation.class;
+        }
+
+        @Override
+        public Class<?> visitSubtractOperation(SubtractOperation node, Void context) {
+            return SubtractOperation.class;
+        }
+
+        @Override
+        public Class<?> visitMultiplyOperation(MultiplyOperation node, Void context) {
+            return MultiplyOperation.class;
+        }
+
+        @Override
+        public Class<?> visitDivideOperation(DivideOperation node, Void context) {
+            return DivideOperation.class;
+        }
+
+        @Override
+        public Class<?> visitBoolLiteral(BoolLiteral node, Void context) {
+            return BoolLiteral.class;
+        }
+
+        @Override
+        public Class<?> visitColorLiteral(ColorLiteral node, Void context) {
+            return ColorLiteral.class;
+        }
+
+        @Override
+        public Class<?> visitPercentageLiteral(PercentageLiteral node, Void context) {
+            return PercentageLiteral.class;
+        }
+
+        @Override
+        public Class<?> visitPixelLiteral(PixelLiteral node, Void context) {
+            return PixelLiteral.class;
+        }
+
+        @Override
+        public Class<?> visitScalarLiteral(ScalarLiteral node, Void context) {
+            return ScalarLiteral.class;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package nl.han.ica.icss.ast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+
+    @Test
+    void canonicalKeepsWorkingWhenTheTableGrows() {
+        // Arrange
+        SymbolTable sut = new SymbolTable();
+        String[] names = new String[40];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = new String("name" + i);
+        }
+
+        // Act
+        String[] canonical = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            canonical[i] = sut.canonical(names[i]);
+        }
+
+        // Assert
+        assertEquals(4 + names.length, sut.size());
+        for (int i = 0; i < names.length; i++) {
+            assertSame(names[i], canonical[i]);
+            assertSame(canonical[i], sut.canonical(new String("name" + i)));
+            assertEquals(4 + i, sut.find("name" + i));
+        }
+    }
+
+    @Test
+    void builtinPropertiesHaveFixedIds() {
+        // Arrange
+        SymbolTable sut = new SymbolTable();
+
+        // Act
+        int width = sut.intern("width");
+
+        // Assert
+        assertEquals(SymbolTable.WIDTH, width);
+        assertEquals("color", sut.name(SymbolTable.COLOR));
+        assertEquals(SymbolTable.UNKNOWN, sut.find("unknown"));
+    }
+}
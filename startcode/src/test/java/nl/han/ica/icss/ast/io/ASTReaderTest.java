@@ -0,0 +1,97 @@
+package nl.han.ica.icss.ast.io;
+
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.flat.NodeKind;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ASTReaderTest {
+
+    @Test
+    void rejectsOtherInput() {
+        // Arrange
+        byte[] bytes = "p { width: 10px; }".getBytes();
+
+        // Act & Assert
+        assertThrows(StreamCorruptedException.class, () -> read(bytes));
+    }
+
+    @Test
+    void rejectsOtherVersions() throws Exception {
+        // Arrange
+        byte[] bytes = ASTWriterTest.write(new AST(), true);
+        bytes[4] = 2;
+
+        // Act & Assert
+        assertThrows(StreamCorruptedException.class, () -> read(bytes));
+    }
+
+    @Test
+    void rejectsTruncatedInput() throws Exception {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString("Width := 10px; p { width: Width + 2px; }");
+        byte[] bytes = ASTWriterTest.write(pipeline.getAST(), true);
+
+        // Act & Assert
+        assertThrows(EOFException.class, () -> read(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertEquals(pipeline.getAST(), read(bytes));
+    }
+
+    @Test
+    void rejectsNodesNestedTooDeeply() throws Exception {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString("p { width: 1px" + " + 1px".repeat(ASTReader.MAX_DEPTH - 4) + "; }");
+        byte[] deepest = ASTWriterTest.write(pipeline.getAST(), true);
+        ByteArrayOutputStream bytes = header(0);
+        for (int i = 0; i <= 100_000; i++) {
+            bytes.write(NodeKind.ADD.ordinal());
+        }
+
+        // Act & Assert
+        assertEquals(pipeline.getAST(), read(deepest));
+        StreamCorruptedException e = assertThrows(StreamCorruptedException.class, () -> read(bytes.toByteArray()));
+        assertTrue(e.getMessage().contains(String.valueOf(ASTReader.MAX_DEPTH)));
+    }
+
+    @Test
+    void readsLongStringsButDoesNotTrustTheirLength() throws Exception {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString("p { color: #ffffff; } ." + "a".repeat(200_000) + " { width: 1px; }");
+        byte[] longString = ASTWriterTest.write(pipeline.getAST(), true);
+        ByteArrayOutputStream hugeLength = header(1);
+        hugeLength.writeBytes(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07, 'a'});
+
+        // Act & Assert
+        assertEquals(pipeline.getAST(), read(longString));
+        assertThrows(EOFException.class, () -> read(hugeLength.toByteArray()));
+    }
+
+    /**
+     * The magic, version and flags without positions or errors, and the number of symbols that follow.
+     */
+    private static ByteArrayOutputStream header(int symbolCount) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.writeBytes(ByteBuffer.allocate(4).putInt(ASTFormat.MAGIC).array());
+        bytes.write(ASTFormat.VERSION);
+        bytes.write(0);
+        bytes.write(symbolCount);
+        return bytes;
+    }
+
+    private static AST read(byte[] bytes) throws Exception {
+        return ASTReader.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+}
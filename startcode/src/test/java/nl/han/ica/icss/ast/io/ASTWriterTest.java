@@ -0,0 +1,108 @@
+package nl.han.ica.icss.ast.io;
+
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.PropertyName;
+import nl.han.ica.icss.ast.VariableReference;
+import nl.han.ica.icss.generator.Generator;
+import nl.han.ica.icss.parser.Fixtures;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ASTWriterTest {
+
+    @Test
+    void roundTripKeepsTreesPositionsAndSymbols() throws IOException {
+        for (String fixture : new String[]{"level0.icss", "level1.icss", "level2.icss", "level3.icss"}) {
+            // Arrange
+            Pipeline pipeline = new Pipeline();
+            pipeline.parseString(Fixtures.load(fixture));
+            pipeline.check();
+
+            // Act
+            AST read = roundTrip(pipeline.getAST(), true);
+
+            // Assert
+            assertEquals(pipeline.getAST(), read, fixture);
+            assertSameDetails(pipeline.getAST().root, read.root);
+            assertEquals(pipeline.getAST().symbols.size(), read.symbols.size());
+        }
+    }
+
+    @Test
+    void roundTripKeepsErrors() throws IOException {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString("p { width: Undefined; color: 10px; }");
+        pipeline.check();
+
+        // Act
+        AST read = roundTrip(pipeline.getAST(), true);
+
+        // Assert
+        assertEquals(pipeline.getAST().getErrors().toString(), read.getErrors().toString());
+        assertFalse(read.getErrors().isEmpty());
+    }
+
+    @Test
+    void roundTripOfATransformedTreeGeneratesTheSameCss() throws IOException {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString(Fixtures.load("level3.icss"));
+        pipeline.check();
+        pipeline.transform();
+        String expected = pipeline.generate();
+
+        // Act
+        AST read = roundTrip(pipeline.getAST(), false);
+
+        // Assert
+        assertEquals(expected, new Generator().generate(read));
+        assertFalse(read.root.hasPosition());
+    }
+
+    @Test
+    void leavingOutPositionsMakesTheOutputSmaller() throws IOException {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString(Fixtures.load("level3.icss"));
+
+        // Act
+        int withPositions = write(pipeline.getAST(), true).length;
+        int withoutPositions = write(pipeline.getAST(), false).length;
+
+        // Assert
+        assertTrue(withoutPositions < withPositions);
+    }
+
+    static AST roundTrip(AST ast, boolean positions) throws IOException {
+        return ASTReader.read(Channels.newChannel(new ByteArrayInputStream(write(ast, positions))));
+    }
+
+    static byte[] write(AST ast, boolean positions) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ASTWriter.write(ast, Channels.newChannel(bytes), positions);
+        return bytes.toByteArray();
+    }
+
+    private static void assertSameDetails(ASTNode expected, ASTNode actual) {
+        assertEquals(expected.getStart(), actual.getStart(), expected.getNodeLabel());
+        assertEquals(expected.getEnd(), actual.getEnd(), expected.getNodeLabel());
+        if (expected instanceof PropertyName) {
+            assertEquals(((PropertyName) expected).symbol, ((PropertyName) actual).symbol);
+        }
+        if (expected instanceof VariableReference) {
+            assertEquals(((VariableReference) expected).symbol, ((VariableReference) actual).symbol);
+        }
+        for (int i = 0; i < expected.getChildCount(); i++) {
+            assertSameDetails(expected.getChild(i), actual.getChild(i));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package nl.han.ica.icss.ast.literals;
+
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.Literal;
+import nl.han.ica.icss.ast.SourcePosition;
+import nl.han.ica.icss.ast.Stylerule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiteralTest {
+
+    @Test
+    void factoriesShareCommonValues() {
+        // Act
+        PixelLiteral pixel = PixelLiteral.of(10);
+        PercentageLiteral percentage = PercentageLiteral.of(-5);
+        ScalarLiteral scalar = ScalarLiteral.of(0);
+
+        // Assert
+        assertSame(pixel, PixelLiteral.of(10));
+        assertSame(percentage, PercentageLiteral.of(-5));
+        assertSame(scalar, ScalarLiteral.of(0));
+        assertSame(BoolLiteral.TRUE, BoolLiteral.of(true));
+        assertSame(BoolLiteral.FALSE, BoolLiteral.of(false));
+        assertTrue(pixel.isShared());
+        assertEquals(new PixelLiteral(10), pixel);
+    }
+
+    @Test
+    void factoriesCreateValuesOutsideTheCache() {
+        // Act
+        PixelLiteral first = PixelLiteral.of(LiteralCache.HIGH + 1);
+        PixelLiteral second = PixelLiteral.of(LiteralCache.HIGH + 1);
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertFalse(first.isShared());
+    }
+
+    @Test
+    void sharedLiteralsHaveNoPositionOrError() {
+        // Arrange
+        ScalarLiteral shared = ScalarLiteral.of(2);
+        ScalarLiteral parsed = new ScalarLiteral(2);
+
+        // Act
+        parsed.setPosition(SourcePosition.of(0, 1, 0), SourcePosition.of(1, 1, 1));
+
+        // Assert
+        assertTrue(parsed.hasPosition());
+        assertFalse(shared.hasPosition());
+        assertThrows(UnsupportedOperationException.class, () -> shared.setPosition(SourcePosition.of(0, 1, 0), SourcePosition.NONE));
+        assertThrows(UnsupportedOperationException.class, () -> shared.setError("Fout"));
+    }
+
+    @Test
+    void unsharedCopiesSharedLiteralsOnly() {
+        // Arrange
+        ScalarLiteral shared = ScalarLiteral.of(2);
+        ScalarLiteral parsed = new ScalarLiteral(2);
+
+        // Act
+        ScalarLiteral copy = shared.unshared();
+
+        // Assert
+        assertNotSame(shared, copy);
+        assertFalse(copy.isShared());
+        assertEquals(shared, copy);
+        assertSame(parsed, parsed.unshared());
+        assertFalse(BoolLiteral.TRUE.unshared().isShared());
+    }
+
+    @Test
+    void evaluatedTreesGetTheirOwnLiterals() {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString("p { width: 2px + 3px; height: 2px + 3px; }");
+        pipeline.check();
+
+        // Act
+        pipeline.transform();
+
+        // Assert
+        Stylerule stylerule = (Stylerule) pipeline.getAST().root.body.get(0);
+        Literal width = (Literal) ((Declaration) stylerule.body.get(0)).expression;
+        Literal height = (Literal) ((Declaration) stylerule.body.get(1)).expression;
+        assertEquals(PixelLiteral.of(5), width);
+        assertFalse(width.isShared());
+        assertNotSame(width, height);
+        assertTrue(width.hasPosition());
+        width.setError("Fout");
+        assertTrue(width.hasError());
+        assertFalse(height.hasError());
+        assertFalse(PixelLiteral.of(5).hasError());
+    }
+}
@@ -0,0 +1,64 @@
+package nl.han.ica.icss.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCompilerTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void compilesEveryFileInTheSourceTree() throws IOException {
+        // Arrange
+        Path source = temp.resolve("src");
+        Path target = temp.resolve("out");
+        Files.createDirectories(source.resolve("theme"));
+        Files.writeString(source.resolve("a.icss"), "p { width: 10px; }");
+        Files.writeString(source.resolve("theme/b.icss"), "Width := 20px; a { width: Width + 5px; }");
+        Files.writeString(source.resolve("theme/ignored.txt"), "not icss");
+        BatchCompiler sut = new BatchCompiler(source, target);
+
+        // Act
+        List<FileResult> results = sut.compileAll(new ForkJoinPool(2));
+
+        // Assert
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(FileResult::isSucceeded));
+        assertEquals("p {\n  width: 10px;\n}\n", Files.readString(target.resolve("a.css")));
+        assertEquals("a {\n  width: 25px;\n}\n", Files.readString(target.resolve("theme/b.css")));
+    }
+
+    @Test
+    void reportsErrorsPerFile() throws IOException {
+        // Arrange
+        Files.writeString(temp.resolve("good.icss"), "p { width: 10px; }");
+        Files.writeString(temp.resolve("bad.icss"), "p { width: Undefined; }");
+        BatchCompiler sut = new BatchCompiler(temp, null);
+
+        // Act
+        List<FileResult> results = sut.compileAll(new ForkJoinPool(2));
+
+        // Assert
+        assertEquals(temp.resolve("bad.icss"), results.get(0).getSource());
+        assertFalse(results.get(0).isSucceeded());
+        assertTrue(results.get(1).isSucceeded());
+    }
+
+    @Test
+    void rejectsParallelismThatIsNotAPositiveNumber() {
+        // Act & Assert
+        assertEquals(4, BatchCompiler.parseParallelism("4"));
+        assertTrue(BatchCompiler.parseParallelism("abc") < 1);
+        assertTrue(BatchCompiler.parseParallelism("0") < 1);
+        assertTrue(BatchCompiler.parseParallelism("-2") < 1);
+    }
+}
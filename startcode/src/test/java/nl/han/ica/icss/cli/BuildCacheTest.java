@@ -0,0 +1,94 @@
+package nl.han.ica.icss.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildCacheTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void warmBuildSkipsUnchangedFiles() throws IOException {
+        // Arrange
+        Path source = temp.resolve("src");
+        Path target = temp.resolve("out");
+        Path cacheFile = temp.resolve("build.cache");
+        Files.createDirectories(source);
+        Files.writeString(source.resolve("a.icss"), "p { width: 10px; }");
+        Files.writeString(source.resolve("b.icss"), "a { width: 20px; }");
+        new BatchCompiler(source, target, BuildCache.load(cacheFile)).compileAll(new ForkJoinPool(2));
+        Files.writeString(source.resolve("b.icss"), "a { width: 30px; }");
+        Files.delete(target.resolve("a.css"));
+
+        // Act
+        List<FileResult> results = new BatchCompiler(source, target, BuildCache.load(cacheFile)).compileAll(new ForkJoinPool(2));
+
+        // Assert
+        assertTrue(results.get(0).isUpToDate());
+        assertFalse(results.get(1).isUpToDate());
+        assertEquals("p {\n  width: 10px;\n}\n", Files.readString(target.resolve("a.css")));
+        assertEquals("a {\n  width: 30px;\n}\n", Files.readString(target.resolve("b.css")));
+    }
+
+    @Test
+    void warmBuildRewritesChangedOutput() throws IOException {
+        // Arrange
+        Path source = temp.resolve("src");
+        Path target = temp.resolve("out");
+        Path cacheFile = temp.resolve("build.cache");
+        Files.createDirectories(source);
+        Files.writeString(source.resolve("a.icss"), "p { width: 10px; }");
+        new BatchCompiler(source, target, BuildCache.load(cacheFile)).compileAll(new ForkJoinPool(1));
+        Files.writeString(target.resolve("a.css"), "edited by hand");
+
+        // Act
+        List<FileResult> results = new BatchCompiler(source, target, BuildCache.load(cacheFile)).compileAll(new ForkJoinPool(1));
+
+        // Assert
+        assertTrue(results.get(0).isUpToDate());
+        assertEquals("p {\n  width: 10px;\n}\n", Files.readString(target.resolve("a.css")));
+    }
+
+    @Test
+    void otherCompilerVersionInvalidatesEverything() throws IOException {
+        // Arrange
+        Path cacheFile = temp.resolve("build.cache");
+        byte[] hash = CompilerVersion.hash("p { width: 10px; }".getBytes(StandardCharsets.UTF_8));
+        BuildCache old = BuildCache.load(cacheFile, "old");
+        old.store("a.icss", hash, "p {}");
+        old.save();
+
+        // Act
+        BuildCache sameVersion = BuildCache.load(cacheFile, "old");
+        BuildCache newVersion = BuildCache.load(cacheFile, "new");
+
+        // Assert
+        assertEquals("p {}", sameVersion.lookup("a.icss", hash));
+        assertNull(newVersion.lookup("a.icss", hash));
+    }
+
+    @Test
+    void failedFilesAreNotCached() throws IOException {
+        // Arrange
+        Path cacheFile = temp.resolve("build.cache");
+        Files.writeString(temp.resolve("bad.icss"), "p { width: Undefined; }");
+        new BatchCompiler(temp, null, BuildCache.load(cacheFile)).compileAll(new ForkJoinPool(1));
+
+        // Act
+        List<FileResult> results = new BatchCompiler(temp, null, BuildCache.load(cacheFile)).compileAll(new ForkJoinPool(1));
+
+        // Assert
+        assertFalse(results.get(0).isUpToDate());
+        assertFalse(results.get(0).isSucceeded());
+    }
+}
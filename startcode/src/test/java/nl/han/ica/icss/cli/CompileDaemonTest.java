@@ -0,0 +1,144 @@
+package nl.han.ica.icss.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileDaemonTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void compilesSourceFromRequest() {
+        // Arrange
+        CompileDaemon sut = new CompileDaemon(new PrintWriter(new StringWriter()), 1);
+
+        // Act
+        Map<?, ?> response = (Map<?, ?>) Json.parse(sut.handle("{\"id\": \"a\", \"source\": \"p { width: 10px; }\"}"));
+
+        // Assert
+        assertEquals("a", response.get("id"));
+        assertEquals(true, response.get("ok"));
+        assertEquals(List.of(), response.get("errors"));
+        assertEquals("p {\n  width: 10px;\n}\n", response.get("css"));
+    }
+
+    @Test
+    void writesCssOfPathToTarget() throws IOException {
+        // Arrange
+        Path source = temp.resolve("a.icss");
+        Path target = temp.resolve("out/a.css");
+        Files.writeString(source, "Width := 20px; a { width: Width + 5px; }");
+        CompileDaemon sut = new CompileDaemon(new PrintWriter(new StringWriter()), 1);
+        String request = Json.write(Map.of("id", 7, "path", source.toString(), "target", target.toString()));
+
+        // Act
+        Map<?, ?> response = (Map<?, ?>) Json.parse(sut.handle(request));
+
+        // Assert
+        assertEquals(true, response.get("ok"));
+        assertFalse(response.containsKey("css"));
+        assertEquals("a {\n  width: 25px;\n}\n", Files.readString(target));
+    }
+
+    @Test
+    void reportsErrorsAndInvalidRequests() {
+        // Arrange
+        CompileDaemon sut = new CompileDaemon(new PrintWriter(new StringWriter()), 1);
+
+        // Act
+        Map<?, ?> semantic = (Map<?, ?>) Json.parse(sut.handle("{\"id\": 1, \"source\": \"p { width: Undefined; }\"}"));
+        Map<?, ?> malformed = (Map<?, ?>) Json.parse(sut.handle("{\"id\": 2, \"source\": "));
+        Map<?, ?> missing = (Map<?, ?>) Json.parse(sut.handle("{\"id\": 3}"));
+
+        // Assert
+        assertEquals(false, semantic.get("ok"));
+        assertFalse(((List<?>) semantic.get("errors")).isEmpty());
+        assertEquals(false, malformed.get("ok"));
+        assertNull(malformed.get("id"));
+        assertEquals(false, missing.get("ok"));
+    }
+
+    @Test
+    void deeplyNestedRequestsAreRejected() {
+        // Arrange
+        CompileDaemon sut = new CompileDaemon(new PrintWriter(new StringWriter()), 1);
+        String request = "{\"id\": 4, \"source\": " + "[".repeat(100_000) + "]".repeat(100_000) + "}";
+
+        // Act
+        Map<?, ?> response = (Map<?, ?>) Json.parse(sut.handle(request));
+
+        // Assert
+        assertEquals(false, response.get("ok"));
+        assertTrue(response.get("errors").toString().contains("Nested deeper than"));
+    }
+
+    @Test
+    void deeplyNestedSourcesAreAnswered() {
+        // Arrange
+        CompileDaemon sut = new CompileDaemon(new PrintWriter(new StringWriter()), 1);
+        String source = "p { " + "if [true] { ".repeat(100_000) + "}".repeat(100_000) + " }";
+        String request = Json.write(Map.of("id", 5, "source", source));
+
+        // Act
+        Map<?, ?> response = (Map<?, ?>) Json.parse(sut.handle(request));
+
+        // Assert
+        assertEquals(5, ((Number) response.get("id")).intValue());
+        assertEquals(false, response.get("ok"));
+    }
+
+    @Test
+    void answersMoreRequestsThanFitInTheQueue() throws IOException, InterruptedException {
+        // Arrange
+        StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            requests.append("{\"id\": ").append(i).append(", \"source\": \"p { width: 1px; }\"}\n");
+        }
+        StringWriter output = new StringWriter();
+        CompileDaemon sut = new CompileDaemon(new PrintWriter(output), 1);
+
+        // Act
+        sut.run(new BufferedReader(new StringReader(requests.toString())));
+
+        // Assert
+        assertEquals(1000, output.toString().split("\n").length);
+    }
+
+    @Test
+    void answersEveryPipelinedRequest() throws IOException, InterruptedException {
+        // Arrange
+        StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            requests.append("{\"id\": ").append(i).append(", \"source\": \"p { width: ").append(i).append("px; }\"}\n");
+        }
+        StringWriter output = new StringWriter();
+        CompileDaemon sut = new CompileDaemon(new PrintWriter(output), 4);
+
+        // Act
+        sut.run(new BufferedReader(new StringReader(requests.toString())));
+
+        // Assert
+        Set<String> ids = new HashSet<>();
+        for (String line : output.toString().split("\n")) {
+            Map<?, ?> response = (Map<?, ?>) Json.parse(line);
+            assertEquals(true, response.get("ok"));
+            ids.add(response.get("id").toString());
+        }
+        assertEquals(100, ids.size());
+    }
+}
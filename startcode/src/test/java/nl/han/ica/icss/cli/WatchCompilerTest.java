@@ -0,0 +1,111 @@
+package nl.han.ica.icss.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchCompilerTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void recompilesOnlyChangedFilesAndRemovesDeletedOutput() throws IOException {
+        // Arrange
+        Path source = temp.resolve("src");
+        Path target = temp.resolve("out");
+        Files.createDirectories(source);
+        Files.writeString(source.resolve("a.icss"), "p { width: 10px; }");
+        Files.writeString(source.resolve("b.icss"), "a { width: 20px; }");
+        BatchCompiler compiler = new BatchCompiler(source, target);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        compiler.compileAll(pool);
+        Files.writeString(source.resolve("a.icss"), "p { width: 30px; }");
+        Files.delete(source.resolve("b.icss"));
+
+        // Act
+        List<FileResult> results;
+        try (WatchCompiler sut = new WatchCompiler(compiler, source, 10)) {
+            results = sut.recompile(Set.of(source.resolve("a.icss"), source.resolve("b.icss")), pool);
+        }
+
+        // Assert
+        assertEquals(1, results.size());
+        assertEquals("p {\n  width: 30px;\n}\n", Files.readString(target.resolve("a.css")));
+        assertFalse(Files.exists(target.resolve("b.css")));
+    }
+
+    @Test
+    void removesOutputAndCacheEntriesOfADeletedDirectory() throws IOException {
+        // Arrange
+        Path source = temp.resolve("src");
+        Path target = temp.resolve("out");
+        Path cacheFile = temp.resolve("build.cache");
+        Files.createDirectories(source.resolve("theme/dark"));
+        Files.writeString(source.resolve("a.icss"), "p { width: 10px; }");
+        Files.writeString(source.resolve("theme/b.icss"), "a { width: 20px; }");
+        Files.writeString(source.resolve("theme/dark/c.icss"), "a { width: 30px; }");
+        BatchCompiler compiler = new BatchCompiler(source, target, BuildCache.load(cacheFile));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        compiler.compileAll(pool);
+
+        // Act
+        try (WatchCompiler sut = new WatchCompiler(compiler, source, 10)) {
+            Files.delete(source.resolve("theme/dark/c.icss"));
+            Files.delete(source.resolve("theme/dark"));
+            Files.delete(source.resolve("theme/b.icss"));
+            Files.delete(source.resolve("theme"));
+            sut.recompile(Set.of(source.resolve("theme")), pool);
+        }
+
+        // Assert
+        assertTrue(Files.exists(target.resolve("a.css")));
+        assertFalse(Files.exists(target.resolve("theme/b.css")));
+        assertFalse(Files.exists(target.resolve("theme/dark/c.css")));
+        BuildCache cache = BuildCache.load(cacheFile);
+        assertNull(cache.lookup("theme/b.icss", CompilerVersion.hash("a { width: 20px; }".getBytes(StandardCharsets.UTF_8))));
+        assertNotNull(cache.lookup("a.icss", CompilerVersion.hash("p { width: 10px; }".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void compilesFilesSavedWhileWatching() throws Exception {
+        // Arrange
+        Path source = temp.resolve("src");
+        Path target = temp.resolve("out");
+        Files.createDirectories(source);
+        BatchCompiler compiler = new BatchCompiler(source, target);
+        WatchCompiler sut = new WatchCompiler(compiler, source, 10);
+        Thread watcher = new Thread(() -> {
+            try {
+                sut.watch(new ForkJoinPool(1));
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        watcher.start();
+
+        // Act
+        Files.createDirectories(source.resolve("theme"));
+        Files.writeString(source.resolve("theme/a.icss"), "p { width: 10px; }");
+        Path output = target.resolve("theme/a.css");
+        String expected = "p {\n  width: 10px;\n}\n";
+        for (int i = 0; i < 200 && !(Files.exists(output) && Files.readString(output).equals(expected)); i++) {
+            Thread.sleep(50);
+        }
+        sut.close();
+        watcher.join(5000);
+
+        // Assert
+        assertEquals(expected, Files.readString(output));
+        assertFalse(watcher.isAlive());
+    }
+}
@@ -0,0 +1,70 @@
+package nl.han.ica.icss.generator;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.SourcePosition;
+import nl.han.ica.icss.ast.flat.FlatAST;
+import nl.han.ica.icss.parser.Fixtures;
+import nl.han.ica.icss.parser.StylesheetParser;
+import nl.han.ica.icss.transforms.Evaluator;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatGeneratorTest {
+
+    @Test
+    void generatesTheCssOfEvaluatorAndGenerator() throws IOException {
+        for (String fixture : new String[]{"level0.icss", "level1.icss", "level2.icss", "level3.icss"}) {
+            // Arrange
+            String text = Fixtures.load(fixture);
+
+            // Act
+            String css = new FlatGenerator().generate(parseFlat(text));
+
+            // Assert
+            assertEquals(generate(text), css, fixture);
+        }
+    }
+
+    @Test
+    void evaluatesOperationsAndBranches() {
+        // Arrange
+        String source = "Width := 10px; Wide := FALSE;\n"
+                + "p, .menu { Width := Width * 3; width: Width - 4px / 2; height: 50% + 10%;\n"
+                + "  if [Wide] { color: #ff0000; } else { color: #00aa00; Wide := TRUE; if [Wide] { height: 2 * 8px; } } }\n"
+                + "a { width: Width; }";
+
+        // Act
+        String css = new FlatGenerator().generate(parseFlat(source));
+
+        // Assert
+        assertEquals(generate(source), css);
+    }
+
+    @Test
+    void divisionByZeroIsAnError() {
+        // Arrange
+        FlatGenerator generator = new FlatGenerator();
+
+        // Act
+        generator.generate(parseFlat("Zero := 0; p { width: 10px / Zero; }"));
+
+        // Assert
+        assertEquals(1, generator.getErrors().size());
+        assertEquals(22, SourcePosition.offset(generator.getErrors().get(0).position));
+    }
+
+    private static FlatAST parseFlat(String text) {
+        return StylesheetParser.parseFlat(CharStreams.fromString(text), new BaseErrorListener());
+    }
+
+    private static String generate(String text) {
+        AST ast = StylesheetParser.parse(CharStreams.fromString(text), new BaseErrorListener());
+        new Evaluator().apply(ast);
+        return new Generator().generate(ast);
+    }
+}
@@ -0,0 +1,79 @@
+package nl.han.ica.icss.metrics;
+
+import nl.han.ica.icss.Pipeline;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineMetricsTest {
+
+    @Test
+    void metricsAreDisabledByDefault() {
+        // Arrange
+        Pipeline sut = new Pipeline();
+
+        // Act
+        sut.parseString("p { width: 10px; }");
+
+        // Assert
+        assertNull(sut.getMetrics());
+    }
+
+    @Test
+    void everyStageIsMeasured() {
+        // Arrange
+        Pipeline sut = new Pipeline();
+        sut.enableMetrics();
+
+        // Act
+        sut.parseString("Width := 10px; p { width: Width + 2px; }");
+        sut.check();
+        sut.transform();
+        sut.generate();
+
+        // Assert
+        PipelineMetrics metrics = sut.getMetrics();
+        assertEquals(11, metrics.get(Stage.PARSE).getNodeCount());
+        assertEquals(0, metrics.get(Stage.CHECK).getErrorCount());
+        assertEquals(6, metrics.get(Stage.TRANSFORM).getNodeCount());
+        for (Stage stage : Stage.values()) {
+            assertTrue(metrics.get(stage).getWallNanos() > 0);
+        }
+    }
+
+    @Test
+    void checkErrorsAreCounted() {
+        // Arrange
+        Pipeline sut = new Pipeline();
+        sut.enableMetrics();
+
+        // Act
+        sut.parseString("p { width: Undefined; color: 10px; }");
+        sut.check();
+
+        // Assert
+        assertEquals(3, sut.getMetrics().get(Stage.CHECK).getErrorCount());
+    }
+
+    @Test
+    void workOnOtherThreadsCountsTowardsTheStage() throws InterruptedException {
+        // Arrange
+        PipelineMetrics sut = new PipelineMetrics(null);
+        long[] allocated = new long[1];
+        sut.begin();
+        long ownAllocated = ThreadClock.allocatedBytes();
+
+        // Act
+        WorkerCost workers = sut.workers();
+        Thread worker = new Thread(() -> workers.measure(() -> allocated[0] = new byte[1 << 20].length));
+        worker.start();
+        worker.join();
+        sut.end(Stage.PARSE, null, 0);
+
+        // Assert
+        assertEquals(1 << 20, allocated[0]);
+        if (ownAllocated != 0) {
+            assertTrue(sut.get(Stage.PARSE).getAllocatedBytes() >= 1 << 20);
+        }
+    }
+}
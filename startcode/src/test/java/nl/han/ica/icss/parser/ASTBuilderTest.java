@@ -0,0 +1,132 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.SourcePosition;
+import nl.han.ica.icss.ast.SymbolTable;
+import nl.han.ica.icss.ast.VariableAssignment;
+import nl.han.ica.icss.ast.VariableReference;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ASTBuilderTest {
+
+    @Test
+    void fixturesBuildTheExpectedAST() throws IOException {
+        assertEquals(Fixtures.uncheckedLevel0(), parse(Fixtures.load("level0.icss")));
+        assertEquals(Fixtures.uncheckedLevel1(), parse(Fixtures.load("level1.icss")));
+        assertEquals(Fixtures.uncheckedLevel2(), parse(Fixtures.load("level2.icss")));
+        assertEquals(Fixtures.uncheckedLevel3(), parse(Fixtures.load("level3.icss")));
+    }
+
+    @Test
+    void operationsMatchTheTreeWalker() {
+        String[] sources = {
+                "p { width: 1 + 2 * 3; }",
+                "p { width: 1 * 2 + 3; }",
+                "p { width: 1 - 2 - 3 + 4; }",
+                "p { width: 1 * 2 * 3 - 4 * 5 + 6; }",
+                "A := 1 + B * 2 - 3px; p { if[A] { width: A * 2 + 1; } else { width: 2; } }",
+                "A := 1 2 + 3; p { width: 10px; }"
+        };
+
+        for (String source : sources) {
+            // Act
+            String actual = parse(source).toString();
+
+            // Assert
+            assertEquals(walk(source).toString(), actual, source);
+        }
+    }
+
+    @Test
+    void nodesCarryTheirSourcePositions() throws IOException {
+        // Arrange
+        String source = "A := 1px;\np {\n\twidth: A + 2 * 3px;\n}";
+
+        // Act
+        AST ast = parse(source);
+
+        // Assert
+        ASTNode rule = ast.root.getChildren().get(1);
+        ASTNode declaration = rule.getChildren().get(1);
+        ASTNode add = declaration.getChildren().get(1);
+        assertEquals(SourcePosition.of(10, 2, 0), rule.getStart());
+        assertEquals(SourcePosition.of(source.length(), 4, 1), rule.getEnd());
+        assertEquals(SourcePosition.of(15, 3, 1), declaration.getStart());
+        assertEquals(SourcePosition.of(22, 3, 8), add.getStart());
+        assertEquals(SourcePosition.of(33, 3, 19), add.getEnd());
+        assertEquals("width: A + 2 * 3px;", source.substring(declaration.getStartOffset(), declaration.getEndOffset()));
+        assertEquals(positions(walk(source).root), positions(ast.root));
+        for (String fixture : new String[]{"level0.icss", "level1.icss", "level2.icss", "level3.icss"}) {
+            String text = Fixtures.load(fixture);
+            assertEquals(positions(walk(text).root), positions(parse(text).root), fixture);
+        }
+    }
+
+    @Test
+    void namesAreInterned() {
+        // Arrange
+        String source = "Width := 10px; p { width: Width; } p { height: Width * 2; }";
+
+        // Act
+        AST ast = parse(source);
+
+        // Assert
+        VariableReference assigned = ((VariableAssignment) ast.root.getChildren().get(0)).name;
+        VariableReference used = (VariableReference) ast.root.getChildren().get(1).getChildren().get(1).getChildren().get(1);
+        assertEquals(assigned.symbol, used.symbol);
+        assertSame(assigned.name, used.name);
+        assertSame(ast.root.getChildren().get(1).getChildren().get(0).toString(), ast.root.getChildren().get(2).getChildren().get(0).toString());
+        assertEquals("Width", ast.symbols.name(used.symbol));
+        assertEquals(SymbolTable.WIDTH, ast.symbols.intern("width"));
+        assertEquals(6, ast.symbols.size());
+    }
+
+    @Test
+    void syntaxErrorsDoNotBreakTheBuilder() {
+        String[] sources = {"p { width: 1 + ; }", "p { width: * 2; }", "A := ; p {", "p { width: 1 + 2 * }", "+"};
+
+        for (String source : sources) {
+            assertNotNull(StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener()), source);
+        }
+    }
+
+    /**
+     * @return Het label en de positie van elke node, in de volgorde van de boom.
+     */
+    static List<String> positions(ASTNode root) {
+        List<String> positions = new ArrayList<>();
+        collectPositions(root, positions);
+        return positions;
+    }
+
+    private static void collectPositions(ASTNode node, List<String> positions) {
+        positions.add(node.getNodeLabel() + " " + SourcePosition.toString(node.getStart()) + " - " + SourcePosition.toString(node.getEnd())
+                + " [" + node.getStartOffset() + ", " + node.getEndOffset() + ")");
+        for (ASTNode child : node.getChildren()) {
+            collectPositions(child, positions);
+        }
+    }
+
+    private static AST parse(String source) {
+        return StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener());
+    }
+
+    private static AST walk(String source) {
+        ICSSLexer lexer = new ICSSLexer(CharStreams.fromString(source));
+        ICSSParser parser = new ICSSParser(new CommonTokenStream(lexer));
+        ASTListener listener = new ASTListener();
+        new ParseTreeWalker().walk(listener, parser.stylesheet());
+        return listener.getAST();
+    }
+}
@@ -0,0 +1,58 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.IcssCompiler;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.Stylerule;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionParserTest {
+
+    @Test
+    void multiplicationAndDivisionBindStrongerThanAdditionAndSubtraction() {
+        // Act
+        String tree = expression("1 + 2 * 3 / 4 - 5");
+
+        // Assert
+        assertEquals("[Subtract|[Add|[Scalar literal (1)|][Divide|[Multiply|[Scalar literal (2)|][Scalar literal (3)|]]"
+                + "[Scalar literal (4)|]]][Scalar literal (5)|]]", tree);
+    }
+
+    @Test
+    void equalOperatorsAreLeftAssociative() {
+        // Act
+        String subtraction = expression("1 - 2 - 3");
+        String division = expression("8 / 4 / 2");
+
+        // Assert
+        assertEquals("[Subtract|[Subtract|[Scalar literal (1)|][Scalar literal (2)|]][Scalar literal (3)|]]", subtraction);
+        assertEquals("[Divide|[Divide|[Scalar literal (8)|][Scalar literal (4)|]][Scalar literal (2)|]]", division);
+    }
+
+    @Test
+    void divisionIsCheckedAndEvaluated() {
+        // Arrange
+        IcssCompiler compiler = new IcssCompiler();
+
+        // Act
+        String css = compiler.compile("p { width: 20px - 4px - 2px + 12px / 3 * 2; }").getCss();
+        boolean byPixels = compiler.compile("p { width: 12px / 2px; }").isChecked();
+        boolean byZero = compiler.compile("p { width: 12px / 0; }").isChecked();
+        boolean byZeroVariable = compiler.compile("Zero := 0; p { width: 12px / Zero; }").isSucceeded();
+
+        // Assert
+        assertEquals("p {\n  width: 22px;\n}\n", css);
+        assertFalse(byPixels);
+        assertFalse(byZero);
+        assertFalse(byZeroVariable);
+    }
+
+    private static String expression(String expression) {
+        AST ast = StylesheetParser.parse(CharStreams.fromString("p { width: " + expression + "; }"), new BaseErrorListener());
+        return ((Declaration) ((Stylerule) ast.root.body.get(0)).body.get(0)).expression.toString();
+    }
+}
@@ -11,8 +11,21 @@ import nl.han.ica.icss.ast.selectors.ClassSelector;
 import nl.han.ica.icss.ast.selectors.IdSelector;
 import nl.han.ica.icss.ast.selectors.TagSelector;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 public class Fixtures {
 
+    /**
+     * @return De inhoud van een UTF-8 testbestand op het classpath, zoals level0.icss.
+     */
+    public static String load(String resource) throws IOException {
+        try (InputStream inputStream = Fixtures.class.getClassLoader().getResourceAsStream(resource)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
     public static AST uncheckedLevel0() {
 		Stylesheet stylesheet = new Stylesheet();
 		/*
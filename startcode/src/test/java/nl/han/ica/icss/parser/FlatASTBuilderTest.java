@@ -0,0 +1,73 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.flat.FlatAST;
+import nl.han.ica.icss.ast.flat.NodeKind;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatASTBuilderTest {
+
+    @Test
+    void flatTreeMatchesTheObjectAST() throws IOException {
+        for (String fixture : new String[]{"level0.icss", "level1.icss", "level2.icss", "level3.icss"}) {
+            // Arrange
+            String text = Fixtures.load(fixture);
+
+            // Act
+            FlatAST flat = StylesheetParser.parseFlat(CharStreams.fromString(text), new BaseErrorListener());
+            AST ast = StylesheetParser.parse(CharStreams.fromString(text), new BaseErrorListener());
+
+            // Assert
+            assertEquals(ast, flat.toAST(), fixture);
+            assertEquals(ASTBuilderTest.positions(ast.root), ASTBuilderTest.positions(flat.toAST().root), fixture);
+            assertEquals(ASTBuilderTest.positions(ast.root), ASTBuilderTest.positions(flat.node(flat.root())), fixture);
+        }
+    }
+
+    @Test
+    void expressionsFollowPrecedence() {
+        // Arrange
+        String source = "p { width: 1px + 2 * 3px - 4px; }";
+
+        // Act
+        FlatAST flat = StylesheetParser.parseFlat(CharStreams.fromString(source), new BaseErrorListener());
+
+        // Assert
+        int declaration = flat.nextSibling(flat.firstChild(flat.firstChild(flat.root())));
+        int subtract = flat.nextSibling(flat.firstChild(declaration));
+        assertEquals(NodeKind.SUBTRACT, flat.kind(subtract));
+        int add = flat.firstChild(subtract);
+        assertEquals(NodeKind.ADD, flat.kind(add));
+        assertEquals(NodeKind.MULTIPLY, flat.kind(flat.nextSibling(flat.firstChild(add))));
+        assertEquals(4, flat.value(flat.nextSibling(add)));
+        assertEquals(declaration, flat.parent(subtract));
+    }
+
+    @Test
+    void syntaxErrorsAreReported() {
+        // Arrange
+        int[] errors = new int[1];
+        BaseErrorListener listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errors[0]++;
+            }
+        };
+
+        // Act
+        FlatAST flat = StylesheetParser.parseFlat(CharStreams.fromString("p { width: 10px + ; }"), listener);
+
+        // Assert
+        assertTrue(errors[0] > 0);
+        assertEquals(NodeKind.STYLESHEET, flat.kind(flat.root()));
+    }
+}
@@ -0,0 +1,134 @@
+package nl.han.ica.icss.parser;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differentiële test: ICSSFastLexer moet voor elke invoer precies dezelfde tokens en foutmeldingen
+ * opleveren als de door Antlr gegenereerde ICSSLexer.
+ */
+class ICSSFastLexerTest {
+
+    @Test
+    void fixturesLexTheSame() throws IOException {
+        for (String fixture : new String[]{"level0.icss", "level1.icss", "level2.icss", "level3.icss"}) {
+            // Arrange
+            String source = Fixtures.load(fixture);
+
+            // Act & Assert
+            assertSameTokens(source);
+        }
+    }
+
+    @Test
+    void edgeCasesLexTheSame() {
+        String[] sources = {
+                "", "   \n\t ", "if iffy else elsewhere el", "TRUE FALSE TRUEFALSE True FALSE_1",
+                "10px 10pxa 10p 10 % 10% 007", "#abcdef #abcdeg #abcdef0 #abc #ABCDEF # #-1",
+                ".menu .-x . .A", ": := :== ::=", "a-b-10 aB Ab_c-d", "[ ] { } ; + - * /",
+                "$ @ ~ é €", "p {\n\twidth: #\n}", "#", ".", "a\r\nb\rc",
+                "#a\tb", "Width := 10px + 2 * 3%;"
+        };
+
+        for (String source : sources) {
+            assertSameTokens(source);
+        }
+    }
+
+    @Test
+    void randomInputLexesTheSame() {
+        // Arrange
+        String alphabet = "aefilpsxzAEFLRSTUZ0159#.:=-_%;{}[]+*/ \t\n\r$";
+        Random random = new Random(2022);
+
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            // Act & Assert
+            assertSameTokens(builder.toString());
+        }
+    }
+
+    @Test
+    void unbufferedInputLexesTheSame() {
+        // Arrange
+        String source = "Width := 10px;\n#menu { width: Width + 2px; color: #ab12ef; $ }";
+        ICSSLexer antlrLexer = new ICSSLexer(IcssCharStreams.unbuffered(new StringReader(source)));
+        antlrLexer.removeErrorListeners();
+        antlrLexer.setTokenFactory(new CommonTokenFactory(true));
+        List<String> expected = describe(antlrLexer);
+
+        // Act
+        ICSSFastLexer sut = new ICSSFastLexer(IcssCharStreams.unbuffered(new StringReader(source)), collect(new ArrayList<>()));
+        sut.setTokenFactory(new CommonTokenFactory(true));
+        List<String> actual = describe(sut);
+
+        // Assert
+        assertEquals(expected, actual);
+    }
+
+    private static void assertSameTokens(String source) {
+        assertEquals(lex(CharStreams.fromString(source), false), lex(CharStreams.fromString(source), true),
+                () -> "Tokens differ for: " + source);
+    }
+
+    /**
+     * @return Per token het type, de tekst en de positie, gevolgd door alle foutmeldingen.
+     */
+    private static List<String> lex(CharStream input, boolean fast) {
+        List<String> errors = new ArrayList<>();
+        TokenSource lexer;
+        if (fast) {
+            lexer = new ICSSFastLexer(input, collect(errors));
+        } else {
+            ICSSLexer antlrLexer = new ICSSLexer(input);
+            antlrLexer.removeErrorListeners();
+            antlrLexer.addErrorListener(collect(errors));
+            lexer = antlrLexer;
+        }
+
+        List<String> tokens = describe(lexer);
+        tokens.add(errors.toString());
+        return tokens;
+    }
+
+    private static List<String> describe(TokenSource lexer) {
+        List<String> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = lexer.nextToken();
+            tokens.add(token.getType() + " '" + token.getText() + "' " + token.getLine() + ":"
+                    + token.getCharPositionInLine() + " " + token.getStartIndex() + "-" + token.getStopIndex());
+        } while (token.getType() != Token.EOF);
+        return tokens;
+    }
+
+    private static BaseErrorListener collect(List<String> errors) {
+        return new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errors.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.ast.AST;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcssCharStreamsTest {
+
+    @TempDir
+    Path temp;
+
+    String readLevel3() throws IOException {
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("level3.icss")) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void asciiFileIsReadByteForByte() throws IOException {
+        // Arrange
+        Path file = temp.resolve("ascii.icss");
+        Files.writeString(file, "p { width: 10px; }");
+
+        // Act
+        CharStream sut = IcssCharStreams.fromPath(file);
+
+        // Assert
+        assertEquals(18, sut.size());
+        assertEquals("width", sut.getText(Interval.of(4, 8)));
+    }
+
+    @Test
+    void nonAsciiFileIsDecodedAsUtf8() throws IOException {
+        // Arrange
+        Path file = temp.resolve("utf8.icss");
+        Files.writeString(file, "é€", StandardCharsets.UTF_8);
+
+        // Act
+        CharStream sut = IcssCharStreams.fromPath(file);
+
+        // Assert
+        assertEquals(2, sut.size());
+        assertEquals('é', sut.LA(1));
+        assertEquals("é€", sut.getText(Interval.of(0, 1)));
+    }
+
+    @Test
+    void largeAsciiFileIsMapped() throws IOException {
+        // Arrange
+        String source = readLevel3();
+        Path file = temp.resolve("mapped.icss");
+        Files.writeString(file, source);
+
+        // Act
+        CharStream sut = IcssCharStreams.fromPath(file, 0);
+
+        // Assert
+        assertTrue(sut instanceof MappedAsciiCharStream);
+        assertEquals(source.length(), sut.size());
+        assertEquals(source.charAt(0), sut.LA(1));
+        assertEquals(source.substring(3, 12), sut.getText(Interval.of(3, 11)));
+        AST expected = StylesheetParser.parse(CharStreams.fromString(source), new BaseErrorListener());
+        AST actual = StylesheetParser.parse(sut, new BaseErrorListener());
+        assertEquals(expected, actual);
+        assertEquals(ASTBuilderTest.positions(expected.root), ASTBuilderTest.positions(actual.root));
+    }
+
+    @Test
+    void largeNonAsciiFileIsDecodedAsUtf8() throws IOException {
+        // Arrange
+        Path file = temp.resolve("mapped-utf8.icss");
+        Files.writeString(file, "p { width: 10px; } é€", StandardCharsets.UTF_8);
+
+        // Act
+        CharStream sut = IcssCharStreams.fromPath(file, 0);
+
+        // Assert
+        assertFalse(sut instanceof MappedAsciiCharStream);
+        assertEquals(21, sut.size());
+        assertEquals("é€", sut.getText(Interval.of(19, 20)));
+    }
+
+    @Test
+    void asciiCheckSeesEveryByte() {
+        for (int length = 0; length < 20; length++) {
+            for (int nonAscii = 0; nonAscii < length; nonAscii++) {
+                // Arrange
+                byte[] bytes = new byte[length];
+                Arrays.fill(bytes, (byte) 'a');
+                bytes[nonAscii] = (byte) 0xC3;
+
+                // Act & Assert
+                assertFalse(MappedAsciiCharStream.isAscii(ByteBuffer.wrap(bytes)), length + " " + nonAscii);
+            }
+            assertTrue(MappedAsciiCharStream.isAscii(ByteBuffer.wrap(new byte[length])));
+        }
+    }
+
+    @Test
+    void everyInputKindGivesTheSameAST() throws IOException {
+        // Arrange
+        String source = readLevel3();
+        Path file = temp.resolve("level3.icss");
+        Files.writeString(file, source);
+        Pipeline expected = new Pipeline();
+        expected.parseString(source);
+        Pipeline sut = new Pipeline();
+
+        // Act & Assert
+        sut.parsePath(file);
+        assertEquals(expected.getAST(), sut.getAST());
+        sut.parseChannel(Channels.newChannel(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(expected.getAST(), sut.getAST());
+        sut.parseStream(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected.getAST(), sut.getAST());
+        sut.parseReader(new StringReader(source));
+        assertEquals(expected.getAST(), sut.getAST());
+        assertTrue(sut.isParsed());
+    }
+}
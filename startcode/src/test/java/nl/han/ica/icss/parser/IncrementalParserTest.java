@@ -0,0 +1,160 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.SymbolTable;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalParserTest {
+    private static final String SOURCE = "Width := 10px;\n"
+            + "p { width: Width; }\n"
+            + "a { color: #ff0000; }\n"
+            + ".menu { width: Width + 2px; }\n";
+
+    private IncrementalParser sut;
+    private List<String> errors;
+    private BaseErrorListener listener;
+
+    @BeforeEach
+    void setUp() {
+        sut = new IncrementalParser();
+        errors = new ArrayList<>();
+        listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errors.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        };
+    }
+
+    @Test
+    void unchangedStatementsAreReused() {
+        // Arrange
+        String edited = SOURCE.replace("#ff0000", "#00ff00");
+        AST before = sut.parse(SOURCE, listener);
+
+        // Act
+        AST after = sut.parse(edited, listener);
+
+        // Assert
+        List<ASTNode> oldBody = before.root.getChildren();
+        List<ASTNode> newBody = after.root.getChildren();
+        assertSame(oldBody.get(0), newBody.get(0));
+        assertSame(oldBody.get(1), newBody.get(1));
+        assertNotSame(oldBody.get(2), newBody.get(2));
+        assertSame(oldBody.get(3), newBody.get(3));
+        assertEquals(StylesheetParser.parse(CharStreams.fromString(edited), listener), after);
+    }
+
+    @Test
+    void insertedStatementsAreParsed() {
+        // Arrange
+        String edited = SOURCE.replace("a {", "#menu { height: 5px; }\na {");
+        sut.parse(SOURCE, listener);
+
+        // Act
+        AST after = sut.parse(edited, listener);
+
+        // Assert
+        assertEquals(5, after.root.getChildren().size());
+        assertEquals(StylesheetParser.parse(CharStreams.fromString(edited), listener), after);
+    }
+
+    @Test
+    void positionsAreThoseOfAFullParse() {
+        String[] edits = {
+                SOURCE.replace("#ff0000", "#00ff00"),
+                SOURCE.replace("a { color: #ff0000; }", "a {\n\tcolor: #ff0000;\n\tbackground-color: #000000;\n}"),
+                SOURCE.replace("p { width: Width; }\n", "p { width: Width; } b { width: 1px; }    "),
+                SOURCE.replace("Width := 10px;\n", "")
+        };
+        sut.parse(SOURCE, listener);
+
+        for (String edited : edits) {
+            // Act
+            AST after = sut.parse(edited, listener);
+
+            // Assert
+            AST full = StylesheetParser.parse(CharStreams.fromString(edited), listener);
+            assertEquals(ASTBuilderTest.positions(full.root), ASTBuilderTest.positions(after.root), edited);
+        }
+    }
+
+    @Test
+    void earlierTreesKeepTheirPositions() {
+        // Arrange
+        String edited = SOURCE.replace("p { width: Width; }", "p {\n\twidth: Width;\n}");
+        AST before = sut.parse(SOURCE, listener);
+        List<String> expected = ASTBuilderTest.positions(before.root);
+
+        // Act
+        AST after = sut.parse(edited, listener);
+
+        // Assert
+        assertEquals(expected, ASTBuilderTest.positions(before.root));
+        assertNotSame(before.root.getChildren().get(3), after.root.getChildren().get(3));
+    }
+
+    @Test
+    void theSymbolTableIsRebuiltWhenItKeepsGrowing() {
+        // Arrange
+        sut.parse(SOURCE, listener);
+        AST after = null;
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            after = sut.parse(SOURCE.replace(".menu", ".menu" + i), listener);
+        }
+
+        // Assert
+        assertTrue(after.symbols.size() < 1000);
+        assertNotEquals(SymbolTable.UNKNOWN, after.symbols.find(".menu999"));
+        assertEquals(StylesheetParser.parse(CharStreams.fromString(SOURCE.replace(".menu", ".menu999")), listener), after);
+    }
+
+    @Test
+    void errorsAreThoseOfAFullParse() {
+        // Arrange
+        String edited = SOURCE.replace("color: #ff0000;", "color: ;");
+        List<String> expected = new ArrayList<>();
+        StylesheetParser.parse(CharStreams.fromString(edited), new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                expected.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        });
+        sut.parse(SOURCE, listener);
+
+        // Act
+        sut.parse(edited, listener);
+
+        // Assert
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, errors);
+    }
+
+    @Test
+    void assignmentsAfterStylerulesFallBackToAFullParse() {
+        // Arrange
+        String edited = SOURCE + "Late := 1px;\n";
+        sut.parse(SOURCE, listener);
+
+        // Act
+        sut.parse(edited, listener);
+
+        // Assert
+        assertFalse(errors.isEmpty());
+    }
+}
@@ -0,0 +1,115 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.ASTNode;
+import nl.han.ica.icss.ast.VariableReference;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelStylesheetParserTest {
+    private static final int CHUNK_SIZE = 256;
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void chunksMergeIntoTheSequentialAST() {
+        // Arrange
+        String source = stylesheet(100);
+
+        // Act
+        AST parallel = ParallelStylesheetParser.parse(source, new Errors(), pool, CHUNK_SIZE);
+
+        // Assert
+        AST sequential = StylesheetParser.parse(CharStreams.fromString(source), new Errors());
+        assertEquals(sequential, parallel);
+        assertEquals(ASTBuilderTest.positions(sequential.root), ASTBuilderTest.positions(parallel.root));
+
+        List<VariableReference> references = new ArrayList<>();
+        collectReferences(parallel.root, references);
+        VariableReference first = references.get(0);
+        VariableReference last = references.get(references.size() - 1);
+        assertEquals("Base", first.name);
+        assertEquals(first.name, last.name);
+        assertSame(first.name, last.name);
+        assertEquals(first.symbol, last.symbol);
+        for (VariableReference reference : references) {
+            assertSame(parallel.symbols.name(reference.symbol), reference.name);
+        }
+    }
+
+    @Test
+    void errorsAreThoseOfASequentialParse() {
+        String[] sources = {
+                stylesheet(60).replace(".rule-31 {", ".rule-31 { width: ;"),
+                stylesheet(60).replace("#rule-41 {", "#rule-41 { $"),
+                stylesheet(60) + "Late := 1px;\n",
+                stylesheet(60).replace("p {", "p {{")
+        };
+
+        for (String source : sources) {
+            // Arrange
+            Errors expected = new Errors();
+            StylesheetParser.parse(CharStreams.fromString(source), expected);
+            Errors actual = new Errors();
+
+            // Act
+            ParallelStylesheetParser.parse(source, actual, pool, CHUNK_SIZE);
+
+            // Assert
+            assertFalse(expected.messages.isEmpty());
+            assertEquals(expected.messages, actual.messages);
+        }
+    }
+
+    private static String stylesheet(int rules) {
+        StringBuilder builder = new StringBuilder("Base := 10px;\nUseBase := TRUE;\n");
+        for (int i = 0; i < rules; i++) {
+            builder.append(i % 3 == 0 ? "p" : i % 3 == 1 ? ".rule-" + i : "#rule-" + i).append(" {\n")
+                    .append("\tLocal := ").append(i).append("px;\n")
+                    .append("\twidth: Base + Local * 2;\n")
+                    .append("\tif[UseBase] { height: Base; } else { height: 50%; }\n")
+                    .append("}").append(i % 4 == 0 ? " " : "\n");
+        }
+        return builder.append("a { width: Base; }").toString();
+    }
+
+    private static void collectReferences(ASTNode node, List<VariableReference> references) {
+        if (node instanceof VariableReference) {
+            references.add((VariableReference) node);
+        }
+        for (ASTNode child : node.getChildren()) {
+            collectReferences(child, references);
+        }
+    }
+
+    private static class Errors extends BaseErrorListener {
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                int charPositionInLine, String msg, RecognitionException e) {
+            messages.add(line + ":" + charPositionInLine + " " + msg);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package nl.han.ica.icss.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserWarmupTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void parsesTheBundledAndExtraStylesheets() throws IOException {
+        // Arrange
+        Files.writeString(temp.resolve("extra.icss"), "p { width: 10px; }");
+        Files.writeString(temp.resolve("notes.txt"), "not a stylesheet");
+
+        // Act
+        int parsed = ParserWarmup.parseCorpus(temp.toString());
+
+        // Assert
+        assertEquals(5, parsed);
+    }
+
+    @Test
+    void aMissingCorpusIsSkipped() {
+        // Act
+        int parsed = ParserWarmup.parseCorpus(temp.resolve("missing").toString());
+
+        // Assert
+        assertEquals(4, parsed);
+    }
+}
@@ -0,0 +1,73 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.ast.AST;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StylesheetParserTest {
+
+    @Test
+    void validInputParsesWithoutErrors() {
+        // Arrange
+        List<String> errors = new ArrayList<>();
+
+        // Act
+        AST ast = StylesheetParser.parse(CharStreams.fromString("Width := 10px; p { width: Width + 2px; }"), collect(errors));
+
+        // Assert
+        assertTrue(errors.isEmpty());
+        assertEquals(2, ast.root.getChildren().size());
+    }
+
+    @Test
+    void fallbackReportsTheSameErrorsAsPlainLLParsing() {
+        // Arrange
+        String source = "p { width 10px; }\na { color: #ff0000 }\n$ { }";
+        List<String> expected = new ArrayList<>();
+        ICSSLexer lexer = new ICSSLexer(CharStreams.fromString(source));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(collect(expected));
+        ICSSParser parser = new ICSSParser(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(collect(expected));
+        parser.stylesheet();
+        List<String> errors = new ArrayList<>();
+
+        // Act
+        StylesheetParser.parse(CharStreams.fromString(source), collect(errors));
+
+        // Assert
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, errors);
+    }
+
+    @Test
+    void warmUpParsesTheBundledCorpusOnce() {
+        // Act
+        int first = ParserWarmup.warmUp();
+        int second = ParserWarmup.warmUp();
+
+        // Assert
+        assertTrue(first >= 4);
+        assertEquals(0, second);
+    }
+
+    private static BaseErrorListener collect(List<String> errors) {
+        return new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errors.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        };
+    }
+}
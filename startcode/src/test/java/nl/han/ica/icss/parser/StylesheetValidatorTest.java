@@ -0,0 +1,88 @@
+package nl.han.ica.icss.parser;
+
+import nl.han.ica.icss.Pipeline;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StylesheetValidatorTest {
+
+    @Test
+    void fixturesAreValid() throws IOException {
+        for (String fixture : new String[]{"level0.icss", "level1.icss", "level2.icss", "level3.icss"}) {
+            // Arrange
+            Pipeline pipeline = new Pipeline();
+
+            // Act
+            boolean valid = pipeline.validateString(Fixtures.load(fixture));
+
+            // Assert
+            assertTrue(valid, fixture + ": " + pipeline.getErrors());
+            assertNull(pipeline.getAST());
+        }
+    }
+
+    @Test
+    void semanticErrorsMatchTheChecker() {
+        String[] sources = {
+                "p { width: Undefined; }",
+                "p { color: 10px; background-color: 5; height: #ffffff; font: 1; }",
+                "p { width: 1px + 2%; height: 2 * 3 * 4px - #000000; }",
+                "p { width: 2px * 3px + TRUE; }",
+                "p { width: 10px / 0; height: 10px / 2px; color: 1px / 0 * 2; }",
+                "p { width: 10px / 0 + 1px; height: 10px / 2 / 0; }",
+                "A := 1px; p { A := 2%; width: A; }",
+                "A := B; p { width: A; }",
+                "A := 1px 2%; p { width: A + 1px; }",
+                "p { if[X] { width: 1px; } }",
+                "p { if[TRUE] { A := 1px; } else { width: A; } width: A; }",
+                "A := TRUE; p { if[A] { B := 1px; width: B; } else { B := 2%; height: B; } }",
+                ".a { A := 1px; } .b { width: A; }",
+                "A := 1 + 2 * 3px - 4px / 2; p { width: A; height: A * A; }"
+        };
+
+        for (String source : sources) {
+            // Arrange
+            Pipeline checked = new Pipeline();
+            checked.parseString(source);
+            checked.check();
+            Pipeline validated = new Pipeline();
+
+            // Act
+            boolean valid = validated.validateString(source);
+
+            // Assert
+            assertEquals(sorted(checked.getErrors()), sorted(validated.getErrors()), source);
+            assertEquals(checked.getErrors().isEmpty(), valid, source);
+        }
+    }
+
+    @Test
+    void stopsAtTheFirstSyntaxError() {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        InputStream input = new ByteArrayInputStream("p { width: 1 + ; } q { color: 1px; } r {".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        boolean valid = pipeline.validateStream(input);
+
+        // Assert
+        assertFalse(valid);
+        assertEquals(1, pipeline.getErrors().size());
+        assertTrue(pipeline.getErrors().get(0).startsWith("Syntax error"), pipeline.getErrors().toString());
+    }
+
+    private static List<String> sorted(List<String> errors) {
+        List<String> copy = new ArrayList<>(errors);
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,79 @@
+package nl.han.ica.icss.transforms;
+
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.Declaration;
+import nl.han.ica.icss.ast.Stylerule;
+import nl.han.ica.icss.generator.Generator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluatorTest {
+    private static final String SOURCE = "Width := 10px;\n"
+            + "p { width: 20px; color: #ff0000; }\n"
+            + "a { width: Width + 5px; color: #00ff00; }\n"
+            + "#menu { if[TRUE] { width: Width; } else { width: 0px; } }\n";
+
+    @Test
+    void leavesTheCheckedTreeIntact() {
+        // Arrange
+        AST checked = check(SOURCE);
+        AST expected = check(SOURCE);
+        String before = checked.toString();
+
+        // Act
+        new Evaluator().evaluate(checked);
+
+        // Assert
+        assertEquals(expected, checked);
+        assertEquals(before, checked.toString());
+    }
+
+    @Test
+    void sharesTheUnchangedSubtrees() {
+        // Arrange
+        AST checked = check(SOURCE);
+
+        // Act
+        AST evaluated = new Evaluator().evaluate(checked);
+
+        // Assert
+        Stylerule p = (Stylerule) checked.root.body.get(1);
+        Stylerule a = (Stylerule) checked.root.body.get(2);
+        Stylerule evaluatedA = (Stylerule) evaluated.root.body.get(1);
+        assertSame(p, evaluated.root.body.get(0));
+        assertNotSame(a, evaluatedA);
+        assertSame(a.selectors.get(0), evaluatedA.selectors.get(0));
+        assertSame(a.body.get(1), evaluatedA.body.get(1));
+        assertSame(((Declaration) a.body.get(0)).property, ((Declaration) evaluatedA.body.get(0)).property);
+        assertEquals(a.getStart(), evaluatedA.getStart());
+        assertSame(checked.symbols, evaluated.symbols);
+    }
+
+    @Test
+    void evaluatingTheCheckedTreeAgainGivesTheSameCss() {
+        // Arrange
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString(SOURCE);
+        pipeline.check();
+        pipeline.transform();
+        String expected = pipeline.generate();
+
+        // Act
+        pipeline.transform();
+
+        // Assert
+        assertEquals(expected, pipeline.generate());
+        assertEquals(check(SOURCE), pipeline.getCheckedAST());
+        assertNotSame(pipeline.getCheckedAST(), pipeline.getAST());
+        assertEquals(expected, new Generator().generate(new Evaluator().evaluate(pipeline.getCheckedAST())));
+    }
+
+    private static AST check(String source) {
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString(source);
+        pipeline.check();
+        return pipeline.getAST();
+    }
+}
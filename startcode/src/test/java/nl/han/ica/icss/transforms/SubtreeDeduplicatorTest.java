@@ -0,0 +1,62 @@
+package nl.han.ica.icss.transforms;
+
+import nl.han.ica.icss.Pipeline;
+import nl.han.ica.icss.ast.AST;
+import nl.han.ica.icss.ast.Stylerule;
+import nl.han.ica.icss.generator.Generator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubtreeDeduplicatorTest {
+    private static final String SOURCE = "Width := 10px;\n"
+            + "p { width: Width; color: #ff0000; }\n"
+            + "a { width: Width; color: #ff0000; }\n"
+            + "#menu { width: Width * 2; color: #ff0000; }\n";
+
+    @Test
+    void sharesRepeatedDeclarations() {
+        // Arrange
+        AST ast = transform(SOURCE);
+        SubtreeDeduplicator sut = new SubtreeDeduplicator();
+
+        // Act
+        sut.apply(ast);
+
+        // Assert
+        Stylerule p = (Stylerule) ast.root.body.get(0);
+        Stylerule a = (Stylerule) ast.root.body.get(1);
+        Stylerule menu = (Stylerule) ast.root.body.get(2);
+        assertSame(p.body.get(0), a.body.get(0));
+        assertSame(p.body.get(1), a.body.get(1));
+        assertSame(p.body.get(1), menu.body.get(1));
+        assertNotSame(p.body.get(0), menu.body.get(0));
+        assertTrue(sut.getSharedCount() > 0);
+    }
+
+    @Test
+    void keepsTheTreeEqualAndTheOutputTheSame() {
+        // Arrange
+        Pipeline expected = new Pipeline();
+        expected.parseString(SOURCE);
+        expected.check();
+        expected.transform();
+        AST ast = transform(SOURCE);
+
+        // Act
+        new SubtreeDeduplicator().apply(ast);
+
+        // Assert
+        assertEquals(expected.getAST(), ast);
+        assertEquals(expected.getAST().hashCode(), ast.hashCode());
+        assertEquals(expected.generate(), new Generator().generate(ast));
+    }
+
+    private static AST transform(String source) {
+        Pipeline pipeline = new Pipeline();
+        pipeline.parseString(source);
+        pipeline.check();
+        pipeline.transform();
+        return pipeline.getAST();
+    }
+}